@@ -1,16 +1,24 @@
 package com.studyflow.app;
 
 import com.studyflow.app.gui.StudyFlow;
+import com.studyflow.app.util.SyntheticDataGenerator;
 import javafx.application.Application;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 @EnableScheduling
 public class Main {
 
 	public static void main(String[] args) {
+		// --generate-data: arayuz acilmadan yuk testi verisi uretilir (bkz. SyntheticDataGenerator)
+		if (Arrays.asList(args).contains(SyntheticDataGenerator.CLI_FLAG)) {
+			SyntheticDataGenerator.runHeadless(args);
+			return;
+		}
 		Application.launch(StudyFlow.class, args);
 	}
 
@@ -0,0 +1,44 @@
+package com.studyflow.app.gui;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.Pane;
+
+/**
+ * UiTaskRunner ile veri beklenirken gosterilen gecici durumlar:
+ * etiketler gri "skeleton" kutu, listeler / tuvaller donen gosterge olur.
+ * Veri gelince show(...) veya pane icerigi yeniden cizilerek kaldirilir.
+ */
+public final class LoadingPlaceholders {
+
+    private static final String SKELETON = "skeleton";
+
+    private LoadingPlaceholders() {
+    }
+
+    public static void labels(Label... labels) {
+        for (Label label : labels) {
+            if (!label.getStyleClass().contains(SKELETON)) {
+                label.getStyleClass().add(SKELETON);
+            }
+            label.setText("...");
+        }
+    }
+
+    public static void show(Label label, String text) {
+        label.getStyleClass().remove(SKELETON);
+        label.setText(text);
+    }
+
+    public static void pane(Pane pane) {
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.getStyleClass().add("loading-indicator");
+        pane.getChildren().setAll(indicator);
+    }
+
+    public static void clear(Label... labels) {
+        for (Label label : labels) {
+            label.getStyleClass().remove(SKELETON);
+        }
+    }
+}
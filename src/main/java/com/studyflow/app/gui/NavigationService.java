@@ -3,10 +3,9 @@ package com.studyflow.app.gui;
 import javafx.scene.Node;
 import javafx.scene.layout.BorderPane;
 import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Stack;
 
 @Component
@@ -15,10 +14,12 @@ public class NavigationService {
     private BorderPane mainLayout;
     private final Stack<Node> history = new Stack<>();
 
-    private final Map<String, Node> viewCache = new HashMap<>();
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
 
     public void navigateTo(Node viewNode) {
         if (mainLayout.getCenter() != null) {
+            leave(mainLayout.getCenter());
             history.push(mainLayout.getCenter());
         }
 
@@ -27,16 +28,23 @@ public class NavigationService {
 
     public void jumpTo(Node viewNode){
         history.clear();
+        leave(mainLayout.getCenter());
         mainLayout.setCenter(viewNode);
     }
 
     public void goBack() {
         if (!history.isEmpty()) {
             Node previousView = history.pop();
+            leave(mainLayout.getCenter());
             mainLayout.setCenter(previousView);
         }
     }
 
+    // Ayrilan gorunumun bekleyen arka plan yuklemeleri iptal edilir
+    private void leave(Node view) {
+        uiTaskRunner.cancelWithin(view);
+    }
+
     public void clearHistory() {
         history.clear();
     }
@@ -0,0 +1,13 @@
+package com.studyflow.app.gui;
+
+/**
+ * ViewFactory.loadCachedView ile onbellekte tutulabilen ekranlarin controller'lari.
+ *  - initialize() sadece sahne grafigini ve listener'lari kurar; GlobalParams / oturum verisine bakmaz
+ *    (ekran arka planda onceden yuklenebilir).
+ *  - onShow() ekran her gosterildiginde (ilk yukleme ve onbellekten donus) cagrilir, veriyi yeniden yukler.
+ * Controller'lar singleton oldugu icin her FXML'in onbellekte tek bir sahne grafigi bulunur.
+ */
+public interface RefreshableView {
+
+    void onShow();
+}
@@ -0,0 +1,57 @@
+package com.studyflow.app.gui;
+
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * Acilista Spring context hazirlanirken gosterilen pencere.
+ * FXML / CSS kullanmaz (bunlar arka planda on yuklenirken aninda acilmasi icin kodla kurulur).
+ * Sadece FX Application Thread'inden kullanilir.
+ */
+class SplashScreen {
+
+    private final Stage stage = new Stage(StageStyle.UNDECORATED);
+    private final Label statusLabel = new Label("Baslatiliyor...");
+
+    SplashScreen(Image icon) {
+        ImageView logo = new ImageView(icon);
+        logo.setFitWidth(96);
+        logo.setFitHeight(96);
+        logo.setPreserveRatio(true);
+
+        Label title = new Label("StudyFlow");
+        title.setStyle("-fx-font-size: 26px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+        statusLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #7f8c8d;");
+
+        ProgressBar progress = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progress.setPrefWidth(260);
+
+        VBox root = new VBox(14, logo, title, progress, statusLabel);
+        root.setAlignment(Pos.CENTER);
+        root.setStyle("-fx-background-color: white; -fx-padding: 32; -fx-border-color: #dfe6e9;");
+
+        stage.setScene(new Scene(root, 420, 300));
+        stage.getIcons().add(icon);
+        stage.setTitle("StudyFlow");
+    }
+
+    void show() {
+        stage.centerOnScreen();
+        stage.show();
+    }
+
+    void setStatus(String status) {
+        statusLabel.setText(status);
+    }
+
+    void close() {
+        stage.close();
+    }
+}
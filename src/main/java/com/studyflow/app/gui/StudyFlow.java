@@ -1,33 +1,92 @@
 package com.studyflow.app.gui;
 
 import com.studyflow.app.Main;
+import com.studyflow.app.util.StartupTimings;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Acilis sirasi:
+ *  1. start() splash penceresini hemen gosterir.
+ *  2. Spring context (sema kontrolu ve diger CommandLineRunner'lar dahil) ve FXML / CSS on yuklemesi
+ *     ayri thread'lerde paralel calisir.
+ *  3. Ikisi de bitince ana pencere FX thread'inde kurulur, splash kapanir ve asama sureleri yazilir.
+ */
 public class StudyFlow extends Application {
     private ConfigurableApplicationContext applicationContext;
 
-    @Override
-    public void init() {
-        applicationContext = new SpringApplicationBuilder(Main.class).run();
-    }
-
     @Override
     public void stop() {
-        applicationContext.close();
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
     }
 
     @Override
     public void start(Stage stage) {
+        StartupTimings.sinceStart("JavaFX baslatma");
+
+        StartupTimings.Phase splashPhase = StartupTimings.begin("Splash");
+        Image icon = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/icon/StudyFlow.png")));
+        SplashScreen splash = new SplashScreen(icon);
+        splash.show();
+        splashPhase.close();
+
+        CompletableFuture<ConfigurableApplicationContext> contextFuture =
+                CompletableFuture.supplyAsync(() -> startSpring(splash), startupThread("spring-init"));
+        CompletableFuture<Void> warmupFuture = CompletableFuture.runAsync(
+                () -> StartupTimings.time("FXML/CSS on yukleme", UiWarmup::run), startupThread("ui-warmup")).exceptionally(error -> {
+            // On yukleme sadece hizlandirir, hatasi acilisi durdurmaz
+            System.out.println("[WARN] UI on yukleme hatasi: " + error.getMessage());
+            return null;
+        });
+
+        contextFuture.thenCombine(warmupFuture, (context, ignored) -> context)
+                .whenComplete((context, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        splash.close();
+                        showStartupError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                        return;
+                    }
+                    applicationContext = context;
+                    showMainWindow(stage, icon);
+                    splash.close();
+                    StartupTimings.report();
+                }));
+    }
+
+    private ConfigurableApplicationContext startSpring(SplashScreen splash) {
+        StartupTimings.Phase contextPhase = StartupTimings.begin("Spring context");
+        ApplicationListener<ApplicationStartedEvent> contextReady = event -> {
+            // Context hazir, sira CommandLineRunner'larda (sema kontrolu, ornek veri, ozetler)
+            contextPhase.close();
+            Platform.runLater(() -> splash.setStatus("Veritabani kontrol ediliyor..."));
+        };
+        Platform.runLater(() -> splash.setStatus("Servisler yukleniyor..."));
+        return new SpringApplicationBuilder(Main.class).listeners(contextReady).run();
+    }
+
+    private void showMainWindow(Stage stage, Image icon) {
+        StartupTimings.time("Ana pencere", () -> loadMainWindow(stage, icon));
+    }
+
+    private void loadMainWindow(Stage stage, Image icon) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main_layout.fxml"));
             loader.setControllerFactory(applicationContext::getBean);
@@ -35,7 +94,7 @@ public class StudyFlow extends Application {
             Scene scene = new Scene(root, 1024, 768);
             // scene.getStylesheets().add(getClass().getResource("/css/style.css").toExternalForm());
             stage.setTitle("StudyFlow");
-            stage.getIcons().add(new Image(Objects.requireNonNull(getClass().getResourceAsStream("/icon/StudyFlow.png"))));
+            stage.getIcons().add(icon);
             stage.setScene(scene);
             stage.setResizable(true);
             stage.show();
@@ -45,8 +104,21 @@ public class StudyFlow extends Application {
         }
     }
 
+    private void showStartupError(Throwable error) {
+        error.printStackTrace();
+        Alert alert = new Alert(Alert.AlertType.ERROR, "Uygulama baslatilamadi: " + error.getMessage());
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        Platform.exit();
+    }
+
+    // Acilis isleri icin tek kullanimlik, isimli platform thread'leri
+    private static Executor startupThread(String name) {
+        return task -> Thread.ofPlatform().name(name).start(task);
+    }
+
     public static void main(String[] args) {
         launch();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package com.studyflow.app.gui;
+
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Controller'larin servis / veritabani cagrilarini FX Application Thread disinda calistirir.
+ *  - Is virtual thread executor'da calisir, sonuc Platform.runLater ile FX thread'inde teslim edilir.
+ *  - Her istek bir owner Node'a baglidir. Owner sahneden ayrilinca veya NavigationService gorunumu
+ *    degistirince istek iptal edilir ve sonucu ekrana yazilmaz.
+ *  - Ayni anahtarla devam eden bir istek varsa yenisi baslatilmaz, sonuc tum bekleyenlerle paylasilir.
+ * Calisan JDBC sorgusu yarida kesilmez (thread interrupt havuzdaki baglantiyi kapatir); sadece sonucu atilir.
+ */
+@Component
+public class UiTaskRunner {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Shared<?>> inFlight = new ConcurrentHashMap<>();
+    // Sadece FX thread'inden erisilir
+    private final Set<Subscription<?>> active = new HashSet<>();
+
+    // ============================================
+    // 1. CALISTIRMA
+    // ============================================
+
+    public <T> Subscription<T> run(Node owner, String key, Callable<T> work, Consumer<T> onSuccess) {
+        return run(owner, key, work, onSuccess, error ->
+                System.out.println("[WARN] Arka plan yukleme hatasi (" + key + "): " + error.getMessage()));
+    }
+
+    /**
+     * @param owner sonucu gosterecek gorunumdeki herhangi bir node
+     * @param key   ayni veriyi isteyen cagrilari birlestirmek icin anahtar (null: birlestirme yok)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Subscription<T> run(Node owner, String key, Callable<T> work,
+                                   Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        Shared<T> shared = key == null
+                ? start(null, work)
+                : (Shared<T>) inFlight.computeIfAbsent(key, k -> start(k, work));
+        shared.subscribers.incrementAndGet();
+
+        Subscription<T> subscription = new Subscription<>(owner, shared, onSuccess, onError);
+        active.add(subscription);
+        subscription.watchOwner();
+        shared.future.whenComplete((result, error) -> Platform.runLater(() -> subscription.deliver(result, error)));
+        return subscription;
+    }
+
+    private <T> Shared<T> start(String key, Callable<T> work) {
+        Shared<T> shared = new Shared<>(key);
+        executor.submit(() -> {
+            try {
+                shared.future.complete(work.call());
+            } catch (Throwable t) {
+                shared.future.completeExceptionally(t);
+            } finally {
+                if (key != null) {
+                    inFlight.remove(key, shared);
+                }
+            }
+        });
+        return shared;
+    }
+
+    // ============================================
+    // 2. IPTAL
+    // ============================================
+
+    /**
+     * root ve altindaki node'lara bagli tum istekleri iptal eder (NavigationService gorunum degisiminde cagirir).
+     */
+    public void cancelWithin(Node root) {
+        if (root == null) {
+            return;
+        }
+        for (Subscription<?> subscription : new ArrayList<>(active)) {
+            if (isWithin(subscription.owner, root)) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private static boolean isWithin(Node node, Node root) {
+        for (Node n = node; n != null; n = n.getParent()) {
+            if (n == root) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Shared<T> {
+        private final String key;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        Shared(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Tek bir ekranin bekledigi sonuc. cancel() sonrasi callback'ler cagrilmaz.
+     */
+    public final class Subscription<T> {
+        private final Node owner;
+        private final Shared<T> shared;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Throwable> onError;
+        private ChangeListener<Scene> sceneListener;
+        private boolean done;
+        private boolean cancelled;
+
+        private Subscription(Node owner, Shared<T> shared, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            this.owner = owner;
+            this.shared = shared;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        // Owner sahneye eklenip sonra cikarilirsa (baska ekrana gecis) istek iptal edilir
+        private void watchOwner() {
+            if (owner == null) {
+                return;
+            }
+            sceneListener = (obs, oldScene, newScene) -> {
+                if (oldScene != null && newScene == null) {
+                    cancel();
+                }
+            };
+            owner.sceneProperty().addListener(sceneListener);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            if (done) {
+                return;
+            }
+            cancelled = true;
+            finish();
+            // Bekleyen kimse kalmadiysa sonraki ayni istek yeniden baslatilir
+            if (shared.subscribers.decrementAndGet() == 0 && shared.key != null) {
+                inFlight.remove(shared.key, shared);
+            }
+        }
+
+        private void deliver(T result, Throwable error) {
+            if (done) {
+                return;
+            }
+            finish();
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                onSuccess.accept(result);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            active.remove(this);
+            if (sceneListener != null) {
+                owner.sceneProperty().removeListener(sceneListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.studyflow.app.gui;
+
+import javafx.css.CssParser;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Acilista Spring context ile paralel calisan FXML / CSS on yuklemesi.
+ * FXML'ler controller (Spring bean) gerektirdigi icin burada yuklenmez; bunun yerine
+ *  - tum FXML dosyalarindaki <?import ...?> siniflari yuklenip static init'leri calistirilir,
+ *  - styles.css bir kez parse edilerek CSS parser / converter siniflari isitilir.
+ * Ilk ekran gecisindeki sinif yukleme maliyeti boylece splash suresine tasinir.
+ */
+final class UiWarmup {
+
+    private static final Pattern IMPORT = Pattern.compile("<\\?import\\s+([\\w.]+)\\s*\\?>");
+
+    private UiWarmup() {
+    }
+
+    static void run() {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(UiWarmup.class.getClassLoader());
+        Set<String> classNames = new TreeSet<>();
+        int fxmlCount = 0;
+
+        try {
+            for (Resource fxml : resolver.getResources("classpath*:fxml/**/*.fxml")) {
+                Matcher matcher = IMPORT.matcher(fxml.getContentAsString(StandardCharsets.UTF_8));
+                while (matcher.find()) {
+                    classNames.add(matcher.group(1));
+                }
+                fxmlCount++;
+            }
+        } catch (IOException e) {
+            System.out.println("[WARN] FXML listesi okunamadi: " + e.getMessage());
+        }
+
+        int loaded = 0;
+        for (String className : classNames) {
+            try {
+                Class.forName(className, true, UiWarmup.class.getClassLoader());
+                loaded++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Ilk gercek yuklemede ayni hata zaten gorunur
+            }
+        }
+
+        try {
+            new CssParser().parse(UiWarmup.class.getResource("/css/styles.css"));
+        } catch (IOException | RuntimeException | LinkageError e) {
+            System.out.println("[WARN] styles.css on yuklenemedi: " + e.getMessage());
+        }
+
+        System.out.println("[INFO] UI on yukleme: " + fxmlCount + " FXML, " + loaded + " sinif, styles.css");
+    }
+}
@@ -1,26 +1,184 @@
 package com.studyflow.app.gui;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * FXML yukleyici.
+ *  - loadView: her cagrida FXML'i parse eder ve controller'i yeniden baglar (giris, layout ekranlari).
+ *  - loadCachedView: controller'i RefreshableView olan ekranlari LRU onbellekte tutar; geri donuste
+ *    sahne grafigi yeniden kurulmaz, sadece onShow() ile veri yenilenir.
+ *  - preload: olasi sonraki ekranlari FX thread'i bosken tek tek yukleyip onbellege koyar.
+ * Tum metotlar FX Application Thread'inden cagrilir.
+ */
 @Component
 public class ViewFactory {
 
+    private static final int MAX_CACHED_VIEWS = 8;
+    // Gecis animasyonu / ilk cizim bittikten sonra on yukleme baslar
+    private static final Duration PRELOAD_DELAY = Duration.millis(300);
+
     @Autowired
     private  ApplicationContext context;
 
+    // Erisim sirasina gore: en eski kullanilan once cikar
+    private final Map<String, CachedView> viewCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedView> eldest) {
+            return size() > MAX_CACHED_VIEWS;
+        }
+    };
+
+    private final Deque<String> preloadQueue = new ArrayDeque<>();
+    private PauseTransition preloadDelay;
+
+    private final Map<LoadMode, long[]> latencyStats = new EnumMap<>(LoadMode.class);
+
+    private record CachedView(Parent root, RefreshableView controller) {
+    }
+
+    private enum LoadMode {
+        FRESH("yeni"), CACHED("onbellek"), PRELOAD("on yukleme");
+
+        private final String label;
+
+        LoadMode(String label) {
+            this.label = label;
+        }
+    }
+
+    // ============================================
+    // 1. YUKLEME
+    // ============================================
+
     public Parent loadView(String fxmlPath) {
+        long started = System.nanoTime();
+        FXMLLoader loader = load(fxmlPath);
+        // Controller yeni grafige baglandi, onbellekteki eski grafik artik gecersiz
+        viewCache.remove(fxmlPath);
+        recordLatency(LoadMode.FRESH, fxmlPath, started);
+        return loader.getRoot();
+    }
+
+    /**
+     * Onbellekte varsa ayni sahne grafigini dondurur, yoksa yukler. Her iki durumda da onShow() cagrilir.
+     * Controller'i RefreshableView olmayan ekranlar onbellege alinmaz (loadView gibi davranir).
+     */
+    public Parent loadCachedView(String fxmlPath) {
+        long started = System.nanoTime();
+        CachedView cached = viewCache.get(fxmlPath);
+        LoadMode mode = LoadMode.CACHED;
+        if (cached == null) {
+            mode = LoadMode.FRESH;
+            FXMLLoader loader = load(fxmlPath);
+            if (!(loader.getController() instanceof RefreshableView controller)) {
+                recordLatency(mode, fxmlPath, started);
+                return loader.getRoot();
+            }
+            cached = new CachedView(loader.getRoot(), controller);
+            viewCache.put(fxmlPath, cached);
+        }
+
+        cached.controller().onShow();
+        recordLatency(mode, fxmlPath, started);
+        return cached.root();
+    }
+
+    private FXMLLoader load(String fxmlPath) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             loader.setControllerFactory(context::getBean);
-            return loader.load();
+            loader.load();
+            return loader;
         } catch (IOException e) {
             throw new RuntimeException("FXML failed to load: " + fxmlPath, e);
         }
     }
-}
\ No newline at end of file
+
+    // ============================================
+    // 2. ON YUKLEME
+    // ============================================
+
+    /**
+     * Verilen ekranlari (ornegin rezervasyon sihirbazinin bir sonraki adimi) bos zamanda onbellege yukler.
+     * Sadece controller'i RefreshableView olan ekranlar verilmelidir: initialize() burada veri olmadan calisir.
+     * Yukleme FX thread'inde, her pulse'ta bir ekran olacak sekilde yapilir; onShow() cagrilmaz.
+     */
+    public void preload(String... fxmlPaths) {
+        for (String fxmlPath : fxmlPaths) {
+            if (!viewCache.containsKey(fxmlPath) && !preloadQueue.contains(fxmlPath)) {
+                preloadQueue.add(fxmlPath);
+            }
+        }
+        if (preloadQueue.isEmpty()) {
+            return;
+        }
+        // Kullanici art arda gecis yaparsa gecikme bastan baslar
+        if (preloadDelay == null) {
+            preloadDelay = new PauseTransition(PRELOAD_DELAY);
+            preloadDelay.setOnFinished(e -> preloadNext());
+        }
+        preloadDelay.playFromStart();
+    }
+
+    private void preloadNext() {
+        String fxmlPath = preloadQueue.poll();
+        if (fxmlPath == null) {
+            return;
+        }
+        // Bu arada kullanici ekrani acmis olabilir
+        if (!viewCache.containsKey(fxmlPath)) {
+            long started = System.nanoTime();
+            try {
+                FXMLLoader loader = load(fxmlPath);
+                if (loader.getController() instanceof RefreshableView controller) {
+                    viewCache.put(fxmlPath, new CachedView(loader.getRoot(), controller));
+                    recordLatency(LoadMode.PRELOAD, fxmlPath, started);
+                } else {
+                    System.out.println("[WARN] On yukleme atlandi, controller RefreshableView degil: " + fxmlPath);
+                }
+            } catch (RuntimeException e) {
+                System.out.println("[WARN] On yukleme hatasi (" + fxmlPath + "): " + e.getMessage());
+            }
+        }
+        if (!preloadQueue.isEmpty()) {
+            Platform.runLater(this::preloadNext);
+        }
+    }
+
+    // Oturum kapaninca onceki kullanicinin ekranlari tutulmaz
+    public void clearCache() {
+        preloadQueue.clear();
+        if (preloadDelay != null) {
+            preloadDelay.stop();
+        }
+        viewCache.clear();
+    }
+
+    // ============================================
+    // 3. OLCUM
+    // ============================================
+
+    // Gecis suresi: FXML parse + initialize (yeni) veya sadece onShow (onbellek)
+    private void recordLatency(LoadMode mode, String fxmlPath, long startedNanos) {
+        long elapsed = System.nanoTime() - startedNanos;
+        long[] stats = latencyStats.computeIfAbsent(mode, m -> new long[2]);
+        stats[0]++;
+        stats[1] += elapsed;
+        System.out.printf("[INFO] Gorunum (%s) %s: %.1f ms (ort. %.1f ms / %d)%n",
+                mode.label, fxmlPath, elapsed / 1_000_000.0, stats[1] / 1_000_000.0 / stats[0], stats[0]);
+    }
+}
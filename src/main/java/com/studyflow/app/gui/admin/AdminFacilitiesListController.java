@@ -1,8 +1,10 @@
 package com.studyflow.app.gui.admin;
 
+import com.studyflow.app.gui.LoadingPlaceholders;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
-import com.studyflow.app.model.facility.Facility;
-import com.studyflow.app.repository.facility.FacilityRepository;
+import com.studyflow.app.model.dto.FacilitySearchPage;
+import com.studyflow.app.service.facility.FacilityService;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -18,12 +20,11 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Component
+@Lazy
 public class AdminFacilitiesListController {
 
     @FXML
@@ -36,10 +37,7 @@ public class AdminFacilitiesListController {
     private Label totalCountLabel;
 
     @Autowired
-    private FacilityRepository facilityRepository;
-
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private FacilityService facilityService;
 
     @Autowired
     private ViewFactory viewFactory;
@@ -47,37 +45,48 @@ public class AdminFacilitiesListController {
     @Autowired
     private AdminMainController adminMainController;
 
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
+
+    // Ekrandaki arama ve yuklenen son sayfa ("Daha fazla" butonu sonraki sayfayi ekler)
+    private String currentQuery = "";
+    private FacilitySearchPage currentPage;
+
     @FXML
     public void initialize() {
-        loadFacilities();
-    }
-
-    private void loadFacilities() {
-        List<Facility> facilities = facilityRepository.findAll();
-        displayFacilities(facilities);
+        currentQuery = "";
+        loadPage(0);
     }
 
     @FXML
     public void handleSearch() {
-        String query = searchField.getText().trim().toLowerCase();
-        List<Facility> facilities;
-
-        if (query.isEmpty()) {
-            facilities = facilityRepository.findAll();
-        } else {
-            facilities = facilityRepository.findAll().stream()
-                    .filter(f -> f.getName().toLowerCase().contains(query) ||
-                            f.getAddress().toLowerCase().contains(query))
-                    .toList();
-        }
-
-        displayFacilities(facilities);
+        currentQuery = searchField.getText().trim();
+        loadPage(0);
     }
 
-    private void displayFacilities(List<Facility> facilities) {
-        facilitiesContainer.getChildren().clear();
+    private void loadPage(int page) {
+        String query = currentQuery;
+        if (page == 0) {
+            LoadingPlaceholders.pane(facilitiesContainer);
+        }
+        uiTaskRunner.run(facilitiesContainer, "facility-search:asc:" + query + ":" + page,
+                () -> facilityService.searchFacilities(query, "asc", page), result -> {
+                    // Bu arada yeni arama yapildiysa eski sonuc atilir
+                    if (!query.equals(currentQuery)) {
+                        return;
+                    }
+                    currentPage = result;
+                    if (page == 0) {
+                        facilitiesContainer.getChildren().clear();
+                    } else {
+                        facilitiesContainer.getChildren().removeIf(node -> node instanceof Button);
+                    }
+                    displayFacilities(result);
+                });
+    }
 
-        if (facilities.isEmpty()) {
+    private void displayFacilities(FacilitySearchPage page) {
+        if (page.getTotalCount() == 0) {
             emptyState.setVisible(true);
             emptyState.setManaged(true);
             totalCountLabel.setText("Total: 0 facilities");
@@ -86,15 +95,22 @@ public class AdminFacilitiesListController {
 
         emptyState.setVisible(false);
         emptyState.setManaged(false);
-        totalCountLabel.setText("Total: " + facilities.size() + " facilities");
+        totalCountLabel.setText("Total: " + page.getTotalCount() + " facilities");
 
-        for (Facility facility : facilities) {
+        for (FacilitySearchPage.Item facility : page.getItems()) {
             VBox card = createFacilityCard(facility);
             facilitiesContainer.getChildren().add(card);
         }
+
+        if (page.hasNext()) {
+            Button moreBtn = new Button("Daha fazla");
+            moreBtn.getStyleClass().add("secondary-button");
+            moreBtn.setOnAction(e -> loadPage(currentPage.getPage() + 1));
+            facilitiesContainer.getChildren().add(moreBtn);
+        }
     }
 
-    private VBox createFacilityCard(Facility facility) {
+    private VBox createFacilityCard(FacilitySearchPage.Item facility) {
         VBox card = new VBox(12);
         card.setPrefWidth(320);
         card.setPrefHeight(280);
@@ -135,10 +151,10 @@ public class AdminFacilitiesListController {
         HBox statsRow = new HBox(15);
         statsRow.setAlignment(Pos.CENTER_LEFT);
 
-        // Get stats for this facility
-        Integer blockCount = getBlockCount(facility.getId());
-        Integer seatCount = getSeatCount(facility.getId());
-        Integer activeRes = getActiveReservations(facility.getId());
+        // Stats arama sorgusunda gelir
+        int blockCount = facility.getBlockCount();
+        int seatCount = facility.getSeatCount();
+        int activeRes = facility.getActiveReservations();
 
         Label blocksLabel = new Label("Blocks: " + blockCount);
         blocksLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #3b82f6; -fx-font-weight: 600;");
@@ -183,50 +199,17 @@ public class AdminFacilitiesListController {
         return card;
     }
 
-    private Integer getBlockCount(Long facilityId) {
-        try {
-            return jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM facility_blocks WHERE facility_id = ?",
-                    Integer.class, facilityId);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
-    private Integer getSeatCount(Long facilityId) {
-        try {
-            return jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM seats s " +
-                            "JOIN desks d ON s.desk_id = d.id " +
-                            "JOIN facility_blocks fb ON d.block_id = fb.id " +
-                            "WHERE fb.facility_id = ?",
-                    Integer.class, facilityId);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
-    private Integer getActiveReservations(Long facilityId) {
-        try {
-            return jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE facility_id = ? AND status = 'ACTIVE'",
-                    Integer.class, facilityId);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
     @FXML
     public void handleCreateNew() {
         adminMainController.loadViewFromExternal("/fxml/admin/admin-create-facility.fxml");
     }
 
-    private void viewFacilityDetails(Facility facility) {
+    private void viewFacilityDetails(FacilitySearchPage.Item facility) {
         // TODO: Navigate to facility details
         System.out.println("View details for: " + facility.getName());
     }
 
-    private void editFacility(Facility facility) {
+    private void editFacility(FacilitySearchPage.Item facility) {
         // TODO: Navigate to edit facility
         System.out.println("Edit facility: " + facility.getName());
     }
@@ -1,9 +1,13 @@
 package com.studyflow.app.gui.admin;
 
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
-import com.studyflow.app.model.facility.Facility;
+import com.studyflow.app.model.dto.DashboardSnapshot;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
 import com.studyflow.app.service.facility.FacilityService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -20,14 +24,14 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
 import java.util.List;
 
 @Component
-public class AdminHomeController {
+@Lazy
+public class AdminHomeController implements RefreshableView {
 
     // Istatistik Labellari
     @FXML
@@ -68,120 +72,71 @@ public class AdminHomeController {
     private UserSessionContext userSessionContext;
 
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private AdminDashboardService adminDashboardService;
 
-    @FXML
-    public void initialize() {
-        loadStatistics();
-        loadTopFacilities();
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
+
+    // Ekran onbellekten her gosterildiginde snapshot yeniden okunur
+    @Override
+    public void onShow() {
+        Label[] statLabels = { totalFacilitiesLabel, totalUsersLabel, totalSeatsLabel, activeReservationsLabel,
+                totalBlocksLabel, totalDesksLabel, totalLibrariansLabel, occupancyRateLabel };
+        LoadingPlaceholders.labels(statLabels);
+        LoadingPlaceholders.pane(topFacilitiesPane);
+
+        // Tum sayilar tek snapshot'tan (AdminDashboardService, kisa sureli onbellek), arka planda
+        uiTaskRunner.run(topFacilitiesPane, "admin-dashboard", adminDashboardService::getSnapshot, snapshot -> {
+            LoadingPlaceholders.clear(statLabels);
+            loadStatistics(snapshot);
+            loadTopFacilities(snapshot);
+        }, error -> System.err.println("Istatistik yukleme hatasi: " + error.getMessage()));
     }
 
-    private void loadStatistics() {
-        try {
-            // Temel istatistikler
-            Integer facilities = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facilities", Integer.class);
-            Integer users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_role = 'USER'",
-                    Integer.class);
-            Integer seats = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seats", Integer.class);
-            Integer blocks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facility_blocks", Integer.class);
-            Integer desks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM desks", Integer.class);
-            Integer librarians = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_role = 'LIBRARIAN'",
-                    Integer.class);
-
-            // Rezervasyon istatistikleri
-            Integer activeRes = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE status = 'ACTIVE' AND reservation_date >= ?",
-                    Integer.class, LocalDate.now());
-            Integer completedRes = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE status = 'COMPLETED'", Integer.class);
-            Integer cancelledRes = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE status = 'CANCELLED'", Integer.class);
-
-            // Bugunku doluluk orani
-            Integer todayReservations = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE reservation_date = ? AND status = 'ACTIVE'",
-                    Integer.class, LocalDate.now());
-            double occupancyRate = seats > 0 ? (todayReservations * 100.0 / seats) : 0;
-
-            // Labellari guncelle
-            totalFacilitiesLabel.setText(String.valueOf(facilities != null ? facilities : 0));
-            totalUsersLabel.setText(String.valueOf(users != null ? users : 0));
-            totalSeatsLabel.setText(String.valueOf(seats != null ? seats : 0));
-            activeReservationsLabel.setText(String.valueOf(activeRes != null ? activeRes : 0));
-            totalBlocksLabel.setText(String.valueOf(blocks != null ? blocks : 0));
-            totalDesksLabel.setText(String.valueOf(desks != null ? desks : 0));
-            totalLibrariansLabel.setText(String.valueOf(librarians != null ? librarians : 0));
-            occupancyRateLabel.setText(String.format("%.1f%%", occupancyRate));
-
-            // Pie Chart verilerini guncelle
-            ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList(
-                    new PieChart.Data("Active (" + (activeRes != null ? activeRes : 0) + ")",
-                            activeRes != null ? activeRes : 0),
-                    new PieChart.Data("Completed (" + (completedRes != null ? completedRes : 0) + ")",
-                            completedRes != null ? completedRes : 0),
-                    new PieChart.Data("Cancelled (" + (cancelledRes != null ? cancelledRes : 0) + ")",
-                            cancelledRes != null ? cancelledRes : 0));
-            reservationPieChart.setData(pieData);
-
-            // Pie Chart renkleri
-            String[] colors = { "#27ae60", "#3498db", "#e74c3c" };
-            for (int i = 0; i < pieData.size(); i++) {
-                pieData.get(i).getNode().setStyle("-fx-pie-color: " + colors[i] + ";");
-            }
-
-        } catch (Exception e) {
-            System.err.println("Istatistik yukleme hatasi: " + e.getMessage());
+    private void loadStatistics(DashboardSnapshot snapshot) {
+        // Labellari guncelle
+        totalFacilitiesLabel.setText(String.valueOf(snapshot.getTotalFacilities()));
+        totalUsersLabel.setText(String.valueOf(snapshot.getTotalUsers()));
+        totalSeatsLabel.setText(String.valueOf(snapshot.getTotalSeats()));
+        activeReservationsLabel.setText(String.valueOf(snapshot.getActiveReservations()));
+        totalBlocksLabel.setText(String.valueOf(snapshot.getTotalBlocks()));
+        totalDesksLabel.setText(String.valueOf(snapshot.getTotalDesks()));
+        totalLibrariansLabel.setText(String.valueOf(snapshot.getTotalLibrarians()));
+        occupancyRateLabel.setText(String.format("%.1f%%", snapshot.getOccupancyRate()));
+
+        // Pie Chart verilerini guncelle
+        int activeRes = snapshot.getActiveReservations();
+        int completedRes = snapshot.getCompletedReservations();
+        int cancelledRes = snapshot.getCancelledReservations();
+        ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList(
+                new PieChart.Data("Active (" + activeRes + ")", activeRes),
+                new PieChart.Data("Completed (" + completedRes + ")", completedRes),
+                new PieChart.Data("Cancelled (" + cancelledRes + ")", cancelledRes));
+        reservationPieChart.setData(pieData);
+
+        // Pie Chart renkleri
+        String[] colors = { "#27ae60", "#3498db", "#e74c3c" };
+        for (int i = 0; i < pieData.size(); i++) {
+            pieData.get(i).getNode().setStyle("-fx-pie-color: " + colors[i] + ";");
         }
     }
 
-    private static class FacilityStat {
-        Facility facility;
-        int activeCount;
+    private void loadTopFacilities(DashboardSnapshot snapshot) {
+        List<DashboardSnapshot.FacilityCard> cards = snapshot.getTopFacilities();
+        topFacilitiesPane.getChildren().clear();
 
-        public FacilityStat(Facility facility, int activeCount) {
-            this.facility = facility;
-            this.activeCount = activeCount;
+        for (DashboardSnapshot.FacilityCard card : cards) {
+            topFacilitiesPane.getChildren().add(createFacilityMiniCard(card));
         }
-    }
 
-    private void loadTopFacilities() {
-        try {
-            String sql = "SELECT f.id, f.name, f.address, f.image_url, COUNT(r.id) as reservation_count " +
-                    "FROM facilities f " +
-                    "LEFT JOIN reservations r ON f.id = r.facility_id " +
-                    "AND r.reservation_date = ? AND r.status = 'ACTIVE' " +
-                    "GROUP BY f.id, f.name, f.address, f.image_url " +
-                    "ORDER BY reservation_count DESC, f.name ASC " +
-                    "LIMIT 4";
-
-            List<FacilityStat> stats = jdbcTemplate.query(sql, (rs, rowNum) -> {
-                Facility f = new Facility();
-                f.setId(rs.getLong("id"));
-                f.setName(rs.getString("name"));
-                f.setAddress(rs.getString("address"));
-                f.setImageUrl(rs.getString("image_url"));
-                return new FacilityStat(f, rs.getInt("reservation_count"));
-            }, LocalDate.now());
-
-            topFacilitiesPane.getChildren().clear();
-
-            for (FacilityStat stat : stats) {
-                topFacilitiesPane.getChildren().add(createFacilityMiniCard(stat));
-            }
-
-            if (stats.isEmpty()) {
-                Label empty = new Label("Bugün henüz aktif rezervasyon yok");
-                empty.setStyle("-fx-text-fill: #999; -fx-font-size: 14px;");
-                topFacilitiesPane.getChildren().add(empty);
-            }
-        } catch (Exception e) {
-            System.err.println("Top facilities yukleme hatasi: " + e.getMessage());
-            e.printStackTrace();
+        if (cards.isEmpty()) {
+            Label empty = new Label("Bugün henüz aktif rezervasyon yok");
+            empty.setStyle("-fx-text-fill: #999; -fx-font-size: 14px;");
+            topFacilitiesPane.getChildren().add(empty);
         }
     }
 
-    private VBox createFacilityMiniCard(FacilityStat stat) {
-        Facility facility = stat.facility;
+    private VBox createFacilityMiniCard(DashboardSnapshot.FacilityCard facility) {
         VBox card = new VBox(8);
         card.setPrefWidth(180);
         card.setPrefHeight(150); // Slightly increased height
@@ -209,32 +164,17 @@ public class AdminHomeController {
         name.setWrapText(true);
 
         // Active Reservations
-        Label activeLabel = new Label("Aktif: " + stat.activeCount);
+        Label activeLabel = new Label("Aktif: " + facility.getActiveToday());
         activeLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #e74c3c; -fx-font-weight: bold;");
 
-        // Total Seats
-        Integer seatCount = getSeatCount(facility.getId());
-        Label seats = new Label("Kapasite: " + seatCount);
+        // Total Seats (kapasite snapshot sorgusunda tesis basina hesaplanir)
+        Label seats = new Label("Kapasite: " + facility.getSeatCount());
         seats.setStyle("-fx-font-size: 11px; -fx-text-fill: #666;");
 
         card.getChildren().addAll(imageView, name, activeLabel, seats);
         return card;
     }
 
-    private int getSeatCount(Long facilityId) {
-        try {
-            Integer count = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(s.id) FROM seats s " +
-                            "JOIN desks d ON s.desk_id = d.id " +
-                            "JOIN facility_blocks fb ON d.block_id = fb.id " +
-                            "WHERE fb.facility_id = ?",
-                    Integer.class, facilityId);
-            return count != null ? count : 0;
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
     @FXML
     public void handleGoToCreateFacility() {
         navigateToView("/fxml/admin/admin-create-facility.fxml");
@@ -254,7 +194,7 @@ public class AdminHomeController {
             }
             if (parent != null && parent.getParent() instanceof StackPane) {
                 StackPane contentArea = (StackPane) parent.getParent();
-                Parent view = viewFactory.loadView(fxmlPath);
+                Parent view = viewFactory.loadCachedView(fxmlPath);
                 contentArea.getChildren().setAll(view);
             }
         } catch (Exception e) {
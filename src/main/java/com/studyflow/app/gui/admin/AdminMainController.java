@@ -12,12 +12,14 @@ import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.layout.StackPane;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 @Component
+@Lazy
 public class AdminMainController {
 
     @FXML
@@ -97,11 +99,12 @@ public class AdminMainController {
     @FXML
     public void handleLogout() {
         userSessionContext.logout();
+        viewFactory.clearCache();
         navigationService.navigateTo(viewFactory.loadView("/fxml/auth/login.fxml"));
     }
 
     private void loadView(String fxmlPath) {
-        Parent view = viewFactory.loadView(fxmlPath);
+        Parent view = viewFactory.loadCachedView(fxmlPath);
         contentArea.getChildren().setAll(view);
     }
 
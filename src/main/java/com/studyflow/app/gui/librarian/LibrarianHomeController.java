@@ -2,22 +2,30 @@ package com.studyflow.app.gui.librarian;
 
 import com.studyflow.app.context.UserSessionContext;
 
+import com.studyflow.app.gui.LoadingPlaceholders;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
+import com.studyflow.app.model.dto.LibrarianDashboard;
+import com.studyflow.app.service.dashboard.LibrarianDashboardService;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 
+import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 @Component
-public class LibrarianHomeController {
+@Lazy
+public class LibrarianHomeController implements RefreshableView {
 
     // Dashboard Labels
     @FXML
@@ -55,110 +63,125 @@ public class LibrarianHomeController {
     private UserSessionContext userSessionContext;
 
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private LibrarianDashboardService librarianDashboardService;
+
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
+
+    // Anlik doluluk dakikada bir yenilenir (sorgu seti tekrar calismaz)
+    private Timeline occupancyTimeline;
 
     @FXML
     public void initialize() {
+        // Ekrandan ayrilinca zamanlayici durur (gorunum onbellekte kalir, listener bir kez eklenir)
+        weeklyBarChart.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                stopOccupancyTimer();
+            }
+        });
+    }
+
+    @Override
+    public void onShow() {
         // İstatistikleri yükle
         loadStatistics();
     }
 
     private void loadStatistics() {
-        try {
-            Long facilityId = userSessionContext.getAssignedFacilityId();
-            if (facilityId == null) {
-                facilityNameLabel.setText("Tesis: Atanmadi");
-                return;
-            }
+        Long facilityId = userSessionContext.getAssignedFacilityId();
+        if (facilityId == null) {
+            facilityNameLabel.setText("Tesis: Atanmadi");
+            return;
+        }
 
-            // Tesis adını al
-            String facilityName = jdbcTemplate.queryForObject(
-                    "SELECT name FROM facilities WHERE id = ?", String.class, facilityId);
-            facilityNameLabel.setText("Tesis: " + facilityName);
-
-            // Bugünün tarihini göster
-            currentDateLabel
-                    .setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-
-            // Tesis istatistikleri
-            Integer blocks = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM facility_blocks WHERE facility_id = ?", Integer.class, facilityId);
-            Integer desks = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM desks d JOIN facility_blocks fb ON d.facility_block_id = fb.id WHERE fb.facility_id = ?",
-                    Integer.class, facilityId);
-            Integer totalSeats = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM seats s JOIN desks d ON s.desk_id = d.id " +
-                            "JOIN facility_blocks fb ON d.facility_block_id = fb.id WHERE fb.facility_id = ?",
-                    Integer.class, facilityId);
-
-            // Bugünkü rezervasyonlar
-            Integer todayRes = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE facility_id = ? AND reservation_date = ? AND status = 'ACTIVE'",
-                    Integer.class, facilityId, LocalDate.now());
-
-            // Bu haftaki rezervasyonlar
-            LocalDate weekStart = LocalDate.now().with(DayOfWeek.MONDAY);
-            LocalDate weekEnd = weekStart.plusDays(6);
-            Integer weekRes = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM reservations WHERE facility_id = ? AND reservation_date BETWEEN ? AND ? AND status = 'ACTIVE'",
-                    Integer.class, facilityId, weekStart, weekEnd);
-
-            // Doluluk oranı hesapla
-            int occupied = todayRes != null ? todayRes : 0;
-            int total = totalSeats != null ? totalSeats : 0;
-            double occupancyRate = total > 0 ? (occupied * 100.0 / total) : 0;
-
-            // UI güncelle
-            totalBlocksLabel.setText(String.valueOf(blocks != null ? blocks : 0));
-            totalDesksLabel.setText(String.valueOf(desks != null ? desks : 0));
-            todayReservationsLabel.setText(String.valueOf(todayRes != null ? todayRes : 0));
-            weekReservationsLabel.setText(String.valueOf(weekRes != null ? weekRes : 0));
-
-            // Doluluk gösterimi
-            occupancyPercentLabel.setText(String.format("%.1f%%", occupancyRate));
-            occupancyProgressBar.setProgress(occupancyRate / 100.0);
-            occupiedSeatsLabel.setText("🟢 Dolu: " + occupied);
-            availableSeatsLabel.setText("⚪ Musait: " + (total - occupied));
-            totalSeatsInfoLabel.setText("📊 Toplam: " + total + " koltuk");
-
-            // Progress bar rengini ayarla
-            if (occupancyRate > 80) {
-                occupancyProgressBar.setStyle("-fx-accent: #e74c3c;");
-            } else if (occupancyRate > 50) {
-                occupancyProgressBar.setStyle("-fx-accent: #f39c12;");
-            } else {
-                occupancyProgressBar.setStyle("-fx-accent: #27ae60;");
-            }
+        // Bugünün tarihini göster
+        currentDateLabel
+                .setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
 
-            // Haftalık grafik verilerini yükle
-            loadWeeklyChart(facilityId);
+        Label[] statLabels = { facilityNameLabel, totalBlocksLabel, totalDesksLabel, todayReservationsLabel,
+                weekReservationsLabel, occupancyPercentLabel, occupiedSeatsLabel, availableSeatsLabel, totalSeatsInfoLabel };
+        LoadingPlaceholders.labels(statLabels);
 
-        } catch (Exception e) {
-            System.err.println("İstatistik yükleme hatası: " + e.getMessage());
-            e.printStackTrace();
+        uiTaskRunner.run(weeklyBarChart, "librarian-dashboard:" + facilityId,
+                () -> librarianDashboardService.getDashboard(facilityId), dashboard -> {
+                    LoadingPlaceholders.clear(statLabels);
+                    facilityNameLabel.setText("Tesis: " + dashboard.getFacilityName());
+
+                    // UI güncelle
+                    totalBlocksLabel.setText(String.valueOf(dashboard.getTotalBlocks()));
+                    totalDesksLabel.setText(String.valueOf(dashboard.getTotalDesks()));
+                    todayReservationsLabel.setText(String.valueOf(dashboard.getTodayReservations()));
+                    weekReservationsLabel.setText(String.valueOf(dashboard.getWeekReservations()));
+
+                    showOccupancy(dashboard.getOccupancy());
+
+                    // Haftalık grafik verilerini yükle
+                    loadWeeklyChart(dashboard);
+
+                    startOccupancyTimer(facilityId);
+                }, error -> {
+                    System.err.println("İstatistik yükleme hatası: " + error.getMessage());
+                    error.printStackTrace();
+                });
+    }
+
+    // Doluluk gösterimi: su anda devam eden rezervasyonlar / toplam koltuk
+    private void showOccupancy(LibrarianDashboard.Occupancy occupancy) {
+        double occupancyRate = occupancy.getOccupancyRate();
+        int occupied = occupancy.getOccupiedNow();
+        int total = occupancy.getTotalSeats();
+
+        occupancyPercentLabel.setText(String.format("%.1f%%", occupancyRate));
+        occupancyProgressBar.setProgress(occupancyRate / 100.0);
+        occupiedSeatsLabel.setText("🟢 Dolu: " + occupied + " (1 saat içinde: " + occupancy.getOccupiedNextHour() + ")");
+        availableSeatsLabel.setText("⚪ Musait: " + (total - occupied));
+        totalSeatsInfoLabel.setText("📊 Toplam: " + total + " koltuk");
+
+        // Progress bar rengini ayarla
+        if (occupancyRate > 80) {
+            occupancyProgressBar.setStyle("-fx-accent: #e74c3c;");
+        } else if (occupancyRate > 50) {
+            occupancyProgressBar.setStyle("-fx-accent: #f39c12;");
+        } else {
+            occupancyProgressBar.setStyle("-fx-accent: #27ae60;");
+        }
+    }
+
+    private void startOccupancyTimer(Long facilityId) {
+        stopOccupancyTimer();
+        occupancyTimeline = new Timeline(
+                new KeyFrame(Duration.minutes(1), e -> uiTaskRunner.run(weeklyBarChart, "librarian-occupancy:" + facilityId,
+                        () -> librarianDashboardService.getOccupancy(facilityId), this::showOccupancy,
+                        error -> System.err.println("Doluluk yenileme hatası: " + error.getMessage()))));
+        occupancyTimeline.setCycleCount(Timeline.INDEFINITE);
+        occupancyTimeline.play();
+    }
+
+    private void stopOccupancyTimer() {
+        if (occupancyTimeline != null) {
+            occupancyTimeline.stop();
+            occupancyTimeline = null;
         }
     }
 
-    private void loadWeeklyChart(Long facilityId) {
+    private void loadWeeklyChart(LibrarianDashboard dashboard) {
         try {
             XYChart.Series<String, Number> series = new XYChart.Series<>();
             series.setName("Rezervasyonlar");
 
             LocalDate today = LocalDate.now();
             String[] dayNames = { "Pzt", "Sal", "Car", "Per", "Cum", "Cmt", "Paz" };
+            int[] counts = dashboard.getWeeklyCounts();
 
             for (int i = 0; i < 7; i++) {
-                LocalDate date = today.with(DayOfWeek.MONDAY).plusDays(i);
-                Integer count = jdbcTemplate.queryForObject(
-                        "SELECT COUNT(*) FROM reservations WHERE facility_id = ? AND reservation_date = ? AND status IN ('ACTIVE', 'COMPLETED')",
-                        Integer.class, facilityId, date);
+                LocalDate date = dashboard.getWeekStart().plusDays(i);
 
                 String dayLabel = dayNames[i];
                 if (date.equals(today)) {
                     dayLabel += " (Bugun)";
                 }
 
-                series.getData().add(new XYChart.Data<>(dayLabel, count != null ? count : 0));
+                series.getData().add(new XYChart.Data<>(dayLabel, counts[i]));
             }
 
             weeklyBarChart.getData().clear();
@@ -178,4 +201,4 @@ public class LibrarianHomeController {
             System.err.println("Grafik yükleme hatası: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,13 @@ package com.studyflow.app.gui.librarian.editor;
 
 import com.studyflow.app.gui.NavigationService;
 import com.studyflow.app.gui.ViewFactory;
+import com.studyflow.app.model.dto.LayoutChangeSet;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.facility.FacilityBlock;
-import com.studyflow.app.repository.facility.FacilityBlockRepository;
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.service.facility.FacilityLayoutService;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
+import com.studyflow.app.service.facility.LayoutChangeTracker;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
 import javafx.scene.control.*;
@@ -17,11 +20,13 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.StrokeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
 @Component
+@Lazy
 public class LibrarianBlockEditorController {
 
     private static final double MAP_LIMIT = 600.0;
@@ -36,11 +41,14 @@ public class LibrarianBlockEditorController {
     @FXML private Button btnUndo;
 
     @Autowired
-    private FacilityBlockRepository blockRepository;
+    private FacilityLayoutService facilityLayoutService;
 
     @Autowired
     private UserSessionContext userSessionContext;
 
+    @Autowired
+    private FacilityTopologyCache facilityTopologyCache;
+
     @Autowired
     private NavigationService navigationService;
 
@@ -48,7 +56,9 @@ public class LibrarianBlockEditorController {
     private ViewFactory viewFactory;
 
     private final Map<StackPane, FacilityBlock> uiBlockMap = new HashMap<>();
-    private final List<FacilityBlock> blocksToDelete = new ArrayList<>();
+    // Kaydetmede sadece eklenen / degisen / silinen bloklar yazilir
+    private final LayoutChangeTracker<FacilityBlock> changeTracker = new LayoutChangeTracker<>(FacilityBlock::getId,
+            b -> Arrays.asList(b.getName(), b.getX(), b.getY(), b.getWidth(), b.getHeight(), b.getColorHex()));
     private final Stack<HistoryAction> undoStack = new Stack<>();
 
     private StackPane selectedNode;
@@ -150,7 +160,6 @@ public class LibrarianBlockEditorController {
 
     private void loadBlocksFromDatabase() {
         uiBlockMap.clear();
-        blocksToDelete.clear();
         undoStack.clear();
         mapCanvas.getChildren().clear();
         updateUndoButtonState();
@@ -160,10 +169,13 @@ public class LibrarianBlockEditorController {
         Facility facility = userSessionContext.getCurrentUser().getFacilityInfo().getFacility();
         if (facility == null) return;
 
-        // DÜZELTME: JPA findByFacilityId yerine Native Query findAllByFacilityId çağırıyoruz
-        for (FacilityBlock block : blockRepository.findAllByFacilityId(facility.getId())) {
+        // Yerlesim onbellegi (kaydetmede gecersizlesir)
+        for (FacilityBlock block : facilityTopologyCache.getBlocks(facility.getId())) {
             createBlockOnCanvas(block);
         }
+        // Renk vb. tuvaldeki bicimiyle karsilastirilsin diye referans tuvalden alinir
+        syncBlocksFromCanvas();
+        changeTracker.reset(uiBlockMap.values());
     }
 
     @FXML
@@ -295,9 +307,6 @@ public class LibrarianBlockEditorController {
     public void handleDeleteBlock() {
         if (selectedNode != null) {
             FacilityBlock data = uiBlockMap.get(selectedNode);
-            if (data.getId() != null) {
-                blocksToDelete.add(data);
-            }
             undoStack.push(new HistoryAction(ActionType.DELETE, selectedNode, data));
             updateUndoButtonState();
 
@@ -323,7 +332,6 @@ public class LibrarianBlockEditorController {
         } else if (lastAction.type == ActionType.DELETE) {
             mapCanvas.getChildren().add(lastAction.uiNode);
             uiBlockMap.put(lastAction.uiNode, lastAction.data);
-            if (lastAction.data.getId() != null) blocksToDelete.remove(lastAction.data);
             addInteractionLogic(lastAction.uiNode);
             selectBlock(lastAction.uiNode);
             showSuccess("Undo: Block restored.");
@@ -345,54 +353,28 @@ public class LibrarianBlockEditorController {
     }
 
     /**
-     * DÜZELTME: Kaydetme Mantığı (Native SQL)
-     * Save/Delete yerine Insert/Update/Delete Query'leri çağırıyoruz.
+     * Kaydetme: tuval referans haliyle karsilastirilir, sadece degisiklikler tek transaction'da
+     * batch olarak yazilir. Yeni bloklarin ID'leri nesnelere doner; tuval yeniden yuklenmez.
      */
     @FXML
     public void handleSaveChanges() {
         try {
             Facility facility = userSessionContext.getCurrentUser().getFacilityInfo().getFacility();
 
-            // 1. Silinecekler
-            if (!blocksToDelete.isEmpty()) {
-                for (FacilityBlock block : blocksToDelete) {
-                    blockRepository.deleteBlockById(block.getId());
-                }
-                blocksToDelete.clear();
+            syncBlocksFromCanvas();
+            LayoutChangeSet<FacilityBlock> changes = changeTracker.changes(uiBlockMap.values());
+            if (changes.isEmpty()) {
+                showSuccess("No changes to save.");
+                return;
             }
 
-            // 2. Ekleme ve Güncellemeler
-            for (Map.Entry<StackPane, FacilityBlock> entry : uiBlockMap.entrySet()) {
-                StackPane node = entry.getKey();
-                FacilityBlock data = entry.getValue();
-                Rectangle rect = (Rectangle) node.getChildren().get(0);
-                Label label = (Label) node.getChildren().get(1);
-
-                // UI'dan Güncel Verileri Al
-                String name = label.getText();
-                double x = node.getLayoutX();
-                double y = node.getLayoutY();
-                double w = rect.getWidth();
-                double h = rect.getHeight();
-                String color = toHexString((Color) rect.getFill());
-                Integer currentIndex = (data.getCurrentIdIndex() == null) ? 0 : data.getCurrentIdIndex();
-
-                if (data.getId() == null) {
-                    // ID YOK -> INSERT
-                    blockRepository.insertBlock(name, x, y, w, h, color, currentIndex, facility.getId());
-                } else {
-                    // ID VAR -> UPDATE
-                    blockRepository.updateBlock(data.getId(), name, x, y, w, h, color);
-                }
-            }
+            facilityLayoutService.saveBlocks(facility.getId(), changes);
 
+            changeTracker.reset(uiBlockMap.values());
             undoStack.clear();
             updateUndoButtonState();
 
-            // ÖNEMLİ: Native insert ID döndürmediği için listeyi baştan yükle
-            loadBlocksFromDatabase();
-
-            showSuccess("All changes saved successfully!");
+            showSuccess("All changes saved successfully! (" + changes.size() + " blocks)");
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -401,6 +383,24 @@ public class LibrarianBlockEditorController {
         }
     }
 
+    // UI'dan güncel verileri nesnelere yaz (isim, konum, boyut, renk)
+    private void syncBlocksFromCanvas() {
+        for (Map.Entry<StackPane, FacilityBlock> entry : uiBlockMap.entrySet()) {
+            StackPane node = entry.getKey();
+            FacilityBlock data = entry.getValue();
+            Rectangle rect = (Rectangle) node.getChildren().get(0);
+            Label label = (Label) node.getChildren().get(1);
+
+            data.setName(label.getText());
+            data.setX(node.getLayoutX());
+            data.setY(node.getLayoutY());
+            data.setWidth(rect.getWidth());
+            data.setHeight(rect.getHeight());
+            data.setColorHex(toHexString((Color) rect.getFill()));
+            if (data.getCurrentIdIndex() == null) data.setCurrentIdIndex(0);
+        }
+    }
+
     private void updateUndoButtonState() {
         if (btnUndo != null) {
             btnUndo.setDisable(undoStack.isEmpty());
@@ -2,12 +2,14 @@ package com.studyflow.app.gui.librarian.editor;
 
 import com.studyflow.app.gui.NavigationService;
 import com.studyflow.app.gui.ViewFactory;
+import com.studyflow.app.model.dto.LayoutChangeSet;
 import com.studyflow.app.model.facility.Desk;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.facility.FacilityBlock;
-import com.studyflow.app.repository.facility.DeskRepository;
-import com.studyflow.app.repository.facility.FacilityBlockRepository;
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.service.facility.FacilityLayoutService;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
+import com.studyflow.app.service.facility.LayoutChangeTracker;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
 import javafx.scene.control.*;
@@ -19,11 +21,13 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.TextAlignment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
 @Component
+@Lazy
 public class LibrarianDeskEditorController {
 
     private static final double MAP_LIMIT = 600.0;
@@ -47,17 +51,19 @@ public class LibrarianDeskEditorController {
     @FXML private Label statusLabel;
     @FXML private Button btnUndo;
 
-    @Autowired private DeskRepository deskRepository;
-    @Autowired private FacilityBlockRepository blockRepository;
+    @Autowired private FacilityLayoutService facilityLayoutService;
     @Autowired private NavigationService navigationService;
     @Autowired private ViewFactory viewFactory;
     @Autowired private UserSessionContext userSessionContext;
+    @Autowired private FacilityTopologyCache facilityTopologyCache;
 
     private FacilityBlock currentBlock;
     private Integer tempBlockIndexCounter;
 
     private final Map<StackPane, Desk> uiDeskMap = new HashMap<>();
-    private final List<Desk> desksToDelete = new ArrayList<>();
+    // Kaydetmede sadece eklenen / degisen / silinen masalar yazilir
+    private final LayoutChangeTracker<Desk> changeTracker = new LayoutChangeTracker<>(Desk::getId,
+            d -> Arrays.asList(d.getSize(), d.getX(), d.getY(), d.getWidth(), d.getHeight(), d.getColorHex()));
     private final Stack<HistoryAction> undoStack = new Stack<>();
 
     private StackPane selectedNode;
@@ -112,7 +118,6 @@ public class LibrarianDeskEditorController {
     public void handleBackToMap() {
         showFacilityMapMode();
         uiDeskMap.clear();
-        desksToDelete.clear();
         undoStack.clear();
         deskCanvas.getChildren().clear();
         propertiesBox.setDisable(true);
@@ -124,7 +129,7 @@ public class LibrarianDeskEditorController {
         facilityCanvas.getChildren().clear();
         Facility facility = userSessionContext.getCurrentUser().getFacilityInfo().getFacility();
         if (facility == null) return;
-        for (FacilityBlock block : blockRepository.findAllByFacilityId(facility.getId())) {
+        for (FacilityBlock block : facilityTopologyCache.getBlocks(facility.getId())) {
             StackPane node = createReadOnlyBlock(block);
             facilityCanvas.getChildren().add(node);
         }
@@ -150,14 +155,16 @@ public class LibrarianDeskEditorController {
     private void loadDesksForBlock() {
         deskCanvas.getChildren().clear();
         uiDeskMap.clear();
-        desksToDelete.clear();
         undoStack.clear();
         updateUndoButtonState();
         propertiesBox.setDisable(true);
         selectedNode = null;
-        for (Desk desk : deskRepository.findAllByBlockId(currentBlock.getId())) {
+        for (Desk desk : facilityTopologyCache.getDesks(currentFacilityId(), currentBlock.getId())) {
             createDeskOnCanvas(desk);
         }
+        // Renk tuvaldeki bicimiyle karsilastirilsin diye referans tuvalden alinir
+        syncDesksFromCanvas();
+        changeTracker.reset(uiDeskMap.values());
     }
 
     @FXML
@@ -239,6 +246,10 @@ public class LibrarianDeskEditorController {
         }
     }
 
+    private Long currentFacilityId() {
+        return userSessionContext.getCurrentUser().getFacilityInfo().getFacility().getId();
+    }
+
     private void updateRangePreview() {
         if (selectedNode == null) return;
         Desk data = uiDeskMap.get(selectedNode);
@@ -255,34 +266,38 @@ public class LibrarianDeskEditorController {
     @FXML
     public void handleSaveChanges() {
         try {
-            if (!desksToDelete.isEmpty()) {
-                for (Desk d : desksToDelete) deskRepository.deleteDeskById(d.getId());
-                desksToDelete.clear();
+            syncDesksFromCanvas();
+            LayoutChangeSet<Desk> changes = changeTracker.changes(uiDeskMap.values());
+            if (changes.isEmpty()) {
+                showSuccess("No changes to save.");
+                return;
             }
-            for (Map.Entry<StackPane, Desk> entry : uiDeskMap.entrySet()) {
-                StackPane node = entry.getKey();
-                Desk data = entry.getValue();
-                Rectangle rect = (Rectangle) node.getChildren().get(0);
-                data.setX(node.getLayoutX()); data.setY(node.getLayoutY());
-                data.setWidth(rect.getWidth()); data.setHeight(rect.getHeight());
-                data.setColorHex(toHexString((Color) rect.getFill()));
-                data.setSize(sizeSpinner.getValue());
-
-                if (data.getId() == null) {
-                    int alloc = allocationSpinner.getValue();
-                    if (data.getSize() > alloc) throw new RuntimeException("Size cannot be larger than Allocation!");
-                    int start = tempBlockIndexCounter + 1; int end = start + alloc - 1;
-                    data.setIdRange(start + "-" + end); data.setCurrentIdIndex(0);
-                    tempBlockIndexCounter = end;
-                    deskRepository.insertDesk(data.getSize(), data.getIdRange(), data.getCurrentIdIndex(), data.getX(), data.getY(), data.getWidth(), data.getHeight(), data.getColorHex(), currentBlock.getId());
-                } else {
-                    deskRepository.updateDesk(data.getId(), data.getSize(), data.getX(), data.getY(), data.getWidth(), data.getHeight(), data.getColorHex());
-                }
+
+            // Yeni masalara blogun sayacindan ID araligi ayrilir; kayit basarisiz olursa sayac ilerlemez
+            int blockIndex = tempBlockIndexCounter;
+            for (Desk data : changes.getAdded()) {
+                int alloc = allocationSpinner.getValue();
+                if (data.getSize() > alloc) throw new RuntimeException("Size cannot be larger than Allocation!");
+                int start = blockIndex + 1; int end = start + alloc - 1;
+                data.setIdRange(start + "-" + end); data.setCurrentIdIndex(0);
+                blockIndex = end;
             }
-            blockRepository.updateBlockCurrentIndex(currentBlock.getId(), tempBlockIndexCounter);
-            currentBlock.setCurrentIdIndex(tempBlockIndexCounter);
-            undoStack.clear(); updateUndoButtonState(); loadDesksForBlock();
-            showSuccess("Desks Saved!");
+
+            facilityLayoutService.saveDesks(currentFacilityId(), currentBlock.getId(), changes, blockIndex);
+            tempBlockIndexCounter = blockIndex;
+            currentBlock.setCurrentIdIndex(blockIndex);
+
+            // Yeni masalarin etiketleri ayrilan aralikla guncellenir (tuval yeniden yuklenmez)
+            Set<Desk> added = Collections.newSetFromMap(new IdentityHashMap<>());
+            added.addAll(changes.getAdded());
+            uiDeskMap.forEach((node, data) -> {
+                if (added.contains(data)) ((Label) node.getChildren().get(1)).setText(data.getIdRange());
+            });
+
+            changeTracker.reset(uiDeskMap.values());
+            undoStack.clear(); updateUndoButtonState();
+            updateRangePreview();
+            showSuccess("Desks Saved! (" + changes.size() + " changes)");
         } catch (Exception e) {
             e.printStackTrace();
             showSuccess("Error: " + e.getMessage());
@@ -290,11 +305,21 @@ public class LibrarianDeskEditorController {
         }
     }
 
+    private void syncDesksFromCanvas() {
+        for (Map.Entry<StackPane, Desk> entry : uiDeskMap.entrySet()) {
+            StackPane node = entry.getKey();
+            Desk data = entry.getValue();
+            Rectangle rect = (Rectangle) node.getChildren().get(0);
+            data.setX(node.getLayoutX()); data.setY(node.getLayoutY());
+            data.setWidth(rect.getWidth()); data.setHeight(rect.getHeight());
+            data.setColorHex(toHexString((Color) rect.getFill()));
+        }
+    }
+
     @FXML
     public void handleDeleteDesk() {
         if (selectedNode != null) {
             Desk data = uiDeskMap.get(selectedNode);
-            if (data.getId() != null) desksToDelete.add(data);
             undoStack.push(new HistoryAction(ActionType.DELETE, selectedNode, data));
             updateUndoButtonState();
             deskCanvas.getChildren().remove(selectedNode);
@@ -313,7 +338,6 @@ public class LibrarianDeskEditorController {
             selectedNode = null; propertiesBox.setDisable(true);
         } else if (action.type == ActionType.DELETE) {
             deskCanvas.getChildren().add(action.uiNode); uiDeskMap.put(action.uiNode, action.data);
-            if (action.data.getId() != null) desksToDelete.remove(action.data);
             addInteractionLogic(action.uiNode); selectDesk(action.uiNode);
         } else if (action.type == ActionType.MODIFY) {
             StackPane node = action.uiNode;
@@ -332,6 +356,10 @@ public class LibrarianDeskEditorController {
         sizeSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 50, 4));
         allocationSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 100, 10));
         allocationSpinner.valueProperty().addListener((obs, oldVal, newVal) -> updateRangePreview());
+        // Koltuk sayisi sadece secili masaya uygulanir
+        sizeSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (selectedNode != null && newVal != null) uiDeskMap.get(selectedNode).setSize(newVal);
+        });
         setupSliderUndoLogic(widthSlider, "WIDTH");
         // DÜZELTME: Genişlik sınırı kontrolü eklendi
         widthSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
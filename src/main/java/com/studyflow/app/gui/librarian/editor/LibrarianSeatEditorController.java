@@ -2,14 +2,15 @@ package com.studyflow.app.gui.librarian.editor;
 
 import com.studyflow.app.gui.NavigationService;
 import com.studyflow.app.gui.ViewFactory;
+import com.studyflow.app.model.dto.LayoutChangeSet;
 import com.studyflow.app.model.facility.Desk;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.facility.FacilityBlock;
 import com.studyflow.app.model.facility.Seat;
-import com.studyflow.app.repository.facility.DeskRepository;
-import com.studyflow.app.repository.facility.FacilityBlockRepository;
-import com.studyflow.app.repository.facility.SeatRepository;
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.service.facility.FacilityLayoutService;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
+import com.studyflow.app.service.facility.LayoutChangeTracker;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
 import javafx.scene.control.*;
@@ -21,6 +22,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.TextAlignment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -28,6 +30,7 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
+@Lazy
 public class LibrarianSeatEditorController {
 
     private static final double CANVAS_SIZE = 600.0;
@@ -68,10 +71,9 @@ public class LibrarianSeatEditorController {
     @FXML private Button btnBack;
 
     // --- Repositories & Services ---
-    @Autowired private FacilityBlockRepository blockRepo;
-    @Autowired private DeskRepository          deskRepo;
-    @Autowired private SeatRepository          seatRepo;
+    @Autowired private FacilityLayoutService   facilityLayoutService;
     @Autowired private UserSessionContext      userSessionContext;
+    @Autowired private FacilityTopologyCache   facilityTopologyCache;
     @Autowired private NavigationService navigationService;
     @Autowired private ViewFactory viewFactory;
 
@@ -80,6 +82,9 @@ public class LibrarianSeatEditorController {
     private Desk          selectedDesk;
 
     private final Map<StackPane, Seat> uiSeatMap = new HashMap<>();
+    // Kaydetmede sadece eklenen / tasinan / numarasi degisen koltuklar yazilir
+    private final LayoutChangeTracker<Seat> changeTracker = new LayoutChangeTracker<>(Seat::getId,
+            s -> Arrays.asList(s.getSeatNumber(), s.getRelX(), s.getRelY()));
     private StackPane                  selectedSeatNode;
 
     // Masa (desk) ekranda ortalanmis halinin bilgileri
@@ -188,7 +193,7 @@ public class LibrarianSeatEditorController {
         Facility facility = userSessionContext.getCurrentUser().getFacilityInfo().getFacility();
         if (facility == null) return;
 
-        blockRepo.findAllByFacilityId(facility.getId())
+        facilityTopologyCache.getBlocks(facility.getId())
                 .forEach(b -> facilityCanvas.getChildren().add(createBlockNode(b)));
     }
 
@@ -266,7 +271,7 @@ public class LibrarianSeatEditorController {
 
     private void loadDesksForSelection() {
         deskSelectionCanvas.getChildren().clear();
-        deskRepo.findAllByBlockId(selectedBlock.getId())
+        facilityTopologyCache.getDesks(currentFacilityId(), selectedBlock.getId())
                 .forEach(d -> deskSelectionCanvas.getChildren().add(createDeskNode(d)));
     }
 
@@ -385,12 +390,13 @@ public class LibrarianSeatEditorController {
         drawingSurface.getChildren().addAll(deskRect, deskLbl);
 
         // Mevcut koltuklari rail'e snap ederek yukle
-        List<Seat> seats = seatRepo.findAllByDeskId(selectedDesk.getId());
+        List<Seat> seats = facilityTopologyCache.getSeats(currentFacilityId(), selectedDesk.getId());
         for (Seat seat : seats) {
             if (seat.getRelX() == null) seat.setRelX(0.0);
             if (seat.getRelY() == null) seat.setRelY(0.0);
             addVisualSeatNode(seat);
         }
+        changeTracker.reset(uiSeatMap.values());
     }
 
     // ------------------------------------------------------------------------
@@ -758,35 +764,30 @@ public class LibrarianSeatEditorController {
     @FXML
     public void handleSaveChanges() {
         try {
-            for (Seat s : uiSeatMap.values()) {
-                if (s.getId() == null) {
-                    seatRepo.insertSeatWithCoordinates(
-                            selectedDesk.getId(),
-                            s.getSeatNumber(),
-                            s.getRelX(),
-                            s.getRelY()
-                    );
-                } else {
-                    seatRepo.updateSeat(
-                            s.getId(),
-                            s.getSeatNumber(),
-                            s.getRelX(),
-                            s.getRelY()
-                    );
-                }
+            LayoutChangeSet<Seat> changes = changeTracker.changes(uiSeatMap.values());
+            if (changes.isEmpty()) {
+                showSuccess("No changes to save.");
+                return;
             }
 
+            // Tek transaction, batch UPDATE + INSERT; yeni koltuklarin ID'leri nesnelere doner
+            facilityLayoutService.saveSeats(currentFacilityId(), selectedDesk.getId(), changes);
+
+            changeTracker.reset(uiSeatMap.values());
             undoStack.clear();
             updateUndoButtonState();
 
-            showSuccess("Seat layout saved successfully.");
-            loadSeatEditorCanvas();
+            showSuccess("Seat layout saved successfully. (" + changes.size() + " changes)");
         } catch (Exception e) {
             e.printStackTrace();
             showError("Save failed: " + e.getMessage());
         }
     }
 
+    private Long currentFacilityId() {
+        return userSessionContext.getCurrentUser().getFacilityInfo().getFacility().getId();
+    }
+
     private Integer findNextAvailableSeatId() {
         try {
             String[] parts = selectedDesk.getIdRange().split("-");
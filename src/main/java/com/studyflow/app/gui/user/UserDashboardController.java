@@ -2,15 +2,27 @@ package com.studyflow.app.gui.user;
 
 import com.studyflow.app.context.UserSessionContext;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
+import com.studyflow.app.model.reservation.WaitlistEntry;
+import com.studyflow.app.service.reservation.ReservationService;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
 @Component
-public class UserDashboardController {
+@Lazy
+public class UserDashboardController implements RefreshableView {
 
     @FXML private Button btnExplore;
     @FXML private Button btnReservations;
@@ -20,6 +32,8 @@ public class UserDashboardController {
     @Autowired private UserSessionContext userSessionContext;
     @Autowired private NavigationService navigationService;
     @Autowired private ViewFactory viewFactory;
+    @Autowired private ReservationService reservationService;
+    @Autowired private UiTaskRunner uiTaskRunner;
 
     @FXML
     public void initialize() {
@@ -31,6 +45,49 @@ public class UserDashboardController {
         setupButtonIcon(btnProfile, "👤", "icon-purple");
     }
 
+    @Override
+    public void onShow() {
+        // Bekleme listesinden gelen koltuk teklifleri (arka planda okunur, ekran yuklendikten sonra sorulur)
+        Long userId = userSessionContext.getCurrentUser() != null ? userSessionContext.getCurrentUser().getId() : null;
+        uiTaskRunner.run(btnExplore, "waitlist-offers:" + userId,
+                reservationService::getCurrentUserWaitlistOffers, this::showWaitlistOffers);
+
+        // En sik sonraki ekran
+        viewFactory.preload("/fxml/user/facility/explore-facilities.fxml");
+    }
+
+    private void showWaitlistOffers(List<WaitlistEntry> offers) {
+        for (WaitlistEntry offer : offers) {
+            ButtonType accept = new ButtonType("Kabul Et", ButtonBar.ButtonData.OK_DONE);
+            ButtonType decline = new ButtonType("Reddet", ButtonBar.ButtonData.CANCEL_CLOSE);
+
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "", accept, decline);
+            alert.setTitle("Bekleme Listesi");
+            alert.setHeaderText("Beklediginiz zaman dilimi icin bir koltuk ayrildi!");
+            alert.setContentText(
+                    "Tesis: " + offer.getFacility().getName() + "\n" +
+                    "Tarih: " + offer.getReservationDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) + "\n" +
+                    "Saat: " + offer.getStartTime() + " - " + offer.getEndTime() + "\n" +
+                    "Koltuk #" + offer.getOfferedSeat().getSeatNumber() + "\n\n" +
+                    "Teklif " + offer.getOfferExpiresAt().format(DateTimeFormatter.ofPattern("HH:mm")) + " saatine kadar gecerlidir.");
+
+            try {
+                if (alert.showAndWait().filter(accept::equals).isPresent()) {
+                    reservationService.acceptWaitlistOffer(offer.getId());
+                    Alert ok = new Alert(Alert.AlertType.INFORMATION, "✅ Rezervasyonunuz basariyla olusturuldu.");
+                    ok.setHeaderText(null);
+                    ok.showAndWait();
+                } else {
+                    reservationService.declineWaitlistOffer(offer.getId());
+                }
+            } catch (Exception e) {
+                Alert error = new Alert(Alert.AlertType.ERROR, e.getMessage());
+                error.setHeaderText(null);
+                error.showAndWait();
+            }
+        }
+    }
+
     private void setupButtonIcon(Button btn, String iconText, String cssClass) {
         Label icon = new Label(iconText);
         icon.getStyleClass().add(cssClass); // styles.css'deki renk/boyut
@@ -57,6 +114,7 @@ public class UserDashboardController {
     @FXML
     public void handleLogout() {
         userSessionContext.logout();
+        viewFactory.clearCache();
         navigationService.navigateTo(viewFactory.loadView("/fxml/auth/login.fxml"));
     }
 }
\ No newline at end of file
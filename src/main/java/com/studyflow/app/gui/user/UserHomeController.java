@@ -7,9 +7,11 @@ import javafx.scene.Parent;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 @Component
+@Lazy
 public class UserHomeController {
 
     @FXML private Label timerLabel;
@@ -48,7 +50,8 @@ public class UserHomeController {
 
     private void loadView(String fxmlPath) {
         try {
-            Parent view = viewFactory.loadView(fxmlPath);
+            // Adim / dashboard ekranlari onbellekten gelir, geri donuste sadece veri yenilenir
+            Parent view = viewFactory.loadCachedView(fxmlPath);
             contentArea.getChildren().setAll(view);
         } catch (Exception e) {
             e.printStackTrace();
@@ -1,7 +1,8 @@
 package com.studyflow.app.gui.user;
 
 import com.studyflow.app.context.UserSessionContext;
-import com.studyflow.app.model.reservation.Reservation;
+import com.studyflow.app.gui.LoadingPlaceholders;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.model.user.User;
 import com.studyflow.app.model.dto.UserProfileStats;
 import com.studyflow.app.service.user.UserProfileService;
@@ -12,14 +13,16 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.Month;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 @Component
+@Lazy
 public class UserProfileController {
 
     @FXML
@@ -69,13 +72,14 @@ public class UserProfileController {
     private UserSessionContext userSessionContext;
     @Autowired
     private UserHomeController userHomeController;
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
 
-    private List<Reservation> historyData;
+    private int longTermRequest;
 
     @FXML
     public void initialize() {
         loadUserInfo();
-        this.historyData = userProfileService.getAllHistory();
         loadStatistics();
         setupLongTermChart();
     }
@@ -93,7 +97,16 @@ public class UserProfileController {
     }
 
     private void loadStatistics() {
-        UserProfileStats stats = userProfileService.calculateUserStats();
+        Label[] statLabels = { lblTotalTime, lblTrendText, lblProductiveTime, lblProductiveMsg,
+                lblAvgSession, lblLongestSession, lblShortestSession };
+        LoadingPlaceholders.labels(statLabels);
+        uiTaskRunner.run(lblTotalTime, "profile-stats:" + currentUserId(), userProfileService::calculateUserStats, stats -> {
+            LoadingPlaceholders.clear(statLabels);
+            showStatistics(stats);
+        });
+    }
+
+    private void showStatistics(UserProfileStats stats) {
         if (stats == null)
             return;
 
@@ -152,8 +165,7 @@ public class UserProfileController {
 
     private void updatePeriodChart(String period) {
         int months = period.equals("Son 12 Ay") ? 12 : 3;
-        Map<String, Double> data = userProfileService.calculateMonthlyTrend(historyData, months);
-        populateChart(longTermChart, data, lblLongTermNoData);
+        loadLongTermChart("months:" + months, () -> userProfileService.calculateMonthlyTrend(months));
     }
 
     private void updateSpecificMonthChart() {
@@ -168,8 +180,22 @@ public class UserProfileController {
         Month month = getMonthFromTurkishName(selectedMonthName);
         if (month == null)
             return;
-        Map<String, Double> data = userProfileService.calculateSpecificMonthTrend(historyData, month);
-        populateChart(longTermChart, data, lblLongTermNoData);
+        loadLongTermChart("month:" + month, () -> userProfileService.calculateSpecificMonthTrend(month));
+    }
+
+    // Secim hizli degisirse sadece son istenen donemin sonucu cizilir
+    private void loadLongTermChart(String period, Callable<Map<String, Double>> work) {
+        int request = ++longTermRequest;
+        uiTaskRunner.run(longTermChart, "profile-trend:" + currentUserId() + ":" + period, work, data -> {
+            if (request == longTermRequest) {
+                populateChart(longTermChart, data, lblLongTermNoData);
+            }
+        });
+    }
+
+    private Long currentUserId() {
+        User user = userSessionContext.getCurrentUser();
+        return user != null ? user.getId() : null;
     }
 
     private Month getMonthFromTurkishName(String name) {
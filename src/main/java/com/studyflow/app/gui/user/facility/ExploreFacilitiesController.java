@@ -1,7 +1,11 @@
 package com.studyflow.app.gui.user.facility;
 
 import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.user.UserHomeController;
+import com.studyflow.app.model.dto.FacilitySearchPage;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.service.facility.FacilityService;
 import javafx.fxml.FXML;
@@ -18,13 +22,14 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.Rectangle;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
 import java.util.Objects;
 
 @Component
-public class ExploreFacilitiesController {
+@Lazy
+public class ExploreFacilitiesController implements RefreshableView {
 
     @FXML
     private ComboBox<String> sortComboBox;
@@ -37,6 +42,12 @@ public class ExploreFacilitiesController {
     private UserHomeController userHomeController; // Layout değişimi için
     @Autowired
     private GlobalParamsContext globalParams; // Veri taşıma için
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
+
+    // Secili siralama ve yuklenen son sayfa ("Daha fazla" butonu sonraki sayfayi ekler)
+    private String currentOrder = "asc";
+    private FacilitySearchPage currentPage;
 
     @FXML
     public void initialize() {
@@ -45,12 +56,16 @@ public class ExploreFacilitiesController {
 
         sortComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                String orderCode = newVal.equals("Name (Z-A)") ? "desc" : "asc";
-                loadFacilities(orderCode);
+                currentOrder = newVal.equals("Name (Z-A)") ? "desc" : "asc";
+                loadFacilities(0);
             }
         });
+    }
 
-        loadFacilities("asc");
+    // Onbellekten donuste secili siralama korunur, ilk sayfa yeniden okunur
+    @Override
+    public void onShow() {
+        loadFacilities(0);
     }
 
     @FXML
@@ -58,23 +73,48 @@ public class ExploreFacilitiesController {
         userHomeController.showDashboard();
     }
 
-    private void loadFacilities(String order) {
-        facilityGrid.getChildren().clear();
-        List<Facility> facilities = facilityService.getAllFacilities(order);
+    private void loadFacilities(int page) {
+        String order = currentOrder;
+        if (page == 0) {
+            LoadingPlaceholders.pane(facilityGrid);
+        }
+        uiTaskRunner.run(facilityGrid, "facility-search:" + order + "::" + page,
+                () -> facilityService.searchFacilities(null, order, page), result -> {
+                    // Bu arada siralama degistiyse eski sonuc atilir
+                    if (order.equals(currentOrder)) {
+                        showFacilities(result);
+                    }
+                });
+    }
+
+    private void showFacilities(FacilitySearchPage result) {
+        currentPage = result;
+        if (result.getPage() == 0) {
+            facilityGrid.getChildren().clear();
+        } else {
+            facilityGrid.getChildren().removeIf(node -> node instanceof Button);
+        }
 
-        if (facilities == null || facilities.isEmpty()) {
+        if (currentPage.getTotalCount() == 0) {
             Label emptyLabel = new Label("Tesis bulunamadi.");
             emptyLabel.setStyle("-fx-font-size: 18px; -fx-text-fill: #999;");
             facilityGrid.getChildren().add(emptyLabel);
             return;
         }
 
-        for (Facility facility : facilities) {
+        for (FacilitySearchPage.Item facility : currentPage.getItems()) {
             facilityGrid.getChildren().add(createFacilityCard(facility));
         }
+
+        if (currentPage.hasNext()) {
+            Button moreButton = new Button("Daha Fazla Goster");
+            moreButton.getStyleClass().add("primary-button");
+            moreButton.setOnAction(e -> loadFacilities(currentPage.getPage() + 1));
+            facilityGrid.getChildren().add(moreButton);
+        }
     }
 
-    private VBox createFacilityCard(Facility facility) {
+    private VBox createFacilityCard(FacilitySearchPage.Item facility) {
         VBox card = new VBox();
         card.setPrefSize(300, 280);
         card.getStyleClass().add("facility-card");
@@ -131,8 +171,9 @@ public class ExploreFacilitiesController {
         return card;
     }
 
-    private void openFacilityDetails(Facility facility) {
-        // 1. Veriyi Context'e at
+    private void openFacilityDetails(FacilitySearchPage.Item item) {
+        // 1. Veriyi Context'e at (kartta sadece ozet var; tam tesis kaydi secilince okunur)
+        Facility facility = facilityService.getFacility(item.getId());
         globalParams.setSelectedFacility(facility);
 
         // 2. Ana çerçeve içindeki görünümü değiştir (Header/Timer sabit kalır)
@@ -12,6 +12,7 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.time.format.TextStyle;
@@ -21,6 +22,7 @@ import java.util.Locale;
 import java.util.Objects;
 
 @Component
+@Lazy
 public class UserFacilityDetailsController {
 
     @FXML private ImageView facilityImage;
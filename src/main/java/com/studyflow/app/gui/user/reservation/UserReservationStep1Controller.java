@@ -2,6 +2,7 @@ package com.studyflow.app.gui.user.reservation;
 
 import com.studyflow.app.context.GlobalParamsContext;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
 import com.studyflow.app.gui.ViewFactory;
 import com.studyflow.app.gui.user.UserHomeController;
 import com.studyflow.app.model.facility.DailySchedule;
@@ -18,6 +19,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.time.DayOfWeek;
@@ -31,7 +33,8 @@ import java.util.List;
 import java.util.Locale;
 
 @Component
-public class UserReservationStep1Controller {
+@Lazy
+public class UserReservationStep1Controller implements RefreshableView {
 
     // GÜN SEÇİMİ & HAFTALIK TAKVİM
     @FXML
@@ -98,14 +101,7 @@ public class UserReservationStep1Controller {
 
     @FXML
     public void initialize() {
-        facility = globalParams.getSelectedFacility();
-        if (facility == null) {
-            return;
-        }
-
         dayGroup = new ToggleGroup();
-        renderDays();
-        renderModernWeeklySchedule();
 
         // Gün seçilince
         dayGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
@@ -114,12 +110,27 @@ public class UserReservationStep1Controller {
                 handleDateSelection(date);
             }
         });
+    }
+
+    @Override
+    public void onShow() {
+        facility = globalParams.getSelectedFacility();
+        if (facility == null) {
+            return;
+        }
+
+        // Onceki gosterimin gun butonlari gruptan cikar
+        dayGroup.getToggles().clear();
+        renderDays();
+        renderModernWeeklySchedule();
 
         if (!dayContainer.getChildren().isEmpty()) {
             ((ToggleButton) dayContainer.getChildren().get(0)).setSelected(true);
         }
 
         hideTimeOverlay();
+
+        viewFactory.preload("/fxml/user/reservation/user-reservation-step2.fxml");
     }
 
     /* -------------------- GÜN KARTLARI (AYNI) -------------------- */
@@ -1,16 +1,21 @@
 package com.studyflow.app.gui.user.reservation;
 
 import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
 import com.studyflow.app.gui.user.UserHomeController;
 import com.studyflow.app.model.facility.FacilityBlock;
 import com.studyflow.app.model.dto.AvailabilityDTO;
-import com.studyflow.app.repository.facility.FacilityBlockRepository;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
 import com.studyflow.app.service.reservation.ReservationService;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.Pane;
@@ -19,14 +24,18 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
-public class UserReservationStep2Controller {
+@Lazy
+public class UserReservationStep2Controller implements RefreshableView {
 
     @FXML
     private Pane mapCanvas;
@@ -36,7 +45,7 @@ public class UserReservationStep2Controller {
     @Autowired
     private GlobalParamsContext globalParams;
     @Autowired
-    private FacilityBlockRepository blockRepository;
+    private FacilityTopologyCache facilityTopologyCache;
     @Autowired
     private ReservationService reservationService;
     @Autowired
@@ -46,39 +55,47 @@ public class UserReservationStep2Controller {
 
     @Autowired
     private UserHomeController userHomeController;
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
 
-    @FXML
-    public void initialize() {
+    @Override
+    public void onShow() {
         // Header Bilgisi
         dateLabel.setText(globalParams.getSelectedDate() + " | " + globalParams.getSelectedStartTime() + " - "
                 + globalParams.getSelectedEndTime());
 
         loadBlocksWithAvailability();
+
+        viewFactory.preload("/fxml/user/reservation/user-reservation-step3.fxml");
+    }
+
+    private record BlockMap(List<FacilityBlock> blocks, Map<Long, AvailabilityDTO> availability) {
     }
 
     private void loadBlocksWithAvailability() {
-        mapCanvas.getChildren().clear();
         Long facilityId = globalParams.getSelectedFacility().getId();
-
-        // 1. Blokları Çek
-        List<FacilityBlock> blocks = blockRepository.findAllByFacilityId(facilityId);
-
-        // 2. Doluluk Bilgisini Çek (DTO Listesi)
-        List<AvailabilityDTO> availabilityList = reservationService.getBlockAvailability(
-                facilityId,
-                globalParams.getSelectedDate(),
-                globalParams.getSelectedStartTime(),
-                globalParams.getSelectedEndTime());
-
-        // Kolay erişim için Map'e çevir
-        Map<Long, AvailabilityDTO> availabilityMap = availabilityList.stream()
-                .collect(Collectors.toMap(AvailabilityDTO::getId, dto -> dto));
-
-        // 3. Çizim
-        for (FacilityBlock block : blocks) {
-            AvailabilityDTO status = availabilityMap.get(block.getId());
-            createBlockNode(block, status);
-        }
+        LocalDate date = globalParams.getSelectedDate();
+        LocalTime startTime = globalParams.getSelectedStartTime();
+        LocalTime endTime = globalParams.getSelectedEndTime();
+
+        LoadingPlaceholders.pane(mapCanvas);
+        uiTaskRunner.run(mapCanvas, "block-map:" + facilityId + ":" + date + ":" + startTime + ":" + endTime, () -> {
+            // 1. Blokları Çek (yerlesim onbellegi)
+            List<FacilityBlock> blocks = facilityTopologyCache.getBlocks(facilityId);
+
+            // 2. Doluluk Bilgisini Çek (DTO Listesi), kolay erişim için Map'e çevir
+            Map<Long, AvailabilityDTO> availabilityMap = reservationService
+                    .getBlockAvailability(facilityId, date, startTime, endTime).stream()
+                    .collect(Collectors.toMap(AvailabilityDTO::getId, dto -> dto));
+            return new BlockMap(blocks, availabilityMap);
+        }, map -> {
+            // 3. Çizim
+            mapCanvas.getChildren().clear();
+            for (FacilityBlock block : map.blocks()) {
+                AvailabilityDTO status = map.availability().get(block.getId());
+                createBlockNode(block, status);
+            }
+        });
     }
 
     // Scale factor: bloklari 1/2 boyutunda goster
@@ -188,7 +205,9 @@ public class UserReservationStep2Controller {
             node.setOnMouseClicked(e -> handleBlockClick(block));
         } else {
             node.setOpacity(0.5);
-            node.setCursor(Cursor.DEFAULT);
+            // Dolu blok: tekrar tekrar denemek yerine bekleme listesine katilma secenegi
+            node.setCursor(Cursor.HAND);
+            node.setOnMouseClicked(e -> handleFullBlockClick(block));
         }
 
         mapCanvas.getChildren().add(node);
@@ -199,6 +218,32 @@ public class UserReservationStep2Controller {
         userHomeController.setView("/fxml/user/reservation/user-reservation-step3.fxml");
     }
 
+    private void handleFullBlockClick(FacilityBlock block) {
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Blok Dolu");
+        confirm.setHeaderText(block.getName() + " secilen zaman diliminde dolu.");
+        confirm.setContentText("Bekleme listesine katilmak ister misiniz? Yer acildiginda koltuk sizin icin ayrilir.");
+
+        confirm.showAndWait().filter(ButtonType.OK::equals).ifPresent(b -> {
+            Alert result;
+            try {
+                String message = reservationService.joinWaitlist(
+                        globalParams.getSelectedFacility().getId(),
+                        block.getId(),
+                        null,
+                        null,
+                        globalParams.getSelectedDate(),
+                        globalParams.getSelectedStartTime(),
+                        globalParams.getSelectedEndTime());
+                result = new Alert(Alert.AlertType.INFORMATION, message);
+            } catch (Exception ex) {
+                result = new Alert(Alert.AlertType.ERROR, ex.getMessage());
+            }
+            result.setHeaderText(null);
+            result.showAndWait();
+        });
+    }
+
     @FXML
     public void handleBack() {
         userHomeController.setView("/fxml/user/reservation/user-reservation-step1.fxml");
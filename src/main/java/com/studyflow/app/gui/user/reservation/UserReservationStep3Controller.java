@@ -1,15 +1,19 @@
 package com.studyflow.app.gui.user.reservation;
 
 import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
 import com.studyflow.app.gui.user.UserHomeController;
 import com.studyflow.app.model.facility.Desk;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.facility.FacilityBlock;
 import com.studyflow.app.model.dto.AvailabilityDTO;
-import com.studyflow.app.repository.facility.DeskRepository;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
 import com.studyflow.app.service.reservation.ReservationService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
@@ -21,15 +25,19 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
-public class UserReservationStep3Controller {
+@Lazy
+public class UserReservationStep3Controller implements RefreshableView {
 
     private static final double MAP_LIMIT = 800.0;
     // Scale factor: masalari 1/2 boyutunda goster
@@ -47,7 +55,7 @@ public class UserReservationStep3Controller {
     @Autowired
     private GlobalParamsContext globalParams;
     @Autowired
-    private DeskRepository deskRepository;
+    private FacilityTopologyCache facilityTopologyCache;
     @Autowired
     private ReservationService reservationService;
     @Autowired
@@ -56,23 +64,30 @@ public class UserReservationStep3Controller {
     private ViewFactory viewFactory;
     @Autowired
     private UserHomeController userHomeController;
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
 
     @FXML
     public void initialize() {
-        FacilityBlock block = globalParams.getSelectedFacilityBlock();
-        if (block == null) {
-            // Güvenli fallback: blok yoksa bir önceki adıma dön
-            userHomeController.setView("/fxml/user/reservation/user-reservation-step2.fxml");
-            return;
-        }
-
         // Canvas boyutunu her zaman sabit 600x600 yap (Desk Editor ile aynı)
         deskCanvas.setPrefSize(MAP_LIMIT, MAP_LIMIT);
         deskCanvas.setMinSize(MAP_LIMIT, MAP_LIMIT);
         deskCanvas.setMaxSize(MAP_LIMIT, MAP_LIMIT);
+    }
+
+    @Override
+    public void onShow() {
+        FacilityBlock block = globalParams.getSelectedFacilityBlock();
+        if (block == null) {
+            // Güvenli fallback: blok yoksa bir önceki adıma dön (bu ekran yerlestirildikten sonra)
+            Platform.runLater(() -> userHomeController.setView("/fxml/user/reservation/user-reservation-step2.fxml"));
+            return;
+        }
 
         setupHeaderSummary(block);
         loadDesksWithAvailability(block);
+
+        viewFactory.preload("/fxml/user/reservation/user-reservation-step4.fxml");
     }
 
     private void setupHeaderSummary(FacilityBlock block) {
@@ -99,23 +114,30 @@ public class UserReservationStep3Controller {
         }
     }
 
-    private void loadDesksWithAvailability(FacilityBlock block) {
-        deskCanvas.getChildren().clear();
-        List<Desk> desks = deskRepository.findAllByBlockId(block.getId());
-
-        List<AvailabilityDTO> availabilityList = reservationService.getDeskAvailability(
-                block.getId(),
-                globalParams.getSelectedDate(),
-                globalParams.getSelectedStartTime(),
-                globalParams.getSelectedEndTime());
-
-        Map<Long, AvailabilityDTO> availabilityMap = availabilityList.stream()
-                .collect(Collectors.toMap(AvailabilityDTO::getId, dto -> dto));
+    private record DeskMap(List<Desk> desks, Map<Long, AvailabilityDTO> availability) {
+    }
 
-        for (Desk desk : desks) {
-            AvailabilityDTO status = availabilityMap.get(desk.getId());
-            createDeskNode(desk, status);
-        }
+    private void loadDesksWithAvailability(FacilityBlock block) {
+        Long facilityId = globalParams.getSelectedFacility().getId();
+        Long blockId = block.getId();
+        LocalDate date = globalParams.getSelectedDate();
+        LocalTime startTime = globalParams.getSelectedStartTime();
+        LocalTime endTime = globalParams.getSelectedEndTime();
+
+        LoadingPlaceholders.pane(deskCanvas);
+        uiTaskRunner.run(deskCanvas, "desk-map:" + blockId + ":" + date + ":" + startTime + ":" + endTime, () -> {
+            List<Desk> desks = facilityTopologyCache.getDesks(facilityId, blockId);
+            Map<Long, AvailabilityDTO> availabilityMap = reservationService
+                    .getDeskAvailability(blockId, date, startTime, endTime).stream()
+                    .collect(Collectors.toMap(AvailabilityDTO::getId, dto -> dto));
+            return new DeskMap(desks, availabilityMap);
+        }, map -> {
+            deskCanvas.getChildren().clear();
+            for (Desk desk : map.desks()) {
+                AvailabilityDTO status = map.availability().get(desk.getId());
+                createDeskNode(desk, status);
+            }
+        });
     }
 
     private void createDeskNode(Desk desk, AvailabilityDTO status) {
@@ -1,19 +1,26 @@
 package com.studyflow.app.gui.user.reservation;
 
 import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
 import com.studyflow.app.gui.NavigationService;
+import com.studyflow.app.gui.RefreshableView;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.ViewFactory;
 import com.studyflow.app.gui.user.UserHomeController;
+import com.studyflow.app.model.dto.RecurringReservationResult;
 import com.studyflow.app.model.facility.Desk;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.facility.FacilityBlock;
 import com.studyflow.app.model.facility.Seat;
-import com.studyflow.app.repository.facility.SeatRepository;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
 import com.studyflow.app.service.reservation.ReservationService;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.effect.GaussianBlur;
@@ -25,13 +32,22 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
-public class UserReservationStep4Controller {
+@Lazy
+public class UserReservationStep4Controller implements RefreshableView {
 
     private static final double CANVAS_SIZE = 600.0;
     private static final double SEAT_SIZE = 32.0;
@@ -72,6 +88,13 @@ public class UserReservationStep4Controller {
     @FXML
     private Label lblSuccessMessage; // Başarılı rezervasyon mesajı
 
+    @FXML
+    private HBox repeatRow; // Tekrarli rezervasyon secenegi
+    @FXML
+    private CheckBox chkRepeatWeekdays;
+    @FXML
+    private DatePicker repeatUntilPicker;
+
     @FXML
     private HBox confirmButtonsRow; // Cancel + Confirm
     @FXML
@@ -82,7 +105,7 @@ public class UserReservationStep4Controller {
     @Autowired
     private GlobalParamsContext globalParams;
     @Autowired
-    private SeatRepository seatRepository;
+    private FacilityTopologyCache facilityTopologyCache;
     @Autowired
     private ReservationService reservationService;
     @Autowired
@@ -91,6 +114,8 @@ public class UserReservationStep4Controller {
     private ViewFactory viewFactory;
     @Autowired
     private UserHomeController userHomeController;
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
 
     private Desk currentDesk;
     private StackPane selectedSeatNode = null;
@@ -104,15 +129,28 @@ public class UserReservationStep4Controller {
 
     @FXML
     public void initialize() {
+        seatCanvas.setPrefSize(CANVAS_SIZE, CANVAS_SIZE);
+        seatCanvas.setMinSize(CANVAS_SIZE, CANVAS_SIZE);
+        seatCanvas.setMaxSize(CANVAS_SIZE, CANVAS_SIZE);
+
+        setupRepeatOption();
+    }
+
+    @Override
+    public void onShow() {
         currentDesk = globalParams.getSelectedDesk();
         if (currentDesk == null) {
-            userHomeController.setView("/fxml/user/reservation/user-reservation-step3.fxml");
+            Platform.runLater(() -> userHomeController.setView("/fxml/user/reservation/user-reservation-step3.fxml"));
             return;
         }
 
-        seatCanvas.setPrefSize(CANVAS_SIZE, CANVAS_SIZE);
-        seatCanvas.setMinSize(CANVAS_SIZE, CANVAS_SIZE);
-        seatCanvas.setMaxSize(CANVAS_SIZE, CANVAS_SIZE);
+        // Onbellekten donuste onceki masanin secimi / modal'i / cizimi kalmasin
+        confirmOverlay.setVisible(false);
+        mainLayout.setEffect(null);
+        selectedSeatNode = null;
+        seatCanvas.getChildren().clear();
+        chkRepeatWeekdays.setSelected(false);
+        repeatUntilPicker.setValue(null);
 
         setupHeaderSummary();
         renderScene();
@@ -146,10 +184,27 @@ public class UserReservationStep4Controller {
         }
     }
 
+    // Tekrar secenegi: bitis tarihi varsayilan olarak 4 hafta sonrasi
+    private void setupRepeatOption() {
+        repeatUntilPicker.setDisable(true);
+        chkRepeatWeekdays.selectedProperty().addListener((obs, oldVal, selected) -> {
+            repeatUntilPicker.setDisable(!selected);
+            if (selected && repeatUntilPicker.getValue() == null && globalParams.getSelectedDate() != null) {
+                repeatUntilPicker.setValue(globalParams.getSelectedDate().plusWeeks(4));
+            }
+        });
+    }
+
     // Her 10 saniyede bir seat doluluğunu yenile
     private void startRefreshTimer() {
+        stopRefreshTimer();
         refreshTimeline = new Timeline(
                 new KeyFrame(Duration.seconds(10), e -> {
+                    // Baska ekrana gecildiyse zamanlayici durur
+                    if (seatCanvas.getScene() == null) {
+                        stopRefreshTimer();
+                        return;
+                    }
                     // Kullanıcı confirm/success ekranındaysa ekranı zıplatmayalım
                     if (!confirmOverlay.isVisible()) {
                         renderScene();
@@ -166,7 +221,34 @@ public class UserReservationStep4Controller {
         }
     }
 
+    private record SeatMap(List<Seat> seats, Set<Long> occupiedIds) {
+    }
+
+    // Koltuklar ve doluluk arka planda okunur; ilk yuklemede gosterge, yenilemelerde eski cizim kalir
     private void renderScene() {
+        Long facilityId = globalParams.getSelectedFacility().getId();
+        Long deskId = currentDesk.getId();
+        LocalDate date = globalParams.getSelectedDate();
+        LocalTime startTime = globalParams.getSelectedStartTime();
+        LocalTime endTime = globalParams.getSelectedEndTime();
+
+        if (seatCanvas.getChildren().isEmpty()) {
+            LoadingPlaceholders.pane(seatCanvas);
+        }
+        uiTaskRunner.run(seatCanvas, "seat-map:" + deskId + ":" + date + ":" + startTime + ":" + endTime, () -> {
+            List<Seat> seats = facilityTopologyCache.getSeats(facilityId, deskId);
+            Set<Long> occupiedIds = new HashSet<>(reservationService.getOccupiedSeatIds(deskId, date, startTime, endTime));
+            return new SeatMap(seats, occupiedIds);
+        }, map -> {
+            // Bu arada koltuk secildiyse ekrani zıplatmayalım
+            if (confirmOverlay.isVisible()) {
+                return;
+            }
+            drawSeatMap(map);
+        });
+    }
+
+    private void drawSeatMap(SeatMap map) {
         seatCanvas.getChildren().clear();
         selectedSeatNode = null; // refresh sonrası selection reset
 
@@ -205,16 +287,8 @@ public class UserReservationStep4Controller {
 
         seatCanvas.getChildren().addAll(deskRect, deskLabel);
 
-        List<Seat> seats = seatRepository.findAllByDeskId(currentDesk.getId());
-
-        List<Long> occupiedIds = reservationService.getOccupiedSeatIds(
-                currentDesk.getId(),
-                globalParams.getSelectedDate(),
-                globalParams.getSelectedStartTime(),
-                globalParams.getSelectedEndTime());
-
-        for (Seat seat : seats) {
-            boolean isOccupied = occupiedIds.contains(seat.getId());
+        for (Seat seat : map.seats()) {
+            boolean isOccupied = map.occupiedIds().contains(seat.getId());
             drawSeatNode(seat, isOccupied);
         }
     }
@@ -334,6 +408,18 @@ public class UserReservationStep4Controller {
         rect.setStrokeWidth(3);
         rect.setEffect(new DropShadow(10, Color.GOLD));
 
+        // Onay ekrani acikken koltuk baskasina gosterilmesin diye kisa sureli tutulur
+        try {
+            reservationService.holdSeat(
+                    seat.getId(),
+                    globalParams.getSelectedDate(),
+                    globalParams.getSelectedStartTime(),
+                    globalParams.getSelectedEndTime());
+        } catch (Exception e) {
+            showErrorOverlay(e.getMessage());
+            return;
+        }
+
         globalParams.setSelectedSeat(seat);
         showConfirmOverlay();
     }
@@ -361,6 +447,9 @@ public class UserReservationStep4Controller {
         lblWarningMessage.setVisible(true);
         lblWarningMessage.setManaged(true);
 
+        repeatRow.setVisible(true);
+        repeatRow.setManaged(true);
+
         lblErrorMessage.setVisible(false);
         lblErrorMessage.setManaged(false);
 
@@ -388,6 +477,9 @@ public class UserReservationStep4Controller {
         lblWarningMessage.setVisible(false);
         lblWarningMessage.setManaged(false);
 
+        repeatRow.setVisible(false);
+        repeatRow.setManaged(false);
+
         // success mesajını gizle
         lblSuccessMessage.setVisible(false);
         lblSuccessMessage.setManaged(false);
@@ -429,7 +521,7 @@ public class UserReservationStep4Controller {
     }
 
     /** Başarılı rezervasyon sonrası info modu */
-    private void showSuccessOverlay() {
+    private void showSuccessOverlay(String message) {
         lblModalTitle.setText("Rezervasyon Olusturuldu");
 
         // Confirm / Error / Warning kapat
@@ -439,8 +531,11 @@ public class UserReservationStep4Controller {
         lblErrorMessage.setVisible(false);
         lblErrorMessage.setManaged(false);
 
+        repeatRow.setVisible(false);
+        repeatRow.setManaged(false);
+
         // Başarı mesajı
-        lblSuccessMessage.setText("✅ Rezervasyonunuz basariyla olusturuldu.");
+        lblSuccessMessage.setText(message);
         lblSuccessMessage.setVisible(true);
         lblSuccessMessage.setManaged(true);
 
@@ -459,7 +554,8 @@ public class UserReservationStep4Controller {
 
     @FXML
     public void hideOverlay() {
-        // Cancel: sadece modal kapanır, seçim de sıfırlanır
+        // Cancel: sadece modal kapanır, seçim ve koltuk tutması sıfırlanır
+        reservationService.releaseSeatHold();
         confirmOverlay.setVisible(false);
         mainLayout.setEffect(null);
 
@@ -496,23 +592,57 @@ public class UserReservationStep4Controller {
     @FXML
     public void handleConfirm() {
         try {
-            reservationService.createReservation(
-                    globalParams.getSelectedSeat().getId(),
-                    globalParams.getSelectedDate(),
-                    globalParams.getSelectedStartTime(),
-                    globalParams.getSelectedEndTime());
+            String message;
+            if (chkRepeatWeekdays.isSelected()) {
+                message = createRecurring();
+            } else {
+                reservationService.createReservation(
+                        globalParams.getSelectedSeat().getId(),
+                        globalParams.getSelectedDate(),
+                        globalParams.getSelectedStartTime(),
+                        globalParams.getSelectedEndTime());
+                message = "✅ Rezervasyonunuz basariyla olusturuldu.";
+            }
             stopRefreshTimer();
             // Dashboard'a gitmek yerine success info ekranı
-            showSuccessOverlay();
+            showSuccessOverlay(message);
         } catch (Exception e) {
             // Hata mesajını göster - trigger hatalarını kullanıcı dostu mesaja çevirir
             showErrorOverlay(e.getMessage());
         }
     }
 
+    // Secilen gunden itibaren hafta ici her gun; cakisan gunler atlanip raporlanir
+    private String createRecurring() {
+        LocalDate until = repeatUntilPicker.getValue();
+        if (until == null) {
+            throw new RuntimeException("Tekrar icin bitis tarihi secmelisiniz.");
+        }
+        RecurringReservationResult result = reservationService.createRecurringReservation(
+                globalParams.getSelectedSeat().getId(),
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                globalParams.getSelectedDate(),
+                until,
+                globalParams.getSelectedStartTime(),
+                globalParams.getSelectedEndTime());
+
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        StringBuilder message = new StringBuilder("✅ Tekrarli rezervasyon olusturuldu: ")
+                .append(result.getCreatedDates().size()).append(" gun.");
+        if (result.isPartial()) {
+            message.append("\n\nAtlanan gunler:");
+            for (Map.Entry<LocalDate, String> conflict : result.getConflicts().entrySet()) {
+                message.append("\n• ").append(conflict.getKey().format(dateFormatter))
+                        .append(" – ").append(conflict.getValue());
+            }
+        }
+        return message.toString();
+    }
+
     @FXML
     public void handleBack() {
         stopRefreshTimer();
+        reservationService.releaseSeatHold();
         userHomeController.setView("/fxml/user/reservation/user-reservation-step3.fxml");
     }
 }
@@ -1,7 +1,10 @@
 package com.studyflow.app.gui.user.reservation;
 
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.gui.LoadingPlaceholders;
+import com.studyflow.app.gui.UiTaskRunner;
 import com.studyflow.app.gui.user.UserHomeController;
+import com.studyflow.app.model.dto.ReservationCursor;
 import com.studyflow.app.model.reservation.Reservation;
 import com.studyflow.app.service.reservation.ReservationService;
 import javafx.application.Platform;
@@ -16,6 +19,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.stage.Modality;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -26,6 +30,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Component
+@Lazy
 public class UserReservationsController {
 
     @FXML
@@ -55,6 +60,18 @@ public class UserReservationsController {
     private UserSessionContext userSessionContext;
     @Autowired
     private UserHomeController userHomeController;
+    @Autowired
+    private UiTaskRunner uiTaskRunner;
+
+    // Gecmis listesi sayfa sayfa yuklenir; kaydirma sona yaklasinca sonraki sayfa istenir
+    private static final int PAST_PAGE_SIZE = 20;
+    private static final double LOAD_MORE_THRESHOLD = 0.9;
+
+    private ReservationCursor pastCursor;
+    private boolean pastHasMore;
+    private boolean pastLoading;
+    // Liste sifirlaninca artar; eski istegin sonucu yeni listeye eklenmez
+    private int pastGeneration;
 
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEEE, dd MMM yyyy");
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
@@ -71,6 +88,13 @@ public class UserReservationsController {
         loadActiveReservations();
         loadPastReservations();
 
+        // Gecmis: sona yaklasinca sonraki sayfa
+        scrollExpired.vvalueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= LOAD_MORE_THRESHOLD * scrollExpired.getVmax()) {
+                loadNextPastPage();
+            }
+        });
+
         // Toggle Dinleyicisi (Geçiş Mantığı)
         viewToggleGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal == null) {
@@ -102,30 +126,70 @@ public class UserReservationsController {
 
     /* ------------------ UPCOMING ------------------ */
     private void loadActiveReservations() {
-        activeContainer.getChildren().clear();
-        List<Reservation> list = reservationService.getCurrentUserActiveReservations();
-
-        if (list == null || list.isEmpty()) {
-            activeContainer.getChildren().add(createEmptyState("Yaklasan rezervasyon yok."));
-            return;
-        }
-        for (Reservation r : list) {
-            activeContainer.getChildren().add(createReservationCard(r, true));
-        }
+        LoadingPlaceholders.pane(activeContainer);
+        uiTaskRunner.run(activeContainer, "active-reservations:" + currentUserId(),
+                reservationService::getCurrentUserActiveReservations, list -> {
+                    activeContainer.getChildren().clear();
+                    if (list == null || list.isEmpty()) {
+                        activeContainer.getChildren().add(createEmptyState("Yaklasan rezervasyon yok."));
+                        return;
+                    }
+                    for (Reservation r : list) {
+                        activeContainer.getChildren().add(createReservationCard(r, true));
+                    }
+                });
     }
 
     /* ------------------ HISTORY ------------------ */
     private void loadPastReservations() {
-        pastContainer.getChildren().clear();
-        List<Reservation> list = reservationService.getCurrentUserPastReservations();
+        LoadingPlaceholders.pane(pastContainer);
+        pastGeneration++;
+        pastCursor = ReservationCursor.firstDescending();
+        pastHasMore = true;
+        pastLoading = false;
+        loadNextPastPage();
+    }
 
-        if (list == null || list.isEmpty()) {
-            pastContainer.getChildren().add(createEmptyState("Gecmis rezervasyon yok."));
+    // Keyset sayfalama: son gosterilen kaydin (tarih, saat, id) degerinden devam eder
+    private void loadNextPastPage() {
+        if (!pastHasMore || pastLoading) {
             return;
         }
-        for (Reservation r : list) {
-            pastContainer.getChildren().add(createReservationCard(r, false));
-        }
+        pastLoading = true;
+        ReservationCursor cursor = pastCursor;
+        int generation = pastGeneration;
+        boolean firstPage = pastContainer.getChildren().stream().noneMatch(node -> node instanceof VBox);
+
+        uiTaskRunner.run(pastContainer, null,
+                () -> reservationService.getCurrentUserPastReservationsPage(cursor, PAST_PAGE_SIZE), page -> {
+                    // Bu arada liste sifirlandiysa eski sayfa atilir
+                    if (generation != pastGeneration) {
+                        return;
+                    }
+                    pastLoading = false;
+                    if (firstPage) {
+                        pastContainer.getChildren().clear();
+                    }
+                    for (Reservation r : page) {
+                        pastContainer.getChildren().add(createReservationCard(r, false));
+                    }
+                    pastHasMore = page.size() == PAST_PAGE_SIZE;
+                    if (!page.isEmpty()) {
+                        pastCursor = ReservationCursor.after(page.get(page.size() - 1));
+                    }
+                    if (pastContainer.getChildren().isEmpty()) {
+                        pastContainer.getChildren().add(createEmptyState("Gecmis rezervasyon yok."));
+                    }
+                }, error -> {
+                    if (generation == pastGeneration) {
+                        pastLoading = false;
+                    }
+                    System.out.println("[WARN] Gecmis rezervasyonlar yuklenemedi: " + error.getMessage());
+                });
+    }
+
+    private Long currentUserId() {
+        return userSessionContext.getCurrentUser() != null ? userSessionContext.getCurrentUser().getId() : null;
     }
 
     /* ------------------ CARD FACTORY ------------------ */
@@ -0,0 +1,54 @@
+package com.studyflow.app.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin ana sayfasinin tum sayilari tek seferde (AdminDashboardService).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSnapshot {
+    private int totalFacilities;
+    private int totalUsers;
+    private int totalLibrarians;
+    private int totalSeats;
+    private int totalBlocks;
+    private int totalDesks;
+
+    // Bugun ve sonrasi ACTIVE
+    private int activeReservations;
+    // Sadece bugun ACTIVE (doluluk orani)
+    private int todayReservations;
+    private int completedReservations;
+    private int cancelledReservations;
+
+    // Bugun en cok aktif rezervasyonu olan tesisler (en fazla 4)
+    @Builder.Default
+    private List<FacilityCard> topFacilities = new ArrayList<>();
+
+    private LocalDateTime computedAt;
+
+    public double getOccupancyRate() {
+        return totalSeats > 0 ? (todayReservations * 100.0 / totalSeats) : 0;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FacilityCard {
+        private Long id;
+        private String name;
+        private String address;
+        private String imageUrl;
+        private int activeToday;
+        private int seatCount;
+    }
+}
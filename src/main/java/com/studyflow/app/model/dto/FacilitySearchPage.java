@@ -0,0 +1,39 @@
+package com.studyflow.app.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FacilityService.searchFacilities sonucu: tek sayfa tesis ve eslesen toplam kayit sayisi.
+ * Kart sayilari (blok, koltuk, aktif rezervasyon) ayni sorguda gelir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilitySearchPage {
+    private List<Item> items = new ArrayList<>();
+    // 0'dan baslar
+    private int page;
+    private int pageSize;
+    private long totalCount;
+
+    public boolean hasNext() {
+        return (long) (page + 1) * pageSize < totalCount;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String name;
+        private String address;
+        private String imageUrl;
+        private int blockCount;
+        private int seatCount;
+        private int activeReservations;
+    }
+}
@@ -0,0 +1,25 @@
+package com.studyflow.app.model.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Yerlesim editorlerinin kaydedecegi degisiklikler: sadece eklenen, degisen ve silinen elemanlar.
+ * Eklenenlerin ID'leri kayittan sonra FacilityLayoutService tarafindan nesnelere yazilir.
+ */
+@Data
+public class LayoutChangeSet<T> {
+    private List<T> added = new ArrayList<>();
+    private List<T> modified = new ArrayList<>();
+    private List<Long> removedIds = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return added.isEmpty() && modified.isEmpty() && removedIds.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + modified.size() + removedIds.size();
+    }
+}
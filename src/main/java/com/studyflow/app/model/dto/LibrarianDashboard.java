@@ -0,0 +1,51 @@
+package com.studyflow.app.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Kutuphaneci ana sayfasi (LibrarianDashboardService).
+ * Yapi sayilari ve haftalik seri ekran acilisinda bir kez, doluluk (Occupancy) dakikada bir hesaplanir.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibrarianDashboard {
+    private Long facilityId;
+    private String facilityName;
+
+    private int totalBlocks;
+    private int totalDesks;
+    private int totalSeats;
+
+    // Bugun / bu hafta ACTIVE
+    private int todayReservations;
+    private int weekReservations;
+
+    // Pazartesiden baslayarak 7 gun, ACTIVE + COMPLETED
+    private LocalDate weekStart;
+    private int[] weeklyCounts;
+
+    private Occupancy occupancy;
+
+    @Data
+    @AllArgsConstructor
+    public static class Occupancy {
+        private int totalSeats;
+        // Su anda rezervasyonu devam eden koltuklar
+        private int occupiedNow;
+        // Onumuzdeki bir saat icinde herhangi bir anda dolu olan koltuklar
+        private int occupiedNextHour;
+        private LocalDateTime computedAt;
+
+        public double getOccupancyRate() {
+            return totalSeats > 0 ? (occupiedNow * 100.0 / totalSeats) : 0;
+        }
+    }
+}
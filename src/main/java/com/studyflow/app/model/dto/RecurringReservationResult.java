@@ -0,0 +1,24 @@
+package com.studyflow.app.model.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tekrarli rezervasyon sonucu: olusturulan gunler ve cakisma nedeniyle atlanan gunler.
+ */
+@Data
+public class RecurringReservationResult {
+    private Long seriesId;
+    private List<LocalDate> createdDates = new ArrayList<>();
+    // Key: atlanan gun - Value: neden ("Koltuk dolu", "Baska rezervasyonunuz var" ...)
+    private Map<LocalDate, String> conflicts = new LinkedHashMap<>();
+
+    public boolean isPartial() {
+        return !conflicts.isEmpty();
+    }
+}
@@ -0,0 +1,36 @@
+package com.studyflow.app.model.dto;
+
+import com.studyflow.app.model.reservation.Reservation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Keyset (seek) sayfalama imleci: (reservation_date, start_time, id).
+ * Sonraki sayfa, onceki sayfanin son kaydindan sonra (veya once) gelen kayitlardir; OFFSET kullanilmaz.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationCursor {
+    private LocalDate reservationDate;
+    private LocalTime startTime;
+    private Long id;
+
+    // Azalan siralamada ilk sayfa: tum kayitlardan buyuk bir imlec
+    public static ReservationCursor firstDescending() {
+        return new ReservationCursor(LocalDate.of(9999, 12, 31), LocalTime.MAX, Long.MAX_VALUE);
+    }
+
+    // Artan siralamada ilk sayfa: tum kayitlardan kucuk bir imlec
+    public static ReservationCursor firstAscending() {
+        return new ReservationCursor(LocalDate.of(1, 1, 1), LocalTime.MIN, Long.MIN_VALUE);
+    }
+
+    public static ReservationCursor after(Reservation reservation) {
+        return new ReservationCursor(reservation.getReservationDate(), reservation.getStartTime(), reservation.getId());
+    }
+}
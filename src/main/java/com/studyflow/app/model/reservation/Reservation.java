@@ -66,6 +66,10 @@ public class Reservation {
     @Column
     private LocalDateTime cancelledAt;
 
+    // Tekrarli rezervasyondan uretildiyse bagli oldugu seri (reservation_series.id)
+    @Column(name = "series_id")
+    private Long seriesId;
+
     // Yardımcı metod: İptal edilebilir mi kontrolü (1 saat kuralı)
     public boolean isCancellable() {
         if (!"ACTIVE".equals(this.status)) {
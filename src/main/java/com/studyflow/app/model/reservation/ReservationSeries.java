@@ -0,0 +1,57 @@
+package com.studyflow.app.model.reservation;
+
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Tekrarli rezervasyon kurali (orn. "Pzt-Cum 14:00-17:00, X tarihine kadar").
+ * Kuraldan uretilen her gun reservations tablosunda series_id ile bagli ayri bir kayittir;
+ * aktif rezervasyon limiti acisindan seri tek rezervasyon sayilir.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reservation_series")
+public class ReservationSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "seat_id", nullable = false)
+    private Seat seat;
+
+    // Haftanin gunleri, virgulle ayrilmis (orn. "MONDAY,TUESDAY")
+    @Column(nullable = false, length = 80)
+    private String daysOfWeek;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column
+    private LocalDateTime createdAt;
+}
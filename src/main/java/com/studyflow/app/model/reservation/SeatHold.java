@@ -0,0 +1,52 @@
+package com.studyflow.app.model.reservation;
+
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Rezervasyon sihirbazinda (Adim 4) secilen koltugun kisa sureli tutulmasi.
+ * expires_at gecince tutma gecersizdir; sure dolanlar expires_at indeksi uzerinden silinir.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "seat_holds", indexes = {
+        @Index(name = "idx_seat_hold_expires", columnList = "expires_at"),
+        @Index(name = "idx_seat_hold_seat_date", columnList = "seat_id, reservation_date")
+})
+public class SeatHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "seat_id", nullable = false)
+    private Seat seat;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDate reservationDate;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,84 @@
+package com.studyflow.app.model.reservation;
+
+import com.studyflow.app.model.facility.Desk;
+import com.studyflow.app.model.facility.Facility;
+import com.studyflow.app.model.facility.FacilityBlock;
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.model.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Dolu bir tesis/blok/masa/koltuk icin bekleme listesi kaydi.
+ * Kapsam en dar dolu alanla belirlenir (seat > desk > block > facility); bos alanlar "herhangi biri" demektir.
+ * Kapasite bosalinca ilk uygun kayda koltuk tutmasi ile teklif yapilir (status OFFERED).
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_facility_date", columnList = "facility_id, reservation_date, status"),
+        @Index(name = "idx_waitlist_user_status", columnList = "user_id, status")
+})
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "facility_id", nullable = false)
+    private Facility facility;
+
+    @ManyToOne
+    @JoinColumn(name = "facility_block_id")
+    private FacilityBlock facilityBlock;
+
+    @ManyToOne
+    @JoinColumn(name = "desk_id")
+    private Desk desk;
+
+    @ManyToOne
+    @JoinColumn(name = "seat_id")
+    private Seat seat;
+
+    @Column(nullable = false)
+    private LocalDate reservationDate;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(length = 20)
+    @Builder.Default
+    private String status = "WAITING"; // WAITING, OFFERED, FULFILLED, EXPIRED, CANCELLED
+
+    // Teklif edilen koltuk ve teklifin gecerlilik suresi
+    @ManyToOne
+    @JoinColumn(name = "offered_seat_id")
+    private Seat offeredSeat;
+
+    @Column
+    private LocalDateTime offerExpiresAt;
+
+    // Teklif icin acilan seat_holds kaydi; kabul/ret yalnizca bu tutmayi siler
+    @Column
+    private Long offerHoldId;
+
+    @Column
+    private LocalDateTime createdAt;
+}
@@ -16,6 +16,17 @@ public interface FacilityBlockRepository extends JpaRepository<FacilityBlock, Lo
     @Query(value = "SELECT * FROM facility_blocks WHERE facility_id = :facilityId", nativeQuery = true)
     List<FacilityBlock> findAllByFacilityId(@Param("facilityId") Long facilityId);
 
+    // Tesis yerlesimi tek sorguda (blok -> masa -> koltuk). Bos blok/masa da bir satir doner (LEFT JOIN)
+    @Query(value = "SELECT b.id, b.name, b.pos_x, b.pos_y, b.width, b.height, b.color_hex, b.current_id_index, " +
+            "d.id, d.size, d.id_range, d.current_id_index, d.pos_x, d.pos_y, d.width, d.height, d.color_hex, " +
+            "s.id, s.seat_number, s.rel_x, s.rel_y " +
+            "FROM facility_blocks b " +
+            "LEFT JOIN desks d ON d.facility_block_id = b.id " +
+            "LEFT JOIN seats s ON s.desk_id = d.id " +
+            "WHERE b.facility_id = :facilityId " +
+            "ORDER BY b.id, d.id, s.seat_number, s.id", nativeQuery = true)
+    List<Object[]> findTopologyRows(@Param("facilityId") Long facilityId);
+
     @Modifying
     @Transactional
     @Query(value = "INSERT INTO facility_blocks (name, pos_x, pos_y, width, height, color_hex, current_id_index, facility_id) " +
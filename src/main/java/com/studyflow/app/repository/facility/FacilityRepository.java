@@ -26,9 +26,33 @@ public interface FacilityRepository extends JpaRepository<Facility, Long> {
     Facility getFacilityByImageUrl(@Param("imageUrl") String imageUrl);
 
 
-    @Query(value = "SELECT * FROM facilities f " +
-                    "ORDER BY " +
-                    "CASE WHEN UPPER(:order) = 'ASC'  THEN f.name END ASC, " +
-                    "CASE WHEN UPPER(:order) = 'DESC' THEN f.name END DESC", nativeQuery = true)
-    List<Facility> getAllFacilitiesByOrder(@Param("order") String order);
+    // ============================================
+    // TESIS ARAMA (FacilityService.searchFacilities)
+    // ============================================
+    // Sayfa once ic sorguda secilir (LOWER(name) sirasi idx_facility_name'den, eslesme PostgreSQL'de trigram /
+    // prefix indekslerinden); sayilar sadece sayfadaki satirlar icin hesaplanir. total_count: eslesen tum tesisler.
+    // Kolonlar: id, name, address, image_url, total_count, block_count, seat_count, active_count
+
+    String SEARCH_PAGE_SELECT = "SELECT p.id, p.name, p.address, p.image_url, p.total_count, " +
+            "(SELECT COUNT(*) FROM facility_blocks fb WHERE fb.facility_id = p.id) AS block_count, " +
+            "(SELECT COUNT(s.id) FROM facility_blocks fb JOIN desks d ON d.facility_block_id = fb.id " +
+            " JOIN seats s ON s.desk_id = d.id WHERE fb.facility_id = p.id) AS seat_count, " +
+            "(SELECT COUNT(*) FROM reservations r WHERE r.facility_id = p.id AND r.status = 'ACTIVE') AS active_count " +
+            "FROM (SELECT f.id, f.name, f.address, f.image_url, COUNT(*) OVER () AS total_count " +
+            "      FROM facilities f " +
+            "      WHERE LOWER(f.name) LIKE :pattern OR LOWER(f.address) LIKE :pattern ";
+
+    @Query(value = SEARCH_PAGE_SELECT +
+            "      ORDER BY LOWER(f.name) ASC, f.id ASC LIMIT :limit OFFSET :offset) p " +
+            "ORDER BY LOWER(p.name) ASC, p.id ASC", nativeQuery = true)
+    List<Object[]> searchFacilitiesByNameAsc(@Param("pattern") String pattern,
+                                             @Param("limit") int limit,
+                                             @Param("offset") int offset);
+
+    @Query(value = SEARCH_PAGE_SELECT +
+            "      ORDER BY LOWER(f.name) DESC, f.id DESC LIMIT :limit OFFSET :offset) p " +
+            "ORDER BY LOWER(p.name) DESC, p.id DESC", nativeQuery = true)
+    List<Object[]> searchFacilitiesByNameDesc(@Param("pattern") String pattern,
+                                              @Param("limit") int limit,
+                                              @Param("offset") int offset);
 }
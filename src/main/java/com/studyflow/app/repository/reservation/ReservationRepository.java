@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -33,6 +34,61 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                            @Param("startTime") LocalTime startTime,
                            @Param("endTime") LocalTime endTime);
 
+    // Yeni eklenen aktif kaydin ID'si (H2 yolu; PostgreSQL'de fn_book_seat ID'yi dondurur)
+    @Query(value = "SELECT MAX(id) FROM reservations WHERE user_id = :userId AND seat_id = :seatId " +
+            "AND reservation_date = :date AND start_time = :startTime AND status = 'ACTIVE'", nativeQuery = true)
+    Long findActiveReservationId(@Param("userId") Long userId,
+                                 @Param("seatId") Long seatId,
+                                 @Param("date") LocalDate date,
+                                 @Param("startTime") LocalTime startTime);
+
+    // Tekrarli serinin gunluk kayitlari (id, reservation_date)
+    @Query(value = "SELECT id, reservation_date FROM reservations WHERE series_id = :seriesId", nativeQuery = true)
+    List<Object[]> findReservationsBySeriesId(@Param("seriesId") Long seriesId);
+
+    // Rezervasyon transaction'i icinde koltuk satirini kilitler (ayni koltuga yazanlar sirayla ilerler)
+    @Query(value = "SELECT id FROM seats WHERE id = :seatId FOR UPDATE", nativeQuery = true)
+    Long lockSeatForBooking(@Param("seatId") Long seatId);
+
+    // Ayni kullanicinin paralel istekleri aktif rezervasyon limitini asamasin diye kullanici satiri kilitlenir
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockUserForBooking(@Param("userId") Long userId);
+
+    // Tek cagrida kilit + dogrulama + insert/update (db/migration/postgresql: fn_book_seat, sadece PostgreSQL)
+    // reservationId NULL ise yeni kayit, degilse o rezervasyonun tasinmasi; donus durum kodudur
+    @Query(value = "SELECT fn_book_seat(:userId, :seatId, :date, :startTime, :endTime, " +
+            "CAST(:reservationId AS BIGINT))", nativeQuery = true)
+    String bookSeat(@Param("userId") Long userId,
+                    @Param("seatId") Long seatId,
+                    @Param("date") LocalDate date,
+                    @Param("startTime") LocalTime startTime,
+                    @Param("endTime") LocalTime endTime,
+                    @Param("reservationId") Long reservationId);
+
+    // Tekrarli rezervasyon icin set bazli cakisma kontrolu: seri araligindaki tum gunler tek sorguda
+    // (reservation_date, neden) -> SEAT: koltuk dolu, USER: kullanicinin baska rezervasyonu, HELD: koltuk tutulmus
+    @Query(value = "SELECT reservation_date, 'SEAT' AS reason FROM reservations " +
+            "WHERE seat_id = :seatId AND status = 'ACTIVE' " +
+            "AND reservation_date BETWEEN :fromDate AND :untilDate " +
+            "AND start_time < :endTime AND end_time > :startTime " +
+            "UNION ALL " +
+            "SELECT reservation_date, 'USER' AS reason FROM reservations " +
+            "WHERE user_id = :userId AND status = 'ACTIVE' " +
+            "AND reservation_date BETWEEN :fromDate AND :untilDate " +
+            "AND start_time < :endTime AND end_time > :startTime " +
+            "UNION ALL " +
+            "SELECT reservation_date, 'HELD' AS reason FROM seat_holds " +
+            "WHERE seat_id = :seatId AND user_id <> :userId AND expires_at > :now " +
+            "AND reservation_date BETWEEN :fromDate AND :untilDate " +
+            "AND start_time < :endTime AND end_time > :startTime", nativeQuery = true)
+    List<Object[]> findSeriesConflictRows(@Param("seatId") Long seatId,
+                                          @Param("userId") Long userId,
+                                          @Param("fromDate") LocalDate fromDate,
+                                          @Param("untilDate") LocalDate untilDate,
+                                          @Param("startTime") LocalTime startTime,
+                                          @Param("endTime") LocalTime endTime,
+                                          @Param("now") LocalDateTime now);
+
     // ============================================
     // 2. REZERVASYON GÜNCELLEME (UPDATE)
     // ============================================
@@ -65,15 +121,63 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     int cancelReservation(@Param("reservationId") Long reservationId,
                           @Param("reason") String reason);
 
-    // Süresi dolmuş rezervasyonları tamamlandı olarak işaretle
+    // Bitis zamani gecmis ACTIVE rezervasyonlar (id, user_id, reservation_date, start_time, end_time),
+    // en fazla :limit adet (idx_reservation_active_end). 00:00'da (veya baslangictan once) biten kayitlar ertesi gun biter
+    @Query(value = "SELECT id, user_id, reservation_date, start_time, end_time FROM reservations " +
+            "WHERE status = 'ACTIVE' " +
+            "AND (reservation_date < :currentDate " +
+            "OR (reservation_date = :currentDate AND end_time > start_time AND end_time <= :currentTime)) " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findExpiredActiveReservations(@Param("currentDate") LocalDate currentDate,
+                                                 @Param("currentTime") LocalTime currentTime,
+                                                 @Param("limit") int limit);
+
+    // Sweeper partisindeki hala ACTIVE olan kayitlari kilitler (ozet guncellemesinden once)
+    @Query(value = "SELECT id FROM reservations WHERE id IN (:ids) AND status = 'ACTIVE' FOR UPDATE", nativeQuery = true)
+    List<Long> lockActiveReservations(@Param("ids") List<Long> ids);
+
+    // Süresi dolmuş rezervasyonları tamamlandı olarak işaretle (kucuk partiler halinde)
     @Modifying
     @Transactional
     @Query(value = "UPDATE reservations SET status = 'COMPLETED' " +
+            "WHERE id IN (:ids) AND status = 'ACTIVE'", nativeQuery = true)
+    int completeReservations(@Param("ids") List<Long> ids);
+
+    // Arsivlenecek kapanmis kayitlar: cutoff tarihinden eski COMPLETED/CANCELLED, en fazla :limit adet
+    @Query(value = "SELECT id FROM reservations " +
+            "WHERE status IN ('COMPLETED', 'CANCELLED') AND reservation_date < :cutoffDate " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivableReservationIds(@Param("cutoffDate") LocalDate cutoffDate,
+                                            @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO reservations_history (id, user_id, seat_id, facility_block_id, facility_id, desk_id, " +
+            "reservation_date, start_time, end_time, status, cancellation_reason, cancelled_at, series_id) " +
+            "SELECT id, user_id, seat_id, facility_block_id, facility_id, desk_id, " +
+            "reservation_date, start_time, end_time, status, cancellation_reason, cancelled_at, series_id " +
+            "FROM reservations WHERE id IN (:ids)", nativeQuery = true)
+    int copyReservationsToHistory(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM reservations WHERE id IN (:ids) AND status IN ('COMPLETED', 'CANCELLED')", nativeQuery = true)
+    int deleteArchivedReservations(@Param("ids") List<Long> ids);
+
+    // Bugun veya oncesinde biten en erken ACTIVE kayit (idx_reservation_active_end sirali taramasi, tek satir).
+    // Sweeper her taramada bunu okur: baska istemcilerin ekledigi/tasidigi kayitlar da vaktinde tamamlanir
+    @Query(value = "SELECT reservation_date, start_time, end_time FROM reservations " +
             "WHERE status = 'ACTIVE' " +
             "AND (reservation_date < :currentDate " +
-            "OR (reservation_date = :currentDate AND end_time <= :currentTime))", nativeQuery = true)
-    int markExpiredReservationsAsCompleted(@Param("currentDate") LocalDate currentDate,
-                                           @Param("currentTime") LocalTime currentTime);
+            "OR (reservation_date = :currentDate AND end_time > start_time)) " +
+            "ORDER BY reservation_date, end_time " +
+            "LIMIT 1", nativeQuery = true)
+    List<Object[]> findEarliestActiveEnd(@Param("currentDate") LocalDate currentDate);
+
+    // Sweeper kuyrugunu doldurmak icin ufuk tarihine kadar olan ACTIVE kayitlarin zaman araliklari
+    @Query(value = "SELECT DISTINCT reservation_date, start_time, end_time FROM reservations " +
+            "WHERE status = 'ACTIVE' AND reservation_date <= :horizonDate", nativeQuery = true)
+    List<Object[]> findActiveReservationPeriodsUntil(@Param("horizonDate") LocalDate horizonDate);
 
     // Eski metod - geriye dönük uyumluluk
     @Modifying
@@ -120,6 +224,25 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                                @Param("endTime") LocalTime endTime,
                                                @Param("excludeReservationId") Long excludeReservationId);
 
+    // PostgreSQL: ayni kontroller period GiST indeksi (ex_reservation_seat_period) uzerinden
+    @Query(value = "SELECT COUNT(*) FROM reservations " +
+            "WHERE seat_id = :seatId " +
+            "AND status = 'ACTIVE' " +
+            "AND period && tsrange(:startAt, :endAt, '[)')", nativeQuery = true)
+    int countConflictingReservationsByPeriod(@Param("seatId") Long seatId,
+                                             @Param("startAt") LocalDateTime startAt,
+                                             @Param("endAt") LocalDateTime endAt);
+
+    @Query(value = "SELECT COUNT(*) FROM reservations " +
+            "WHERE seat_id = :seatId " +
+            "AND status = 'ACTIVE' " +
+            "AND id <> :excludeReservationId " +
+            "AND period && tsrange(:startAt, :endAt, '[)')", nativeQuery = true)
+    int countConflictingReservationsExcludingByPeriod(@Param("seatId") Long seatId,
+                                                      @Param("startAt") LocalDateTime startAt,
+                                                      @Param("endAt") LocalDateTime endAt,
+                                                      @Param("excludeReservationId") Long excludeReservationId);
+
     // Güncelleme için kullanıcı bazlı zaman çakışması kontrolü (kendi rezervasyonu hariç)
     @Query(value = "SELECT COUNT(*) FROM reservations " +
             "WHERE user_id = :userId " +
@@ -148,45 +271,147 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                          @Param("startTime") LocalTime startTime,
                                          @Param("endTime") LocalTime endTime);
 
+    // PostgreSQL: period GiST indeksi uzerinden masadaki dolu koltuklar
+    @Query(value = "SELECT s.id FROM reservations r " +
+            "JOIN seats s ON r.seat_id = s.id " +
+            "WHERE s.desk_id = :deskId " +
+            "AND r.status = 'ACTIVE' " +
+            "AND r.period && tsrange(:startAt, :endAt, '[)')", nativeQuery = true)
+    List<Long> findOccupiedSeatIdsByDeskPeriod(@Param("deskId") Long deskId,
+                                               @Param("startAt") LocalDateTime startAt,
+                                               @Param("endAt") LocalDateTime endAt);
+
+    // Blok bazli doluluk: (block_id, total_seats, occupied_seats) tek GROUP BY ile
+    // Baska kullanicilarin gecerli koltuk tutmalari (seat_holds) da dolu sayilir
+    @Query(value = "SELECT fb.id AS block_id, " +
+            "COUNT(DISTINCT s.id) AS total_seats, " +
+            "COUNT(DISTINCT occ.seat_id) AS occupied_seats " +
+            "FROM facility_blocks fb " +
+            "LEFT JOIN desks d ON d.facility_block_id = fb.id " +
+            "LEFT JOIN seats s ON s.desk_id = d.id " +
+            "LEFT JOIN (" +
+            "SELECT seat_id FROM reservations " +
+            "WHERE reservation_date = :date AND status = 'ACTIVE' " +
+            "AND (start_time < :endTime AND end_time > :startTime) " +
+            "UNION " +
+            "SELECT seat_id FROM seat_holds " +
+            "WHERE reservation_date = :date AND expires_at > :now AND user_id <> :userId " +
+            "AND (start_time < :endTime AND end_time > :startTime)" +
+            ") occ ON occ.seat_id = s.id " +
+            "WHERE fb.facility_id = :facilityId " +
+            "GROUP BY fb.id " +
+            "ORDER BY fb.id", nativeQuery = true)
+    List<Object[]> aggregateBlockAvailability(@Param("facilityId") Long facilityId,
+                                              @Param("date") LocalDate date,
+                                              @Param("startTime") LocalTime startTime,
+                                              @Param("endTime") LocalTime endTime,
+                                              @Param("userId") Long userId,
+                                              @Param("now") LocalDateTime now);
+
+    // Masa bazli doluluk: (desk_id, total_seats, occupied_seats) tek GROUP BY ile (tutmalar dahil)
+    @Query(value = "SELECT d.id AS desk_id, " +
+            "COUNT(DISTINCT s.id) AS total_seats, " +
+            "COUNT(DISTINCT occ.seat_id) AS occupied_seats " +
+            "FROM desks d " +
+            "LEFT JOIN seats s ON s.desk_id = d.id " +
+            "LEFT JOIN (" +
+            "SELECT seat_id FROM reservations " +
+            "WHERE reservation_date = :date AND status = 'ACTIVE' " +
+            "AND (start_time < :endTime AND end_time > :startTime) " +
+            "UNION " +
+            "SELECT seat_id FROM seat_holds " +
+            "WHERE reservation_date = :date AND expires_at > :now AND user_id <> :userId " +
+            "AND (start_time < :endTime AND end_time > :startTime)" +
+            ") occ ON occ.seat_id = s.id " +
+            "WHERE d.facility_block_id = :blockId " +
+            "GROUP BY d.id " +
+            "ORDER BY d.id", nativeQuery = true)
+    List<Object[]> aggregateDeskAvailability(@Param("blockId") Long blockId,
+                                             @Param("date") LocalDate date,
+                                             @Param("startTime") LocalTime startTime,
+                                             @Param("endTime") LocalTime endTime,
+                                             @Param("userId") Long userId,
+                                             @Param("now") LocalDateTime now);
+
+    // Doluluk bitmap'i icin toplu yukleme: tesisin tum koltuklari + o gunun ACTIVE rezervasyonlari
+    @Query(value = "SELECT d.id AS desk_id, s.id AS seat_id, r.start_time, r.end_time " +
+            "FROM seats s " +
+            "JOIN desks d ON s.desk_id = d.id " +
+            "JOIN facility_blocks fb ON d.facility_block_id = fb.id " +
+            "LEFT JOIN reservations r ON r.seat_id = s.id " +
+            "AND r.reservation_date = :date " +
+            "AND r.status = 'ACTIVE' " +
+            "WHERE fb.facility_id = :facilityId " +
+            "ORDER BY d.id, s.seat_number", nativeQuery = true)
+    List<Object[]> findSeatOccupancyRows(@Param("facilityId") Long facilityId,
+                                         @Param("date") LocalDate date);
+
     // ============================================
     // 6. KULLANICI REZERVASYONLARI
     // ============================================
 
-    @Query(value = "SELECT * FROM reservations WHERE user_id = :userId ORDER BY reservation_date ASC, start_time ASC", nativeQuery = true)
+    // Canli tablo + arsiv (vw_reservations_all)
+    @Query(value = "SELECT * FROM vw_reservations_all WHERE user_id = :userId ORDER BY reservation_date ASC, start_time ASC", nativeQuery = true)
     List<Reservation> findAllByUserId(@Param("userId") Long userId);
 
-    // AKTİF REZERVASYONLAR (status = ACTIVE ve gelecekte)
+    // Keyset sayfali tum rezervasyonlar (artan): imlecten sonraki :limit kayit (idx_reservation_user_keyset)
+    @Query(value = "SELECT * FROM vw_reservations_all WHERE user_id = :userId " +
+            "AND (reservation_date, start_time, id) > (:afterDate, :afterTime, :afterId) " +
+            "ORDER BY reservation_date ASC, start_time ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Reservation> findAllByUserIdPage(@Param("userId") Long userId,
+                                          @Param("afterDate") LocalDate afterDate,
+                                          @Param("afterTime") LocalTime afterTime,
+                                          @Param("afterId") Long afterId,
+                                          @Param("limit") int limit);
+
+    // AKTİF REZERVASYONLAR (süresi dolanlar ReservationExpirySweeper ile COMPLETED olur)
     @Query(value = "SELECT * FROM reservations " +
             "WHERE user_id = :userId " +
             "AND status = 'ACTIVE' " +
-            "AND (reservation_date > :currentDate OR (reservation_date = :currentDate AND end_time > :currentTime)) " +
             "ORDER BY reservation_date ASC, start_time ASC", nativeQuery = true)
-    List<Reservation> findActiveReservationsByUserId(@Param("userId") Long userId,
-                                                     @Param("currentDate") LocalDate currentDate,
-                                                     @Param("currentTime") LocalTime currentTime);
+    List<Reservation> findActiveReservationsByUserId(@Param("userId") Long userId);
 
-    // GEÇMİŞ REZERVASYONLAR (COMPLETED veya CANCELLED veya süresi dolmuş)
-    @Query(value = "SELECT * FROM reservations " +
+    // GEÇMİŞ REZERVASYONLAR (COMPLETED veya CANCELLED, arsiv dahil)
+    @Query(value = "SELECT * FROM vw_reservations_all " +
             "WHERE user_id = :userId " +
-            "AND (status IN ('COMPLETED', 'CANCELLED') " +
-            "OR (reservation_date < :currentDate OR (reservation_date = :currentDate AND end_time <= :currentTime))) " +
+            "AND status IN ('COMPLETED', 'CANCELLED') " +
             "ORDER BY reservation_date DESC, start_time DESC", nativeQuery = true)
-    List<Reservation> findPastReservationsByUserId(@Param("userId") Long userId,
-                                                   @Param("currentDate") LocalDate currentDate,
-                                                   @Param("currentTime") LocalTime currentTime);
+    List<Reservation> findPastReservationsByUserId(@Param("userId") Long userId);
 
-    // İptal edilen rezervasyonlar
-    @Query(value = "SELECT * FROM reservations " +
+    // Keyset sayfali gecmis (azalan): imlecten onceki :limit kayit
+    @Query(value = "SELECT * FROM vw_reservations_all " +
+            "WHERE user_id = :userId " +
+            "AND status IN ('COMPLETED', 'CANCELLED') " +
+            "AND (reservation_date, start_time, id) < (:beforeDate, :beforeTime, :beforeId) " +
+            "ORDER BY reservation_date DESC, start_time DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Reservation> findPastReservationsPage(@Param("userId") Long userId,
+                                               @Param("beforeDate") LocalDate beforeDate,
+                                               @Param("beforeTime") LocalTime beforeTime,
+                                               @Param("beforeId") Long beforeId,
+                                               @Param("limit") int limit);
+
+    // Keyset sayfali iptaller (azalan)
+    @Query(value = "SELECT * FROM vw_reservations_all " +
+            "WHERE user_id = :userId AND status = 'CANCELLED' " +
+            "AND (reservation_date, start_time, id) < (:beforeDate, :beforeTime, :beforeId) " +
+            "ORDER BY reservation_date DESC, start_time DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Reservation> findCancelledReservationsPage(@Param("userId") Long userId,
+                                                    @Param("beforeDate") LocalDate beforeDate,
+                                                    @Param("beforeTime") LocalTime beforeTime,
+                                                    @Param("beforeId") Long beforeId,
+                                                    @Param("limit") int limit);
+
+    // İptal edilen rezervasyonlar (arsiv dahil)
+    @Query(value = "SELECT * FROM vw_reservations_all " +
             "WHERE user_id = :userId AND status = 'CANCELLED' " +
             "ORDER BY cancelled_at DESC", nativeQuery = true)
     List<Reservation> findCancelledReservationsByUserId(@Param("userId") Long userId);
 
     // Kullanıcının aktif rezervasyon sayısı (Trigger kontrolü için)
-    @Query(value = "SELECT COUNT(*) FROM reservations " +
+    // Tekrarli seriler tek rezervasyon sayilir (series_id NULL ise her kayit kendi basina)
+    @Query(value = "SELECT COUNT(DISTINCT COALESCE(series_id, -id)) FROM reservations " +
             "WHERE user_id = :userId " +
-            "AND status = 'ACTIVE' " +
-            "AND (reservation_date > CURRENT_DATE " +
-            "OR (reservation_date = CURRENT_DATE AND end_time > CURRENT_TIME))", nativeQuery = true)
+            "AND status = 'ACTIVE'", nativeQuery = true)
     int countActiveReservationsByUserId(@Param("userId") Long userId);
 
     // ============================================
@@ -255,19 +480,17 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query(value = "SELECT * FROM fn_get_facilities_without_reservations()", nativeQuery = true)
     List<Object[]> getFacilitiesWithoutReservations();
 
-    // UNION: Aktif ve geçmiş rezervasyonlar birleşik (inline)
+    // UNION: Aktif ve geçmiş rezervasyonlar birleşik (inline, geçmiş arsiv dahil)
     @Query(value = "SELECT r.id, 'ACTIVE' as type, r.reservation_date, r.start_time, r.end_time, f.name as facility_name " +
             "FROM reservations r " +
             "JOIN facilities f ON r.facility_id = f.id " +
             "WHERE r.user_id = :userId AND r.status = 'ACTIVE' " +
-            "AND (r.reservation_date > CURRENT_DATE OR (r.reservation_date = CURRENT_DATE AND r.end_time > CURRENT_TIME)) " +
             "UNION ALL " +
             "SELECT r.id, 'PAST' as type, r.reservation_date, r.start_time, r.end_time, f.name as facility_name " +
-            "FROM reservations r " +
+            "FROM vw_reservations_all r " +
             "JOIN facilities f ON r.facility_id = f.id " +
             "WHERE r.user_id = :userId " +
-            "AND (r.status IN ('COMPLETED', 'CANCELLED') " +
-            "OR (r.reservation_date < CURRENT_DATE OR (r.reservation_date = CURRENT_DATE AND r.end_time <= CURRENT_TIME))) " +
+            "AND r.status IN ('COMPLETED', 'CANCELLED') " +
             "ORDER BY reservation_date DESC, start_time DESC", nativeQuery = true)
     List<Object[]> findAllReservationsUnion(@Param("userId") Long userId);
 
@@ -279,10 +502,10 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query(value = "SELECT * FROM fn_get_popular_facilities(:minReservations)", nativeQuery = true)
     List<Object[]> getPopularFacilities(@Param("minReservations") int minReservations);
 
-    // Günlük rezervasyon istatistikleri (HAVING ile)
+    // Günlük rezervasyon istatistikleri (HAVING ile, arsiv dahil)
     @Query(value = "SELECT reservation_date, COUNT(*) as reservation_count, " +
             "COUNT(CASE WHEN status = 'CANCELLED' THEN 1 END) as cancelled_count " +
-            "FROM reservations " +
+            "FROM vw_reservations_all " +
             "WHERE facility_id = :facilityId " +
             "AND reservation_date BETWEEN :startDate AND :endDate " +
             "GROUP BY reservation_date " +
@@ -293,11 +516,11 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                             @Param("endDate") LocalDate endDate,
                                             @Param("minCount") int minCount);
 
-    // Saatlik yoğunluk analizi (HAVING ile)
+    // Saatlik yoğunluk analizi (HAVING ile, tamamlananlar arsiv dahil)
     @Query(value = "SELECT EXTRACT(HOUR FROM start_time) as hour, " +
             "COUNT(*) as total_reservations, " +
             "AVG(EXTRACT(EPOCH FROM (end_time - start_time))/60) as avg_duration_minutes " +
-            "FROM reservations " +
+            "FROM vw_reservations_all " +
             "WHERE facility_id = :facilityId " +
             "AND status IN ('ACTIVE', 'COMPLETED') " +
             "GROUP BY EXTRACT(HOUR FROM start_time) " +
@@ -326,6 +549,17 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             "LIMIT :limit", nativeQuery = true)
     List<Object[]> getUserAuditLogs(@Param("userId") Long userId, @Param("limit") int limit);
 
+    // Keyset sayfali audit loglari (action_timestamp, id) azalan (idx_audit_user_time)
+    @Query(value = "SELECT * FROM reservation_audit_log " +
+            "WHERE user_id = :userId " +
+            "AND (action_timestamp, id) < (:beforeTimestamp, :beforeId) " +
+            "ORDER BY action_timestamp DESC, id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> getUserAuditLogsPage(@Param("userId") Long userId,
+                                        @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                        @Param("beforeId") Long beforeId,
+                                        @Param("limit") int limit);
+
     // ============================================
     // 13. INDEX KULLANAN ARAMA SORGULARI
     // ============================================
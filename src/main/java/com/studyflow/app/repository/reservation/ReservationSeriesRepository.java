@@ -0,0 +1,9 @@
+package com.studyflow.app.repository.reservation;
+
+import com.studyflow.app.model.reservation.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Long> {
+}
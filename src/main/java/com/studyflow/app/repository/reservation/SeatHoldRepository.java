@@ -0,0 +1,96 @@
+package com.studyflow.app.repository.reservation;
+
+import com.studyflow.app.model.reservation.SeatHold;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
+
+    // ============================================
+    // 1. TUTMA OLUSTURMA / BIRAKMA
+    // ============================================
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO seat_holds (seat_id, user_id, reservation_date, start_time, end_time, expires_at) " +
+            "VALUES (:seatId, :userId, :date, :startTime, :endTime, :expiresAt)", nativeQuery = true)
+    void insertHold(@Param("seatId") Long seatId,
+                    @Param("userId") Long userId,
+                    @Param("date") LocalDate date,
+                    @Param("startTime") LocalTime startTime,
+                    @Param("endTime") LocalTime endTime,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    // insertHold sonrasi yeni tutmanin ID'si (ayni kullanici/koltuk/aralik icin en son kayit)
+    @Query(value = "SELECT MAX(id) FROM seat_holds " +
+            "WHERE seat_id = :seatId " +
+            "AND user_id = :userId " +
+            "AND reservation_date = :date " +
+            "AND start_time = :startTime", nativeQuery = true)
+    Long findHoldId(@Param("seatId") Long seatId,
+                    @Param("userId") Long userId,
+                    @Param("date") LocalDate date,
+                    @Param("startTime") LocalTime startTime);
+
+    // Kullanicinin sihirbaz tutmasi (ayni anda tek koltuk); bekleme listesi teklif tutmalari korunur
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM seat_holds WHERE user_id = :userId " +
+            "AND id NOT IN (SELECT w.offer_hold_id FROM waitlist_entries w " +
+            "WHERE w.user_id = :userId AND w.status = 'OFFERED' AND w.offer_hold_id IS NOT NULL)", nativeQuery = true)
+    int deleteWizardHoldsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM seat_holds WHERE id = :holdId", nativeQuery = true)
+    int deleteHoldById(@Param("holdId") Long holdId);
+
+    // Suresi dolan tutmalar (idx_seat_hold_expires uzerinden aralik taramasi)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM seat_holds WHERE expires_at <= :now", nativeQuery = true)
+    int deleteExpiredHolds(@Param("now") LocalDateTime now);
+
+    // ============================================
+    // 2. CAKISMA KONTROLU
+    // ============================================
+
+    // Baska bir kullanicinin bu koltukta gecerli ve cakisan tutmasi var mi?
+    @Query(value = "SELECT COUNT(*) FROM seat_holds " +
+            "WHERE seat_id = :seatId " +
+            "AND reservation_date = :date " +
+            "AND user_id <> :userId " +
+            "AND expires_at > :now " +
+            "AND (start_time < :endTime AND end_time > :startTime)", nativeQuery = true)
+    int countConflictingHolds(@Param("seatId") Long seatId,
+                              @Param("date") LocalDate date,
+                              @Param("startTime") LocalTime startTime,
+                              @Param("endTime") LocalTime endTime,
+                              @Param("userId") Long userId,
+                              @Param("now") LocalDateTime now);
+
+    // Masada baska kullanicilarca tutulan koltuklar (Adim 4 koltuk haritasi)
+    @Query(value = "SELECT h.seat_id FROM seat_holds h " +
+            "JOIN seats s ON h.seat_id = s.id " +
+            "WHERE s.desk_id = :deskId " +
+            "AND h.reservation_date = :date " +
+            "AND h.user_id <> :userId " +
+            "AND h.expires_at > :now " +
+            "AND (h.start_time < :endTime AND h.end_time > :startTime)", nativeQuery = true)
+    List<Long> findHeldSeatIdsByDesk(@Param("deskId") Long deskId,
+                                     @Param("date") LocalDate date,
+                                     @Param("startTime") LocalTime startTime,
+                                     @Param("endTime") LocalTime endTime,
+                                     @Param("userId") Long userId,
+                                     @Param("now") LocalDateTime now);
+}
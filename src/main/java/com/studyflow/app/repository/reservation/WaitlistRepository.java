@@ -0,0 +1,108 @@
+package com.studyflow.app.repository.reservation;
+
+import com.studyflow.app.model.reservation.WaitlistEntry;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // ============================================
+    // 1. KAYIT
+    // ============================================
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO waitlist_entries (user_id, facility_id, facility_block_id, desk_id, seat_id, " +
+            "reservation_date, start_time, end_time, status, created_at) " +
+            "VALUES (:userId, :facilityId, :blockId, :deskId, :seatId, :date, :startTime, :endTime, 'WAITING', :createdAt)",
+            nativeQuery = true)
+    void insertEntry(@Param("userId") Long userId,
+                     @Param("facilityId") Long facilityId,
+                     @Param("blockId") Long blockId,
+                     @Param("deskId") Long deskId,
+                     @Param("seatId") Long seatId,
+                     @Param("date") LocalDate date,
+                     @Param("startTime") LocalTime startTime,
+                     @Param("endTime") LocalTime endTime,
+                     @Param("createdAt") LocalDateTime createdAt);
+
+    // Ayni kullanici ayni kapsam ve aralik icin zaten bekliyor mu?
+    @Query(value = "SELECT COUNT(*) FROM waitlist_entries " +
+            "WHERE user_id = :userId " +
+            "AND facility_id = :facilityId " +
+            "AND reservation_date = :date " +
+            "AND start_time = :startTime AND end_time = :endTime " +
+            "AND status IN ('WAITING', 'OFFERED')", nativeQuery = true)
+    int countOpenEntries(@Param("userId") Long userId,
+                         @Param("facilityId") Long facilityId,
+                         @Param("date") LocalDate date,
+                         @Param("startTime") LocalTime startTime,
+                         @Param("endTime") LocalTime endTime);
+
+    // ============================================
+    // 2. ESLESTIRME INDEKSI
+    // ============================================
+
+    // Bekleme indeksi icin tesis-gun bazli toplu yukleme (FIFO: id sirasi)
+    @Query(value = "SELECT id, user_id, facility_block_id, desk_id, seat_id, start_time, end_time " +
+            "FROM waitlist_entries " +
+            "WHERE facility_id = :facilityId " +
+            "AND reservation_date = :date " +
+            "AND status = 'WAITING' " +
+            "ORDER BY id", nativeQuery = true)
+    List<Object[]> findWaitingRows(@Param("facilityId") Long facilityId,
+                                   @Param("date") LocalDate date);
+
+    // ============================================
+    // 3. TEKLIF DURUMU
+    // ============================================
+
+    // Sadece hala WAITING olan kayit teklif alir (baska istemci once davrandiysa 0 doner)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE waitlist_entries SET status = 'OFFERED', offered_seat_id = :seatId, " +
+            "offer_hold_id = :holdId, offer_expires_at = :expiresAt " +
+            "WHERE id = :entryId AND status = 'WAITING'", nativeQuery = true)
+    int markOffered(@Param("entryId") Long entryId,
+                    @Param("seatId") Long seatId,
+                    @Param("holdId") Long holdId,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE waitlist_entries SET status = :newStatus " +
+            "WHERE id = :entryId AND status = :currentStatus", nativeQuery = true)
+    int updateStatus(@Param("entryId") Long entryId,
+                     @Param("currentStatus") String currentStatus,
+                     @Param("newStatus") String newStatus);
+
+    // Kullanicinin gecerli teklifleri (Ana sayfada gosterilir)
+    @Query(value = "SELECT * FROM waitlist_entries " +
+            "WHERE user_id = :userId " +
+            "AND status = 'OFFERED' " +
+            "AND offer_expires_at > :now " +
+            "ORDER BY offer_expires_at", nativeQuery = true)
+    List<WaitlistEntry> findActiveOffersByUserId(@Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now);
+
+    // Suresi dolan teklifler: (entry_id, seat_id, desk_id, block_id, facility_id, date, start_time, end_time)
+    @Query(value = "SELECT w.id, s.id AS seat_id, d.id AS desk_id, fb.id AS block_id, fb.facility_id, " +
+            "w.reservation_date, w.start_time, w.end_time " +
+            "FROM waitlist_entries w " +
+            "JOIN seats s ON w.offered_seat_id = s.id " +
+            "JOIN desks d ON s.desk_id = d.id " +
+            "JOIN facility_blocks fb ON d.facility_block_id = fb.id " +
+            "WHERE w.status = 'OFFERED' " +
+            "AND w.offer_expires_at <= :now", nativeQuery = true)
+    List<Object[]> findExpiredOfferRows(@Param("now") LocalDateTime now);
+}
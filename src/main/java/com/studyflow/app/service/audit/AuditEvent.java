@@ -0,0 +1,37 @@
+package com.studyflow.app.service.audit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * reservation_audit_log'a yazilacak tek kayit. actionType: INSERT, CANCEL, COMPLETE.
+ * Detay metinleri eski trigger'larin yazdigi metinlerle aynidir.
+ */
+public record AuditEvent(Long reservationId,
+                         String actionType,
+                         LocalDateTime actionTimestamp,
+                         Long userId,
+                         String oldStatus,
+                         String newStatus,
+                         String details) {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    public static AuditEvent inserted(Long reservationId, Long userId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return new AuditEvent(reservationId, "INSERT", LocalDateTime.now(), userId, null, "ACTIVE",
+                "Yeni rezervasyon oluşturuldu. Tarih: " + date +
+                ", Saat: " + startTime.format(TIME_FORMAT) + "-" + endTime.format(TIME_FORMAT));
+    }
+
+    public static AuditEvent cancelled(Long reservationId, Long userId, String reason) {
+        return new AuditEvent(reservationId, "CANCEL", LocalDateTime.now(), userId, "ACTIVE", "CANCELLED",
+                "Rezervasyon iptal edildi. İptal nedeni: " + (reason != null ? reason : "Belirtilmedi"));
+    }
+
+    public static AuditEvent completed(Long reservationId, Long userId) {
+        return new AuditEvent(reservationId, "COMPLETE", LocalDateTime.now(), userId, "ACTIVE", "COMPLETED",
+                "Rezervasyon tamamlandı.");
+    }
+}
@@ -0,0 +1,311 @@
+package com.studyflow.app.service.audit;
+
+import com.studyflow.app.util.StartupReadiness;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * reservation_audit_log yazicisi. Rezervasyon transaction'lari audit satiri yazmaz;
+ * olaylar commit sonrasi kuyruga alinir ve arka planda JDBC batch ile eklenir.
+ *
+ * Dayaniklilik modu (studyflow.audit.durability):
+ *  - ASYNC (varsayilan): kuyruk en gec 500 ms icinde bosaltilir.
+ *  - FLUSH_ON_COMMIT: commit eden thread kendi olaylarini hemen yazar (okunan log her zaman guncel).
+ * Kuyruk doldugunda olay atilmaz, ekleyen thread bosaltmayi kendisi yapar.
+ * Veritabanina yazilamayan partiler dosyaya (spool) eklenir ve sonraki calismada tek transaction'da
+ * tekrar denenir (yarim kalan bir deneme cift kayit birakmaz); kapanista kalan olaylar da ayni yolla kaybolmaz.
+ * Okunamayan (yarim yazilmis, bozuk) spool satirlari karantina dosyasina tasinir; spool'un yazilamamasi
+ * kuyrugun bosaltilmasini engellemez.
+ */
+@Component
+public class AuditLogWriter {
+
+    public enum Durability { ASYNC, FLUSH_ON_COMMIT }
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 200;
+    private static final Path SPOOL_FILE = Paths.get("database", "audit-spool.tsv");
+    private static final Path QUARANTINE_FILE = Paths.get("database", "audit-spool.rejected.tsv");
+    private static final int SPOOL_FIELDS = 7;
+    private static final String NULL_FIELD = "\\N";
+    private static final String INSERT_SQL =
+            "INSERT INTO reservation_audit_log (reservation_id, action_type, action_timestamp, user_id, old_status, new_status, details) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private StartupReadiness startupReadiness;
+
+    @Value("${studyflow.audit.durability:ASYNC}")
+    private Durability durability;
+
+    private TransactionTemplate replayTransaction;
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Ayni anda tek bir bosaltici (zamanlayici, dolu kuyruk veya FLUSH_ON_COMMIT)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Spool tekrar denemesi her 500 ms'de bir calisir; hata sadece ilk seferde loglanir
+    private volatile boolean replayFailing;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.replayTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============================================
+    // 1. KAYIT
+    // ============================================
+
+    /**
+     * Olayi kaydeder. Aktif transaction varsa sadece commit olursa kuyruga girer (rollback'te log yazilmaz).
+     */
+    public void record(AuditEvent event) {
+        recordAll(List.of(event));
+    }
+
+    public void recordAll(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(events);
+                }
+            });
+        } else {
+            enqueue(events);
+        }
+    }
+
+    private void enqueue(List<AuditEvent> events) {
+        queue.addAll(events);
+        int size = queued.addAndGet(events.size());
+        if (durability == Durability.FLUSH_ON_COMMIT || size >= QUEUE_CAPACITY) {
+            // afterCommit icinden cagrilir: yazma hatasi commit etmis cagirana tasinmaz, olaylar kuyrukta kalir
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.err.println("[ERROR] Audit log bosaltilamadi: " + e.getMessage());
+            }
+        }
+    }
+
+    // ============================================
+    // 2. YAZMA
+    // ============================================
+
+    @Scheduled(initialDelay = 5_000, fixedDelay = 500)
+    public void scheduledFlush() {
+        // Acilista tablo migration ile olusur; o zamana kadar olaylar kuyrukta bekler
+        if (!startupReadiness.isReady()) {
+            return;
+        }
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Once spool'daki (onceki basarisiz) olaylari, sonra kuyrugu BATCH_SIZE'lik partilerle yazar.
+     * Donus: veritabanina yazilan olay sayisi.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int written = replaySpool();
+            List<AuditEvent> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                batch.clear();
+                AuditEvent event;
+                while (batch.size() < BATCH_SIZE && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    return written;
+                }
+                queued.addAndGet(-batch.size());
+                try {
+                    writeBatch(batch);
+                    written += batch.size();
+                } catch (DataAccessException e) {
+                    System.out.println("[WARN] Audit log yazilamadi, spool'a alindi: " + e.getMostSpecificCause().getMessage());
+                    spool(batch);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatch(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, e) -> {
+            ps.setObject(1, e.reservationId());
+            ps.setString(2, e.actionType());
+            ps.setTimestamp(3, Timestamp.valueOf(e.actionTimestamp()));
+            ps.setObject(4, e.userId());
+            ps.setString(5, e.oldStatus());
+            ps.setString(6, e.newStatus());
+            ps.setString(7, e.details());
+        });
+    }
+
+    // ============================================
+    // 3. SPOOL (kurtarma)
+    // ============================================
+
+    private void spool(List<AuditEvent> batch) {
+        List<String> lines = new ArrayList<>(batch.size());
+        for (AuditEvent e : batch) {
+            lines.add(String.join("\t",
+                    encode(e.reservationId()), encode(e.actionType()), encode(e.actionTimestamp()),
+                    encode(e.userId()), encode(e.oldStatus()), encode(e.newStatus()), encode(e.details())));
+        }
+        try {
+            Files.createDirectories(SPOOL_FILE.getParent());
+            Files.write(SPOOL_FILE, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException io) {
+            // Diske de yazilamiyorsa olaylar bir sonraki denemede tekrar yazilmak uzere kuyruga geri doner
+            System.err.println("[ERROR] Audit spool yazilamadi: " + io.getMessage());
+            queue.addAll(batch);
+            queued.addAndGet(batch.size());
+        }
+    }
+
+    // Tum spool tek transaction'da yazilir: ya hepsi commit olur ve dosya silinir,
+    // ya hicbiri yazilmaz ve dosyaya dokunulmaz (sonraki calismada tekrar denenir).
+    // Hata kuyrugun bosaltilmasini durdurmaz; flush spool'u atlayip kuyruga gecer.
+    private int replaySpool() {
+        if (!Files.exists(SPOOL_FILE)) {
+            return 0;
+        }
+        try {
+            List<AuditEvent> events = readSpool();
+            replayTransaction.executeWithoutResult(status -> {
+                for (int from = 0; from < events.size(); from += BATCH_SIZE) {
+                    writeBatch(events.subList(from, Math.min(from + BATCH_SIZE, events.size())));
+                }
+            });
+            deleteReplayedSpool();
+            replayFailing = false;
+            if (!events.isEmpty()) {
+                System.out.println("[INFO] Audit spool'undan " + events.size() + " kayit geri yuklendi.");
+            }
+            return events.size();
+        } catch (IOException | RuntimeException e) {
+            if (!replayFailing) {
+                replayFailing = true;
+                String message = e instanceof DataAccessException dae ? dae.getMostSpecificCause().getMessage() : e.getMessage();
+                System.out.println("[WARN] Audit spool geri yuklenemedi, tekrar denenecek (" + SPOOL_FILE + "): " + message);
+            }
+            return 0;
+        }
+    }
+
+    // Cozulemeyen satirlar karantina dosyasina eklenir ve spool sadece gecerli satirlarla yeniden yazilir;
+    // boylece tek bir bozuk satir sonraki denemeleri de durdurmaz
+    private List<AuditEvent> readSpool() throws IOException {
+        List<String> lines = Files.readAllLines(SPOOL_FILE, StandardCharsets.UTF_8);
+        List<AuditEvent> events = new ArrayList<>(lines.size());
+        List<String> valid = new ArrayList<>(lines.size());
+        List<String> rejected = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                events.add(decodeLine(line));
+                valid.add(line);
+            } catch (RuntimeException e) {
+                rejected.add(line);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            Files.write(QUARANTINE_FILE, rejected, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Path rewritten = SPOOL_FILE.resolveSibling(SPOOL_FILE.getFileName() + ".tmp");
+            Files.write(rewritten, valid, StandardCharsets.UTF_8);
+            Files.move(rewritten, SPOOL_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.err.println("[ERROR] Audit spool'unda " + rejected.size() + " bozuk satir okunamadi, " +
+                    QUARANTINE_FILE + " dosyasina tasindi.");
+        }
+        return events;
+    }
+
+    // Commit edilmis spool silinemezse bir sonraki calisma ayni kayitlari tekrar yazar; bu durum loglanir
+    private void deleteReplayedSpool() {
+        try {
+            Files.delete(SPOOL_FILE);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Audit spool yazildi fakat silinemedi (" + SPOOL_FILE + "), " +
+                    "elle silinmezse kayitlar tekrar eklenir: " + e.getMessage());
+        }
+    }
+
+    private static AuditEvent decodeLine(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != SPOOL_FIELDS) {
+            throw new IllegalArgumentException("Beklenen " + SPOOL_FIELDS + " alan, bulunan " + f.length);
+        }
+        return new AuditEvent(
+                decodeLong(f[0]), decode(f[1]),
+                LocalDateTime.parse(decode(f[2])),
+                decodeLong(f[3]), decode(f[4]), decode(f[5]), decode(f[6]));
+    }
+
+    private static String encode(Object value) {
+        if (value == null) {
+            return NULL_FIELD;
+        }
+        return value.toString().replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String decode(String field) {
+        if (NULL_FIELD.equals(field)) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static Long decodeLong(String field) {
+        String value = decode(field);
+        return value != null ? Long.valueOf(value) : null;
+    }
+}
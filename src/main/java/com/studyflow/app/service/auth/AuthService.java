@@ -8,6 +8,7 @@ import com.studyflow.app.model.user.User;
 import com.studyflow.app.model.user.UserRole;
 import com.studyflow.app.repository.facility.FacilityRepository;
 import com.studyflow.app.repository.user.UserRepository;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
 import com.studyflow.app.util.PasswordUtil;
 import com.studyflow.app.util.ValidationUtil;
 import com.studyflow.app.util.annotation.RequireAdmin;
@@ -35,6 +36,9 @@ public class AuthService {
     @Autowired
     private FacilityRepository facilityRepository;
 
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
     public void register(String email, String password, String firstName, String lastName) throws ResourceAlreadyExistException{
         User user = User.builder()
                 .userRole(UserRole.USER)
@@ -51,6 +55,7 @@ public class AuthService {
         }
 
         userRepository.saveNewUser(email, passwordUtil.hashPassword(password), firstName, lastName, UserRole.USER.toString());
+        adminDashboardService.invalidate();
     }
 
     @Transactional
@@ -90,6 +95,7 @@ public class AuthService {
         }
         userRepository.updateUserRole(email, UserRole.LIBRARIAN.toString());
         userRepository.insertUserFacility(user.getId(), facilityId);
+        adminDashboardService.invalidate();
     }
 
 
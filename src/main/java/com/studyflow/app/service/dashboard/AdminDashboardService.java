@@ -0,0 +1,134 @@
+package com.studyflow.app.service.dashboard;
+
+import com.studyflow.app.model.dto.DashboardSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admin ana sayfasi icin DashboardSnapshot. Sayilar tek cok-toplamli sorgu ile, tesis kartlari
+ * (aktif rezervasyon + kapasite) tek GROUP BY sorgusu ile hesaplanir ve TTL_MILLIS boyunca paylasilir.
+ * Tesis / kullanici / yerlesim / rezervasyon yazan servisler invalidate() cagirir (commit sonrasi);
+ * bir sonraki acilis tazedir.
+ */
+@Service
+public class AdminDashboardService {
+
+    private static final long TTL_MILLIS = 30_000;
+    private static final int TOP_FACILITY_LIMIT = 4;
+
+    // Her alt sorgu tek bir tabloyu bir kez tarar; kapanmis rezervasyonlar arsivle birlikte sayilir
+    private static final String COUNTS_SQL =
+            "SELECT f.cnt, u.users, u.librarians, s.cnt, b.cnt, d.cnt, r.active_upcoming, r.active_today, r.completed, r.cancelled " +
+            "FROM (SELECT COUNT(*) AS cnt FROM facilities) f " +
+            "CROSS JOIN (SELECT COALESCE(SUM(CASE WHEN user_role = 'USER' THEN 1 ELSE 0 END), 0) AS users, " +
+            "                   COALESCE(SUM(CASE WHEN user_role = 'LIBRARIAN' THEN 1 ELSE 0 END), 0) AS librarians " +
+            "            FROM users) u " +
+            "CROSS JOIN (SELECT COUNT(*) AS cnt FROM seats) s " +
+            "CROSS JOIN (SELECT COUNT(*) AS cnt FROM facility_blocks) b " +
+            "CROSS JOIN (SELECT COUNT(*) AS cnt FROM desks) d " +
+            "CROSS JOIN (SELECT COALESCE(SUM(CASE WHEN status = 'ACTIVE' AND reservation_date >= ? THEN 1 ELSE 0 END), 0) AS active_upcoming, " +
+            "                   COALESCE(SUM(CASE WHEN status = 'ACTIVE' AND reservation_date = ? THEN 1 ELSE 0 END), 0) AS active_today, " +
+            "                   COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END), 0) AS completed, " +
+            "                   COALESCE(SUM(CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END), 0) AS cancelled " +
+            "            FROM vw_reservations_all) r";
+
+    private static final String TOP_FACILITIES_SQL =
+            "SELECT f.id, f.name, f.address, f.image_url, " +
+            "COALESCE(r.reservation_count, 0) AS reservation_count, COALESCE(sc.seat_count, 0) AS seat_count " +
+            "FROM facilities f " +
+            "LEFT JOIN (SELECT facility_id, COUNT(*) AS reservation_count FROM reservations " +
+            "           WHERE reservation_date = ? AND status = 'ACTIVE' GROUP BY facility_id) r ON r.facility_id = f.id " +
+            "LEFT JOIN (SELECT fb.facility_id, COUNT(s.id) AS seat_count FROM seats s " +
+            "           JOIN desks d ON s.desk_id = d.id " +
+            "           JOIN facility_blocks fb ON d.facility_block_id = fb.id " +
+            "           GROUP BY fb.facility_id) sc ON sc.facility_id = f.id " +
+            "ORDER BY reservation_count DESC, f.name ASC " +
+            "LIMIT " + TOP_FACILITY_LIMIT;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile DashboardSnapshot cached;
+    private volatile long cachedAt;
+    // Hesaplama sirasinda gelen invalidate, eski sonucun yayinlanmasini engeller
+    private volatile long generation;
+
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot snapshot = cached;
+        if (snapshot != null && System.currentTimeMillis() - cachedAt < TTL_MILLIS) {
+            return snapshot;
+        }
+        return refresh();
+    }
+
+    // Ayni anda acilan ekranlar tek hesaplamayi paylasir
+    private synchronized DashboardSnapshot refresh() {
+        DashboardSnapshot snapshot = cached;
+        if (snapshot != null && System.currentTimeMillis() - cachedAt < TTL_MILLIS) {
+            return snapshot;
+        }
+        long startGeneration = generation;
+        snapshot = load();
+        if (startGeneration == generation) {
+            cached = snapshot;
+            cachedAt = System.currentTimeMillis();
+        }
+        return snapshot;
+    }
+
+    public void invalidate() {
+        afterCommit(() -> {
+            generation++;
+            cached = null;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private DashboardSnapshot load() {
+        LocalDate today = LocalDate.now();
+        DashboardSnapshot snapshot = jdbcTemplate.queryForObject(COUNTS_SQL, (rs, rowNum) -> DashboardSnapshot.builder()
+                .totalFacilities(rs.getInt(1))
+                .totalUsers(rs.getInt(2))
+                .totalLibrarians(rs.getInt(3))
+                .totalSeats(rs.getInt(4))
+                .totalBlocks(rs.getInt(5))
+                .totalDesks(rs.getInt(6))
+                .activeReservations(rs.getInt(7))
+                .todayReservations(rs.getInt(8))
+                .completedReservations(rs.getInt(9))
+                .cancelledReservations(rs.getInt(10))
+                .build(), today, today);
+
+        List<DashboardSnapshot.FacilityCard> top = jdbcTemplate.query(TOP_FACILITIES_SQL, (rs, rowNum) ->
+                new DashboardSnapshot.FacilityCard(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        rs.getString("address"),
+                        rs.getString("image_url"),
+                        rs.getInt("reservation_count"),
+                        rs.getInt("seat_count")), today);
+
+        snapshot.setTopFacilities(top);
+        snapshot.setComputedAt(LocalDateTime.now());
+        return snapshot;
+    }
+}
@@ -0,0 +1,97 @@
+package com.studyflow.app.service.dashboard;
+
+import com.studyflow.app.model.dto.LibrarianDashboard;
+import com.studyflow.app.service.facility.FacilityTopology;
+import com.studyflow.app.service.facility.FacilityTopologyCache;
+import com.studyflow.app.service.reservation.SeatOccupancyIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Kutuphaneci ana sayfasi:
+ *  - blok / masa / koltuk sayilari FacilityTopologyCache'den,
+ *  - haftalik seri, bugun ve hafta toplamlari tek GROUP BY sorgusundan,
+ *  - "su an dolu" ve "onumuzdeki saat dolu" koltuklar SeatOccupancyIndex'in gunluk bitmap'inden.
+ * Ekran dakikada bir sadece getOccupancy cagirir; bitmap kendi suresi dolunca tek sorgu ile yenilenir.
+ */
+@Service
+public class LibrarianDashboardService {
+
+    private static final String WEEKLY_SQL =
+            "SELECT reservation_date, " +
+            "SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END) AS active_count, " +
+            "COUNT(*) AS total_count " +
+            "FROM reservations " +
+            "WHERE facility_id = ? AND reservation_date BETWEEN ? AND ? AND status IN ('ACTIVE', 'COMPLETED') " +
+            "GROUP BY reservation_date";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FacilityTopologyCache facilityTopologyCache;
+    @Autowired private SeatOccupancyIndex seatOccupancyIndex;
+
+    public LibrarianDashboard getDashboard(Long facilityId) {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+
+        String facilityName = jdbcTemplate.queryForObject(
+                "SELECT name FROM facilities WHERE id = ?", String.class, facilityId);
+        FacilityTopology topology = facilityTopologyCache.get(facilityId);
+
+        int[] weeklyCounts = new int[7];
+        int[] todayAndWeek = new int[2];
+        jdbcTemplate.query(WEEKLY_SQL, rs -> {
+            LocalDate date = rs.getObject("reservation_date", LocalDate.class);
+            int active = rs.getInt("active_count");
+            weeklyCounts[(int) ChronoUnit.DAYS.between(weekStart, date)] = rs.getInt("total_count");
+            todayAndWeek[1] += active;
+            if (date.equals(today)) {
+                todayAndWeek[0] = active;
+            }
+        }, facilityId, Date.valueOf(weekStart), Date.valueOf(weekStart.plusDays(6)));
+
+        return LibrarianDashboard.builder()
+                .facilityId(facilityId)
+                .facilityName(facilityName)
+                .totalBlocks(topology.getBlockCount())
+                .totalDesks(topology.getDeskCount())
+                .totalSeats(topology.getSeatCount())
+                .todayReservations(todayAndWeek[0])
+                .weekReservations(todayAndWeek[1])
+                .weekStart(weekStart)
+                .weeklyCounts(weeklyCounts)
+                .occupancy(getOccupancy(facilityId))
+                .build();
+    }
+
+    /**
+     * Anlik doluluk. Veritabanina gitmez (bitmap bayatsa SeatOccupancyIndex tek sorgu ile kurar).
+     */
+    public LibrarianDashboard.Occupancy getOccupancy(Long facilityId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalTime start = now.toLocalTime().truncatedTo(ChronoUnit.MINUTES);
+
+        int totalSeats = facilityTopologyCache.get(facilityId).getSeatCount();
+        int freeNow = seatOccupancyIndex.countFreeSeats(facilityId, today, start, endOfWindow(start, 1));
+        int freeNextHour = seatOccupancyIndex.countFreeSeats(facilityId, today, start, endOfWindow(start, 60));
+
+        // Topoloji ve bitmap farkli anlarda kurulmus olabilir
+        int occupiedNow = Math.max(0, totalSeats - freeNow);
+        int occupiedNextHour = Math.max(0, totalSeats - freeNextHour);
+        return new LibrarianDashboard.Occupancy(totalSeats, occupiedNow, occupiedNextHour, now);
+    }
+
+    // Pencere gece yarisini gecmesin: 00:00 bitis gun sonu (24:00) sayilir
+    private static LocalTime endOfWindow(LocalTime start, int minutes) {
+        LocalTime end = start.plusMinutes(minutes);
+        return end.isAfter(start) ? end : LocalTime.MIDNIGHT;
+    }
+}
@@ -0,0 +1,212 @@
+package com.studyflow.app.service.facility;
+
+import com.studyflow.app.model.dto.LayoutChangeSet;
+import com.studyflow.app.model.facility.Desk;
+import com.studyflow.app.model.facility.FacilityBlock;
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
+import com.studyflow.app.util.annotation.RequireLibrarian;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Kutuphaneci editorlerinin (blok / masa / koltuk) kaydetme islemi.
+ * Sadece degisen elemanlar (LayoutChangeSet) tek transaction'da, ifade turu basina tek JDBC batch ile yazilir:
+ * DELETE, UPDATE ve INSERT. Eklenen satirlarin uretilen ID'leri nesnelere geri yazilir; editor tuvali
+ * tablodan yeniden okumadan guncel kalir. Kayittan sonra tesisin yerlesim goruntusu gecersizlesir.
+ */
+@Component
+public class FacilityLayoutService {
+
+    private static final String DELETE_BLOCK = "DELETE FROM facility_blocks WHERE id = ?";
+    private static final String UPDATE_BLOCK =
+            "UPDATE facility_blocks SET name = ?, pos_x = ?, pos_y = ?, width = ?, height = ?, color_hex = ? WHERE id = ?";
+    private static final String INSERT_BLOCK =
+            "INSERT INTO facility_blocks (name, pos_x, pos_y, width, height, color_hex, current_id_index, facility_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_DESK = "DELETE FROM desks WHERE id = ?";
+    private static final String UPDATE_DESK =
+            "UPDATE desks SET size = ?, pos_x = ?, pos_y = ?, width = ?, height = ?, color_hex = ? WHERE id = ?";
+    private static final String INSERT_DESK =
+            "INSERT INTO desks (size, id_range, current_id_index, pos_x, pos_y, width, height, color_hex, facility_block_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BLOCK_INDEX = "UPDATE facility_blocks SET current_id_index = ? WHERE id = ?";
+
+    private static final String DELETE_SEAT = "DELETE FROM seats WHERE id = ?";
+    private static final String UPDATE_SEAT = "UPDATE seats SET seat_number = ?, rel_x = ?, rel_y = ? WHERE id = ?";
+    private static final String INSERT_SEAT = "INSERT INTO seats (desk_id, seat_number, rel_x, rel_y) VALUES (?, ?, ?, ?)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private FacilityTopologyCache facilityTopologyCache;
+    @Autowired private AdminDashboardService adminDashboardService;
+
+    private TransactionTemplate layoutTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.layoutTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============================================
+    // 1. KAYDETME
+    // ============================================
+
+    @RequireLibrarian
+    public void saveBlocks(Long facilityId, LayoutChangeSet<FacilityBlock> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        layoutTransaction.executeWithoutResult(status -> {
+            deleteAll(DELETE_BLOCK, changes.getRemovedIds());
+            batch(UPDATE_BLOCK, changes.getModified(), (ps, b) -> {
+                setBlockFields(ps, b);
+                setLong(ps, 7, b.getId());
+            });
+            insertAll(INSERT_BLOCK, changes.getAdded(), (ps, b) -> {
+                setBlockFields(ps, b);
+                ps.setInt(7, b.getCurrentIdIndex() != null ? b.getCurrentIdIndex() : 0);
+                setLong(ps, 8, facilityId);
+            }, FacilityBlock::setId);
+        });
+        facilityTopologyCache.invalidate(facilityId);
+        adminDashboardService.invalidate();
+    }
+
+    /**
+     * Masalar ve blogun ID sayaci (current_id_index) ayni transaction'da yazilir.
+     */
+    @RequireLibrarian
+    public void saveDesks(Long facilityId, Long blockId, LayoutChangeSet<Desk> changes, Integer blockCurrentIdIndex) {
+        layoutTransaction.executeWithoutResult(status -> {
+            deleteAll(DELETE_DESK, changes.getRemovedIds());
+            batch(UPDATE_DESK, changes.getModified(), (ps, d) -> {
+                ps.setObject(1, d.getSize());
+                setGeometry(ps, 2, d.getX(), d.getY(), d.getWidth(), d.getHeight());
+                ps.setString(6, d.getColorHex());
+                setLong(ps, 7, d.getId());
+            });
+            insertAll(INSERT_DESK, changes.getAdded(), (ps, d) -> {
+                ps.setObject(1, d.getSize());
+                ps.setString(2, d.getIdRange());
+                ps.setInt(3, d.getCurrentIdIndex() != null ? d.getCurrentIdIndex() : 0);
+                setGeometry(ps, 4, d.getX(), d.getY(), d.getWidth(), d.getHeight());
+                ps.setString(8, d.getColorHex());
+                setLong(ps, 9, blockId);
+            }, Desk::setId);
+            jdbcTemplate.update(UPDATE_BLOCK_INDEX, blockCurrentIdIndex, blockId);
+        });
+        facilityTopologyCache.invalidate(facilityId);
+        adminDashboardService.invalidate();
+    }
+
+    @RequireLibrarian
+    public void saveSeats(Long facilityId, Long deskId, LayoutChangeSet<Seat> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        layoutTransaction.executeWithoutResult(status -> {
+            deleteAll(DELETE_SEAT, changes.getRemovedIds());
+            batch(UPDATE_SEAT, changes.getModified(), (ps, s) -> {
+                setSeatFields(ps, 1, s);
+                setLong(ps, 4, s.getId());
+            });
+            insertAll(INSERT_SEAT, changes.getAdded(), (ps, s) -> {
+                setLong(ps, 1, deskId);
+                setSeatFields(ps, 2, s);
+            }, Seat::setId);
+        });
+        facilityTopologyCache.invalidate(facilityId);
+        adminDashboardService.invalidate();
+    }
+
+    // ============================================
+    // 2. BATCH YARDIMCILARI
+    // ============================================
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    private void deleteAll(String sql, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{id});
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    private <T> void batch(String sql, List<T> items, RowBinder<T> binder) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, items, items.size(), binder::bind);
+    }
+
+    // Tek batch INSERT; uretilen ID'ler ekleme sirasiyla nesnelere yazilir
+    private <T> void insertAll(String sql, List<T> items, RowBinder<T> binder, BiConsumer<T, Long> idSetter) {
+        if (items.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        binder.bind(ps, items.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < items.size() && i < keyList.size(); i++) {
+            Object key = keyList.get(i).values().iterator().next();
+            idSetter.accept(items.get(i), ((Number) key).longValue());
+        }
+    }
+
+    private static void setBlockFields(PreparedStatement ps, FacilityBlock b) throws SQLException {
+        ps.setString(1, b.getName());
+        setGeometry(ps, 2, b.getX(), b.getY(), b.getWidth(), b.getHeight());
+        ps.setString(6, b.getColorHex());
+    }
+
+    private static void setSeatFields(PreparedStatement ps, int from, Seat s) throws SQLException {
+        ps.setObject(from, s.getSeatNumber());
+        ps.setObject(from + 1, s.getRelX());
+        ps.setObject(from + 2, s.getRelY());
+    }
+
+    private static void setGeometry(PreparedStatement ps, int from, double x, double y, double w, double h) throws SQLException {
+        ps.setDouble(from, x);
+        ps.setDouble(from + 1, y);
+        ps.setDouble(from + 2, w);
+        ps.setDouble(from + 3, h);
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        ps.setObject(index, value);
+    }
+}
@@ -1,12 +1,14 @@
 package com.studyflow.app.service.facility;
 
 import com.studyflow.app.exception.ArgumentNotValidException;
+import com.studyflow.app.model.dto.FacilitySearchPage;
 import com.studyflow.app.model.facility.DailySchedule;
 import com.studyflow.app.model.facility.Facility;
 import com.studyflow.app.model.user.User;
 import com.studyflow.app.repository.facility.FacilityRepository;
 import com.studyflow.app.repository.facility.WeeklyCalendarRepository;
 import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
 import com.studyflow.app.util.annotation.RequireAdmin;
 import com.studyflow.app.util.annotation.RequireLibrarian;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,9 +17,14 @@ import org.springframework.stereotype.Component;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
 
 @Component
 public class FacilityService {
+    private static final int SEARCH_PAGE_SIZE = 12;
+    // Trigram indeksi 3 karakterden kisa aramalarda kullanilamaz
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
     @Autowired
     private FacilityRepository facilityRepository;
 
@@ -27,6 +34,9 @@ public class FacilityService {
     @Autowired
     private UserSessionContext userSessionContext;
 
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
     @RequireAdmin
     public void createFacility(String name, String address, String imageUrl){
         if (name == null || address == null || imageUrl == null){
@@ -36,6 +46,7 @@ public class FacilityService {
         facilityRepository.saveNewFacility(name, address, imageUrl);
         Long facilityId = facilityRepository.getFacilityByImageUrl(imageUrl).getId();
         weeklyCalendarRepository.saveNewWeeklyCalendar(facilityId);
+        adminDashboardService.invalidate();
     }
 
     @RequireLibrarian
@@ -56,16 +67,44 @@ public class FacilityService {
         weeklyCalendarRepository.addNewDailySchedule(calendarId, dayOfWeek.toString(), openTime, closeTime, isClosed);
     }
 
-    public List<Facility> getAllFacilities(String order){
-        List<Facility> facilities;
-        if (order.equalsIgnoreCase("asc")){
-            facilities = facilityRepository.getAllFacilitiesByOrder("ASC");
-        } else if (order.equalsIgnoreCase("desc")){
-            facilities = facilityRepository.getAllFacilitiesByOrder("DESC");
-        } else {
-            facilities = null;
+    /**
+     * Sayfali tesis arama. sort: "asc" / "desc" (isme gore), page 0'dan baslar.
+     * Bos arama tum tesisleri dondurur; 3 karakterden kisa aramalar isim/adres basina gore eslesir.
+     */
+    public FacilitySearchPage searchFacilities(String query, String sort, int page){
+        int safePage = Math.max(0, page);
+        String pattern = toSearchPattern(query);
+        int offset = safePage * SEARCH_PAGE_SIZE;
+
+        List<Object[]> rows = "desc".equalsIgnoreCase(sort)
+                ? facilityRepository.searchFacilitiesByNameDesc(pattern, SEARCH_PAGE_SIZE, offset)
+                : facilityRepository.searchFacilitiesByNameAsc(pattern, SEARCH_PAGE_SIZE, offset);
+
+        FacilitySearchPage result = new FacilitySearchPage();
+        result.setPage(safePage);
+        result.setPageSize(SEARCH_PAGE_SIZE);
+        for (Object[] row : rows) {
+            result.setTotalCount(((Number) row[4]).longValue());
+            result.getItems().add(new FacilitySearchPage.Item(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    (String) row[2],
+                    (String) row[3],
+                    ((Number) row[5]).intValue(),
+                    ((Number) row[6]).intValue(),
+                    ((Number) row[7]).intValue()));
+        }
+        return result;
+    }
+
+    // LIKE joker karakterleri (% _ \) kacirilir; kisa aramalar prefix, digerleri substring eslesmesi
+    private static String toSearchPattern(String query){
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return "%";
         }
-        return facilities;
+        String escaped = q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return q.length() < MIN_SUBSTRING_LENGTH ? escaped + "%" : "%" + escaped + "%";
     }
 
     public Facility getFacility(Long facilityId){
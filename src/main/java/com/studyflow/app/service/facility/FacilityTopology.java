@@ -0,0 +1,375 @@
+package com.studyflow.app.service.facility;
+
+import com.studyflow.app.model.facility.Desk;
+import com.studyflow.app.model.facility.FacilityBlock;
+import com.studyflow.app.model.facility.Seat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bir tesisin degismez yerlesim goruntusu (blok -> masa -> koltuk).
+ * Entity listesi yerine paralel primitive diziler tutulur: masalar bloklarina, koltuklar masalarina gore
+ * sirali ve bitisiktir; blockDeskStart / deskSeatStart ofsetleri alt elemanlarin araligini verir.
+ * Koltuk ID -> masa indeksi -> blok indeksi eslemesi ikili arama ile yapilir.
+ *
+ * Disariya verilen Block/Desk/Seat nesneleri her cagrida yeniden uretilir (detached kopyalar);
+ * ekranlar bunlari degistirse de goruntu etkilenmez.
+ */
+public final class FacilityTopology {
+
+    private final Long facilityId;
+    private final long builtAt = System.currentTimeMillis();
+
+    // Bloklar
+    private final long[] blockIds;
+    private final String[] blockNames;
+    private final String[] blockColors;
+    private final int[] blockCurrentIdIndex;
+    private final double[] blockGeometry;     // x, y, width, height
+    private final int[] blockDeskStart;       // length = blocks + 1
+
+    // Masalar (bloga gore sirali)
+    private final long[] deskIds;
+    private final int[] deskBlockIndex;
+    private final int[] deskSize;
+    private final String[] deskIdRanges;
+    private final int[] deskCurrentIdIndex;
+    private final String[] deskColors;
+    private final double[] deskGeometry;      // x, y, width, height
+    private final int[] deskSeatStart;        // length = desks + 1
+
+    // Koltuklar (masaya, sonra seat_number'a gore sirali)
+    private final long[] seatIds;
+    private final int[] seatDeskIndex;
+    private final int[] seatNumbers;
+    private final double[] seatPositions;     // relX, relY (NaN = bos)
+
+    // ID -> indeks aramalari icin sirali ID'ler ve karsilik gelen indeksler
+    private final long[] sortedDeskIds;
+    private final int[] deskIndexBySorted;
+    private final long[] sortedSeatIds;
+    private final int[] seatIndexBySorted;
+
+    private FacilityTopology(Long facilityId, Builder b) {
+        this.facilityId = facilityId;
+        blockIds = b.blockIds.toArray();
+        blockNames = b.blockNames.toArray(new String[0]);
+        blockColors = b.blockColors.toArray(new String[0]);
+        blockCurrentIdIndex = b.blockCurrentIdIndex.toArray();
+        blockGeometry = b.blockGeometry.toArray();
+        blockDeskStart = b.blockDeskStart.toArray();
+
+        deskIds = b.deskIds.toArray();
+        deskBlockIndex = b.deskBlockIndex.toArray();
+        deskSize = b.deskSize.toArray();
+        deskIdRanges = b.deskIdRanges.toArray(new String[0]);
+        deskCurrentIdIndex = b.deskCurrentIdIndex.toArray();
+        deskColors = b.deskColors.toArray(new String[0]);
+        deskGeometry = b.deskGeometry.toArray();
+        deskSeatStart = b.deskSeatStart.toArray();
+
+        seatIds = b.seatIds.toArray();
+        seatDeskIndex = b.seatDeskIndex.toArray();
+        seatNumbers = b.seatNumbers.toArray();
+        seatPositions = b.seatPositions.toArray();
+
+        deskIndexBySorted = sortedIndexes(deskIds);
+        sortedDeskIds = permute(deskIds, deskIndexBySorted);
+        seatIndexBySorted = sortedIndexes(seatIds);
+        sortedSeatIds = permute(seatIds, seatIndexBySorted);
+    }
+
+    // ============================================
+    // 1. KURULUM (FacilityBlockRepository.findTopologyRows)
+    // ============================================
+
+    /**
+     * Satir sirasi: b.id, d.id, s.seat_number (sorgu ORDER BY'i). Bos blok/masa icin d.* / s.* NULL gelir.
+     */
+    static FacilityTopology fromRows(Long facilityId, List<Object[]> rows) {
+        Builder b = new Builder();
+        long lastBlock = Long.MIN_VALUE;
+        long lastDesk = Long.MIN_VALUE;
+        for (Object[] row : rows) {
+            long blockId = ((Number) row[0]).longValue();
+            if (blockId != lastBlock) {
+                b.blockDeskStart.add(b.deskIds.size());
+                b.blockIds.add(blockId);
+                b.blockNames.add((String) row[1]);
+                b.blockGeometry.add(toDouble(row[2]), toDouble(row[3]), toDouble(row[4]), toDouble(row[5]));
+                b.blockColors.add((String) row[6]);
+                b.blockCurrentIdIndex.add(toInt(row[7]));
+                lastBlock = blockId;
+                lastDesk = Long.MIN_VALUE;
+            }
+            if (row[8] == null) {
+                continue;
+            }
+            long deskId = ((Number) row[8]).longValue();
+            if (deskId != lastDesk) {
+                b.deskSeatStart.add(b.seatIds.size());
+                b.deskIds.add(deskId);
+                b.deskBlockIndex.add(b.blockIds.size() - 1);
+                b.deskSize.add(toInt(row[9]));
+                b.deskIdRanges.add((String) row[10]);
+                b.deskCurrentIdIndex.add(toInt(row[11]));
+                b.deskGeometry.add(toDouble(row[12]), toDouble(row[13]), toDouble(row[14]), toDouble(row[15]));
+                b.deskColors.add((String) row[16]);
+                lastDesk = deskId;
+            }
+            if (row[17] == null) {
+                continue;
+            }
+            b.seatIds.add(((Number) row[17]).longValue());
+            b.seatDeskIndex.add(b.deskIds.size() - 1);
+            b.seatNumbers.add(toInt(row[18]));
+            b.seatPositions.add(row[19] != null ? toDouble(row[19]) : Double.NaN,
+                    row[20] != null ? toDouble(row[20]) : Double.NaN);
+        }
+        b.blockDeskStart.add(b.deskIds.size());
+        b.deskSeatStart.add(b.seatIds.size());
+        return new FacilityTopology(facilityId, b);
+    }
+
+    // ============================================
+    // 2. OKUMA
+    // ============================================
+
+    public Long getFacilityId() {
+        return facilityId;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    public int getBlockCount() {
+        return blockIds.length;
+    }
+
+    public int getDeskCount() {
+        return deskIds.length;
+    }
+
+    public int getSeatCount() {
+        return seatIds.length;
+    }
+
+    public List<FacilityBlock> getBlocks() {
+        List<FacilityBlock> blocks = new ArrayList<>(blockIds.length);
+        for (int i = 0; i < blockIds.length; i++) {
+            blocks.add(toBlock(i));
+        }
+        return blocks;
+    }
+
+    /**
+     * Blogun masalari; blok bu tesiste yoksa bos liste.
+     */
+    public List<Desk> getDesksOfBlock(Long blockId) {
+        int blockIndex = blockIndexOf(blockId);
+        if (blockIndex < 0) {
+            return new ArrayList<>();
+        }
+        FacilityBlock block = toBlock(blockIndex);
+        List<Desk> desks = new ArrayList<>(blockDeskStart[blockIndex + 1] - blockDeskStart[blockIndex]);
+        for (int i = blockDeskStart[blockIndex]; i < blockDeskStart[blockIndex + 1]; i++) {
+            desks.add(toDesk(i, block));
+        }
+        return desks;
+    }
+
+    /**
+     * Masanin koltuklari (seat_number sirasinda); masa bu tesiste yoksa bos liste.
+     */
+    public List<Seat> getSeatsOfDesk(Long deskId) {
+        int deskIndex = deskIndexOf(deskId);
+        if (deskIndex < 0) {
+            return new ArrayList<>();
+        }
+        Desk desk = toDesk(deskIndex, toBlock(deskBlockIndex[deskIndex]));
+        List<Seat> seats = new ArrayList<>(deskSeatStart[deskIndex + 1] - deskSeatStart[deskIndex]);
+        for (int i = deskSeatStart[deskIndex]; i < deskSeatStart[deskIndex + 1]; i++) {
+            seats.add(toSeat(i, desk));
+        }
+        return seats;
+    }
+
+    public boolean containsDesk(Long deskId) {
+        return deskIndexOf(deskId) >= 0;
+    }
+
+    /**
+     * Koltugun masa ID'si; koltuk bu tesiste yoksa null.
+     */
+    public Long getDeskIdOfSeat(long seatId) {
+        int seatIndex = seatIndexOf(seatId);
+        return seatIndex < 0 ? null : deskIds[seatDeskIndex[seatIndex]];
+    }
+
+    public Long getBlockIdOfSeat(long seatId) {
+        int seatIndex = seatIndexOf(seatId);
+        return seatIndex < 0 ? null : blockIds[deskBlockIndex[seatDeskIndex[seatIndex]]];
+    }
+
+    // ============================================
+    // 3. YARDIMCILAR
+    // ============================================
+
+    private int blockIndexOf(Long blockId) {
+        if (blockId == null) {
+            return -1;
+        }
+        // Bloklar id sirasinda (ORDER BY b.id)
+        int idx = Arrays.binarySearch(blockIds, blockId);
+        return idx >= 0 ? idx : -1;
+    }
+
+    private int deskIndexOf(Long deskId) {
+        if (deskId == null) {
+            return -1;
+        }
+        int idx = Arrays.binarySearch(sortedDeskIds, deskId);
+        return idx >= 0 ? deskIndexBySorted[idx] : -1;
+    }
+
+    private int seatIndexOf(long seatId) {
+        int idx = Arrays.binarySearch(sortedSeatIds, seatId);
+        return idx >= 0 ? seatIndexBySorted[idx] : -1;
+    }
+
+    private FacilityBlock toBlock(int i) {
+        return FacilityBlock.builder()
+                .id(blockIds[i])
+                .name(blockNames[i])
+                .x(blockGeometry[i * 4]).y(blockGeometry[i * 4 + 1])
+                .width(blockGeometry[i * 4 + 2]).height(blockGeometry[i * 4 + 3])
+                .colorHex(blockColors[i])
+                .currentIdIndex(blockCurrentIdIndex[i])
+                .build();
+    }
+
+    private Desk toDesk(int i, FacilityBlock block) {
+        return Desk.builder()
+                .id(deskIds[i])
+                .size(deskSize[i])
+                .idRange(deskIdRanges[i])
+                .currentIdIndex(deskCurrentIdIndex[i])
+                .x(deskGeometry[i * 4]).y(deskGeometry[i * 4 + 1])
+                .width(deskGeometry[i * 4 + 2]).height(deskGeometry[i * 4 + 3])
+                .colorHex(deskColors[i])
+                .facilityBlock(block)
+                .build();
+    }
+
+    private Seat toSeat(int i, Desk desk) {
+        double relX = seatPositions[i * 2];
+        double relY = seatPositions[i * 2 + 1];
+        return Seat.builder()
+                .id(seatIds[i])
+                .seatNumber(seatNumbers[i])
+                .relX(Double.isNaN(relX) ? null : relX)
+                .relY(Double.isNaN(relY) ? null : relY)
+                .desk(desk)
+                .build();
+    }
+
+    private static int[] sortedIndexes(long[] ids) {
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, c) -> Long.compare(ids[a], ids[c]));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long[] permute(long[] ids, int[] order) {
+        long[] result = new long[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = ids[order[i]];
+        }
+        return result;
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    // Kurulum sirasinda buyuyen gecici diziler
+    private static final class Builder {
+        final LongList blockIds = new LongList();
+        final List<String> blockNames = new ArrayList<>();
+        final List<String> blockColors = new ArrayList<>();
+        final IntList blockCurrentIdIndex = new IntList();
+        final DoubleList blockGeometry = new DoubleList();
+        final IntList blockDeskStart = new IntList();
+
+        final LongList deskIds = new LongList();
+        final IntList deskBlockIndex = new IntList();
+        final IntList deskSize = new IntList();
+        final List<String> deskIdRanges = new ArrayList<>();
+        final IntList deskCurrentIdIndex = new IntList();
+        final List<String> deskColors = new ArrayList<>();
+        final DoubleList deskGeometry = new DoubleList();
+        final IntList deskSeatStart = new IntList();
+
+        final LongList seatIds = new LongList();
+        final IntList seatDeskIndex = new IntList();
+        final IntList seatNumbers = new IntList();
+        final DoubleList seatPositions = new DoubleList();
+    }
+
+    private static final class LongList {
+        long[] values = new long[16];
+        int size;
+
+        void add(long v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class DoubleList {
+        double[] values = new double[32];
+        int size;
+
+        void add(double... vs) {
+            for (double v : vs) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = v;
+            }
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
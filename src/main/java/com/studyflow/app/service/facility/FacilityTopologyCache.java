@@ -0,0 +1,93 @@
+package com.studyflow.app.service.facility;
+
+import com.studyflow.app.model.facility.Desk;
+import com.studyflow.app.model.facility.FacilityBlock;
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.repository.facility.FacilityBlockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tesis yerlesimlerinin (FacilityTopology) onbellegi. Rezervasyon sihirbazi, kutuphaneci editorleri ve
+ * panolar blok/masa/koltuk listesini buradan okur; tesis basina tek sorgu ile kurulur.
+ *
+ * Copy-on-write: okuyucular kilitsiz olarak volatile haritayi okur; yeni goruntu veya gecersizlestirme
+ * haritanin kopyasini yayinlar. Yerlesim sadece editorlerin kaydet aksiyonuyla degisir; editorler
+ * kaydettikten sonra invalidate(facilityId) cagirir.
+ */
+@Component
+public class FacilityTopologyCache {
+
+    @Autowired
+    private FacilityBlockRepository blockRepository;
+
+    private volatile Map<Long, FacilityTopology> snapshots = Map.of();
+    // Her gecersizlestirmede artar; kaydetmeden once okunmus eski yerlesim yayinlanmaz
+    private volatile long generation;
+
+    // ============================================
+    // 1. OKUMA
+    // ============================================
+
+    public FacilityTopology get(Long facilityId) {
+        FacilityTopology topology = snapshots.get(facilityId);
+        if (topology == null) {
+            topology = load(facilityId);
+        }
+        return topology;
+    }
+
+    public List<FacilityBlock> getBlocks(Long facilityId) {
+        return get(facilityId).getBlocks();
+    }
+
+    public List<Desk> getDesks(Long facilityId, Long blockId) {
+        return get(facilityId).getDesksOfBlock(blockId);
+    }
+
+    public List<Seat> getSeats(Long facilityId, Long deskId) {
+        return get(facilityId).getSeatsOfDesk(deskId);
+    }
+
+    // ============================================
+    // 2. YAYINLAMA / GECERSIZLESTIRME
+    // ============================================
+
+    // Ayni anda iki okuyucu ayni tesisi kurabilir; sonuc ayni oldugu icin sorun degil, yayinlama tek noktadan
+    private FacilityTopology load(Long facilityId) {
+        long startGeneration = generation;
+        FacilityTopology topology = FacilityTopology.fromRows(facilityId, blockRepository.findTopologyRows(facilityId));
+        synchronized (this) {
+            FacilityTopology current = snapshots.get(facilityId);
+            if (current != null) {
+                return current;
+            }
+            if (generation != startGeneration) {
+                return topology;
+            }
+            Map<Long, FacilityTopology> next = new HashMap<>(snapshots);
+            next.put(facilityId, topology);
+            snapshots = Map.copyOf(next);
+        }
+        return topology;
+    }
+
+    public synchronized void invalidate(Long facilityId) {
+        generation++;
+        if (facilityId == null || !snapshots.containsKey(facilityId)) {
+            return;
+        }
+        Map<Long, FacilityTopology> next = new HashMap<>(snapshots);
+        next.remove(facilityId);
+        snapshots = Map.copyOf(next);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        snapshots = Map.of();
+    }
+}
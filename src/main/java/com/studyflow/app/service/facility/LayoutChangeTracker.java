@@ -0,0 +1,68 @@
+package com.studyflow.app.service.facility;
+
+import com.studyflow.app.model.dto.LayoutChangeSet;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Editor tuvalindeki elemanlarin yuklendigi / son kaydedildigi andaki halini tutar ve
+ * kaydetme aninda farki LayoutChangeSet olarak cikarir:
+ *  - ID'si olmayanlar eklenmis,
+ *  - kayitli hali farkli olanlar degismis,
+ *  - baslangicta olup artik tuvalde olmayanlar silinmis sayilir.
+ * Boylece undo ile eski haline donen eleman da degismemis sayilir.
+ */
+public class LayoutChangeTracker<T> {
+
+    private final Function<T, Long> idOf;
+    // Karsilastirilan alanlar (konum, boyut, renk ...)
+    private final Function<T, List<Object>> stateOf;
+    private final Map<Long, List<Object>> baseline = new HashMap<>();
+
+    public LayoutChangeTracker(Function<T, Long> idOf, Function<T, List<Object>> stateOf) {
+        this.idOf = idOf;
+        this.stateOf = stateOf;
+    }
+
+    /**
+     * Yukleme veya basarili kayittan sonra cagrilir; verilen elemanlar yeni referans olur.
+     */
+    public void reset(Collection<T> items) {
+        baseline.clear();
+        for (T item : items) {
+            Long id = idOf.apply(item);
+            if (id != null) {
+                baseline.put(id, stateOf.apply(item));
+            }
+        }
+    }
+
+    public LayoutChangeSet<T> changes(Collection<T> current) {
+        LayoutChangeSet<T> changes = new LayoutChangeSet<>();
+        Set<Long> seen = new HashSet<>();
+        for (T item : current) {
+            Long id = idOf.apply(item);
+            if (id == null) {
+                changes.getAdded().add(item);
+                continue;
+            }
+            seen.add(id);
+            if (!Objects.equals(baseline.get(id), stateOf.apply(item))) {
+                changes.getModified().add(item);
+            }
+        }
+        for (Long id : baseline.keySet()) {
+            if (!seen.contains(id)) {
+                changes.getRemovedIds().add(id);
+            }
+        }
+        return changes;
+    }
+}
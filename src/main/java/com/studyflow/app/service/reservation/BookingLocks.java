@@ -0,0 +1,54 @@
+package com.studyflow.app.service.reservation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Rezervasyon yazimlari icin seritli (striped) kilitler.
+ * Ayni koltuk veya ayni kullanici icin yapilan istekler bu JVM icinde sirayla calisir;
+ * farkli koltuklar farkli seritlere dustugu surece paralel ilerler.
+ * Baska istemcilere karsi koruma transaction icindeki SELECT ... FOR UPDATE satir kilitleridir.
+ */
+@Component
+public class BookingLocks {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] seatStripes = newStripes();
+    private final ReentrantLock[] userStripes = newStripes();
+
+    /**
+     * Kilit sirasi her zaman koltuk -> kullanici; iki istek birbirini beklemede tutamaz.
+     */
+    public <T> T withSeatAndUser(Long seatId, Long userId, Supplier<T> action) {
+        ReentrantLock seatLock = stripeOf(seatStripes, seatId);
+        ReentrantLock userLock = stripeOf(userStripes, userId);
+        seatLock.lock();
+        try {
+            userLock.lock();
+            try {
+                return action.get();
+            } finally {
+                userLock.unlock();
+            }
+        } finally {
+            seatLock.unlock();
+        }
+    }
+
+    private static ReentrantLock stripeOf(ReentrantLock[] stripes, Long id) {
+        int hash = Long.hashCode(id);
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, STRIPES)];
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,124 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.repository.reservation.ReservationRepository;
+import com.studyflow.app.util.StartupReadiness;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Eski COMPLETED/CANCELLED rezervasyonlari reservations tablosundan reservations_history'ye tasir.
+ * Canli tablo sadece aktif ve yakin gecmis kayitlari tutar; indeksleri kucuk kalir.
+ * Kullanici gecmisi ve profil sorgulari iki tabloyu vw_reservations_all ile birlikte okur.
+ */
+@Component
+public class ReservationArchiver {
+
+    // Bu kadar gunden eski kapanmis kayitlar arsive tasinir
+    private static final int RETENTION_DAYS = 90;
+    // Tek transaction'da tasinan satir sayisi
+    private static final int BATCH_SIZE = 500;
+    private static final String HISTORY_TABLE = "reservations_history";
+
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private StartupReadiness startupReadiness;
+
+    private TransactionTemplate archiveTransaction;
+    private volatile Boolean partitioned;
+    // Bu calisma surecinde olusturuldugu bilinen yillik partition'lar
+    private final Set<Integer> knownPartitions = new HashSet<>();
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.archiveTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Her gece 03:30
+    @Scheduled(cron = "0 30 3 * * *")
+    public void scheduledArchive() {
+        if (!startupReadiness.isReady()) {
+            return;
+        }
+        int moved = archive();
+        if (moved > 0) {
+            System.out.println("[ARCHIVE] " + moved + " rezervasyon reservations_history tablosuna tasindi.");
+        }
+    }
+
+    /**
+     * Saklama suresini asan kapanmis kayitlari partiler halinde tasir. Donus: tasinan kayit sayisi.
+     */
+    public synchronized int archive() {
+        LocalDate cutoff = LocalDate.now().minusDays(RETENTION_DAYS);
+        ensurePartitions(cutoff);
+
+        int moved = 0;
+        List<Long> ids;
+        do {
+            ids = reservationRepository.findArchivableReservationIds(cutoff, BATCH_SIZE);
+            if (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                // Kopyalama ve silme ayni transaction'da: yarida kalan parti iki tabloda birden gorunmez
+                Integer count = archiveTransaction.execute(status -> {
+                    reservationRepository.copyReservationsToHistory(batch);
+                    return reservationRepository.deleteArchivedReservations(batch);
+                });
+                moved += count != null ? count : 0;
+            }
+        } while (ids.size() == BATCH_SIZE);
+        return moved;
+    }
+
+    // PostgreSQL: tasinacak en eski kayittan cutoff yilina kadar yillik partition'lar hazirlanir.
+    // Partition yoksa satirlar reservations_history_default'a duser; H2'de tablo partition'siz oldugu icin atlanir.
+    private void ensurePartitions(LocalDate cutoff) {
+        if (!isPartitioned()) {
+            return;
+        }
+        LocalDate oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(reservation_date) FROM reservations " +
+                "WHERE status IN ('COMPLETED', 'CANCELLED') AND reservation_date < ?",
+                LocalDate.class, cutoff);
+        if (oldest == null) {
+            return;
+        }
+        for (int year = oldest.getYear(); year <= cutoff.getYear(); year++) {
+            if (knownPartitions.contains(year)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + "_" + year +
+                        " PARTITION OF " + HISTORY_TABLE +
+                        " FOR VALUES FROM ('" + year + "-01-01') TO ('" + (year + 1) + "-01-01')");
+                knownPartitions.add(year);
+            } catch (DataAccessException e) {
+                // Default partition'da o yila ait satir varsa partition acilamaz; kayitlar default'ta kalir
+                System.out.println("[WARN] " + HISTORY_TABLE + "_" + year + " olusturulamadi: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            try {
+                Integer count = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                        "WHERE c.relname = ?", Integer.class, HISTORY_TABLE);
+                partitioned = count != null && count > 0;
+            } catch (DataAccessException e) {
+                partitioned = false;
+            }
+        }
+        return partitioned;
+    }
+}
@@ -0,0 +1,194 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.repository.reservation.ReservationRepository;
+import com.studyflow.app.service.audit.AuditEvent;
+import com.studyflow.app.service.audit.AuditLogWriter;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
+import com.studyflow.app.service.user.StudyRollupService;
+import com.studyflow.app.util.StartupReadiness;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * ACTIVE rezervasyonlari bitis zamani gectikce COMPLETED yapan zamanlanmis tarayici.
+ * Yaklasan bitis anlari bellekte sirali bir kumede tutulur (bugun + yarin, veritabanindan doldurulur);
+ * Baska istemcilerin yazdigi kayitlar yerel kuyruga girmez; bu yuzden her taramada bugunun en erken
+ * bitis ani idx_reservation_active_end uzerinden tek satirlik bir sorguyla okunup kuyruga eklenir.
+ * Vadesi gelince ayni index uzerinden kucuk partiler halinde guncellenir.
+ * Boylece "aktif" sorgulari sadece status = 'ACTIVE' bakar.
+ */
+@Component
+public class ReservationExpirySweeper {
+
+    // Tek UPDATE'in kilitledigi satir sayisi ust siniri
+    private static final int BATCH_SIZE = 200;
+    // Kuyruga alinan bitis anlarinin ufku (gun); daha ileri kayitlar gun degisiminde yeniden okunur
+    private static final int HORIZON_DAYS = 1;
+
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private SeatOccupancyIndex seatOccupancyIndex;
+    @Autowired private AuditLogWriter auditLogWriter;
+    @Autowired private StudyRollupService studyRollupService;
+    @Autowired private AdminDashboardService adminDashboardService;
+    @Autowired private StartupReadiness startupReadiness;
+
+    private TransactionTemplate sweepTransaction;
+
+    // Bitis anlari (ayni ana dusen rezervasyonlar tek girdi)
+    private final NavigableSet<LocalDateTime> deadlines = new ConcurrentSkipListSet<>();
+    private volatile LocalDate seededFor;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.sweepTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============================================
+    // 1. KUYRUK
+    // ============================================
+
+    /**
+     * Yeni veya tasinan rezervasyonun bitis anini kuyruga ekler. Ufuk disindakiler yeniden doldurmada gelir.
+     */
+    public void schedule(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        LocalDate horizon = seededFor;
+        if (horizon != null && !date.isAfter(horizon.plusDays(HORIZON_DAYS))) {
+            deadlines.add(endOf(date, startTime, endTime));
+        }
+    }
+
+    // Gun degisiminde (ve ilk calismada) ufuk icindeki ACTIVE kayitlarin bitis anlari tablodan okunur
+    private void seedIfNeeded(LocalDate today) {
+        if (today.equals(seededFor)) {
+            return;
+        }
+        deadlines.clear();
+        for (Object[] row : reservationRepository.findActiveReservationPeriodsUntil(today.plusDays(HORIZON_DAYS))) {
+            deadlines.add(endOf(toLocalDate(row[0]), toLocalTime(row[1]), toLocalTime(row[2])));
+        }
+        seededFor = today;
+    }
+
+    // Diger istemcilerin (veya ufuk disindan tasinan) kayitlari: veritabanindaki en erken bitis ani
+    private void probeEarliestDeadline(LocalDate today) {
+        for (Object[] row : reservationRepository.findEarliestActiveEnd(today)) {
+            deadlines.add(endOf(toLocalDate(row[0]), toLocalTime(row[1]), toLocalTime(row[2])));
+        }
+    }
+
+    // ============================================
+    // 2. TARAMA
+    // ============================================
+
+    // Acilis isleri bitmeden (migration, calisma ozetleri kontrolu) tarama yapilmaz
+    @Scheduled(initialDelay = 5_000, fixedDelay = 30_000)
+    public void scheduledSweep() {
+        if (!startupReadiness.isReady()) {
+            return;
+        }
+        sweep();
+    }
+
+    /**
+     * Vadesi gelen bitis anlari varsa suresi dolan rezervasyonlari partiler halinde COMPLETED yapar.
+     * Donus: tamamlanan rezervasyon sayisi.
+     */
+    public synchronized int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        seedIfNeeded(today);
+        probeEarliestDeadline(today);
+
+        NavigableSet<LocalDateTime> due = deadlines.headSet(now, true);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        due.clear();
+
+        int completed = 0;
+        List<Object[]> rows;
+        do {
+            rows = reservationRepository.findExpiredActiveReservations(today, now.toLocalTime(), BATCH_SIZE);
+            if (!rows.isEmpty()) {
+                List<Object[]> batch = rows;
+                Integer count = sweepTransaction.execute(status -> completeBatch(batch));
+                completed += count != null ? count : 0;
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        if (completed > 0) {
+            seatOccupancyIndex.onReservationsExpired(today);
+            adminDashboardService.invalidate();
+        }
+        return completed;
+    }
+
+    // Durum degisikligi, calisma ozetleri ve audit kaydi ayni transaction'da (audit commit sonrasi kuyruga girer).
+    // Iptal ile ayni kilit sirasi: once rezervasyon satirlari, sonra ozet satirlari. Kilitlenene kadar baska
+    // transaction'in kapattigi kayitlar atlanir (ozete iki kez eklenmez)
+    private int completeBatch(List<Object[]> rows) {
+        List<Long> candidates = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            candidates.add(((Number) row[0]).longValue());
+        }
+        Set<Long> ids = new HashSet<>(reservationRepository.lockActiveReservations(candidates));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<AuditEvent> events = new ArrayList<>(ids.size());
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            if (!ids.contains(id)) {
+                continue;
+            }
+            Long userId = row[1] != null ? ((Number) row[1]).longValue() : null;
+            events.add(AuditEvent.completed(id, userId));
+            if (userId != null) {
+                studyRollupService.recordSession(userId, toLocalDate(row[2]), toLocalTime(row[3]), toLocalTime(row[4]));
+            }
+        }
+        int completed = reservationRepository.completeReservations(new ArrayList<>(ids));
+        auditLogWriter.recordAll(events);
+        return completed;
+    }
+
+    // period kolonu ile ayni kural: 00:00 (veya baslangictan once) biten aralik ertesi gune tasar
+    private static LocalDateTime endOf(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return endTime.isAfter(startTime) ? date.atTime(endTime) : date.plusDays(1).atTime(endTime);
+    }
+
+    // Native sorgular H2/Postgres'e gore java.sql.Date/Time veya java.time donebilir
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        if (value instanceof LocalTime time) {
+            return time;
+        }
+        if (value instanceof java.sql.Time time) {
+            return time.toLocalTime();
+        }
+        return LocalTime.parse(value.toString());
+    }
+}
@@ -3,25 +3,52 @@ package com.studyflow.app.service.reservation;
 import com.studyflow.app.context.GlobalParamsContext;
 import com.studyflow.app.exception.ArgumentNotValidException;
 import com.studyflow.app.model.dto.AvailabilityDTO;
+import com.studyflow.app.model.dto.RecurringReservationResult;
+import com.studyflow.app.model.dto.ReservationCursor;
 import com.studyflow.app.model.facility.*;
 import com.studyflow.app.model.reservation.Reservation;
+import com.studyflow.app.model.reservation.ReservationSeries;
+import com.studyflow.app.model.reservation.WaitlistEntry;
 import com.studyflow.app.model.user.User;
 import com.studyflow.app.context.UserSessionContext;
 import com.studyflow.app.repository.facility.DeskRepository;
 import com.studyflow.app.repository.facility.FacilityBlockRepository;
 import com.studyflow.app.repository.facility.SeatRepository;
 import com.studyflow.app.repository.reservation.ReservationRepository;
+import com.studyflow.app.repository.reservation.ReservationSeriesRepository;
+import com.studyflow.app.repository.reservation.SeatHoldRepository;
+import com.studyflow.app.service.audit.AuditEvent;
+import com.studyflow.app.service.audit.AuditLogWriter;
+import com.studyflow.app.service.dashboard.AdminDashboardService;
+import com.studyflow.app.service.user.StudyRollupService;
+import com.studyflow.app.service.user.UserStatsCache;
+import com.studyflow.app.util.StartupReadiness;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 public class ReservationService {
@@ -32,6 +59,45 @@ public class ReservationService {
     @Autowired private FacilityBlockRepository blockRepository;
     @Autowired private UserSessionContext userSessionContext;
     @Autowired private GlobalParamsContext globalParamsContext;
+    @Autowired private SeatOccupancyIndex seatOccupancyIndex;
+    @Autowired private BookingLocks bookingLocks;
+    @Autowired private SeatConflicts seatConflicts;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private SeatHoldRepository seatHoldRepository;
+    @Autowired private WaitlistService waitlistService;
+    @Autowired private ReservationSeriesRepository reservationSeriesRepository;
+    @Autowired private ReservationExpirySweeper reservationExpirySweeper;
+    @Autowired private AuditLogWriter auditLogWriter;
+    @Autowired private StudyRollupService studyRollupService;
+    @Autowired private UserStatsCache userStatsCache;
+    @Autowired private AdminDashboardService adminDashboardService;
+    @Autowired private StartupReadiness startupReadiness;
+
+    private TransactionTemplate bookingTransaction;
+
+    // Kilit/serilestirme hatalarinda yeniden deneme (ustel bekleme + jitter)
+    private static final int MAX_BOOKING_ATTEMPTS = 4;
+    private static final long BOOKING_BACKOFF_MILLIS = 25;
+
+    // PostgreSQL migration'indaki rezervasyon fonksiyonu (sadece PostgreSQL); H2'de yoktur
+    private static final String BOOKING_FUNCTION = "fn_book_seat";
+    private volatile Boolean bookingFunction;
+
+    // Adim 4'te secilen koltugun tutulma suresi
+    private static final long SEAT_HOLD_MINUTES = 3;
+    // Oturum yokken tutma sorgularinda "kendi tutmasi" olarak hicbir kullaniciyla eslesmeyen ID
+    private static final long NO_USER_ID = -1L;
+
+    // Tekrarli rezervasyon en fazla bu kadar gun ileriye uzanabilir
+    private static final int MAX_SERIES_DAYS = 182;
+    private static final String SERIES_INSERT_SQL =
+            "INSERT INTO reservations (user_id, seat_id, facility_id, facility_block_id, desk_id, " +
+            "reservation_date, start_time, end_time, status, series_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', ?)";
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+    }
 
     // ============================================
     // 1. REZERVASYON OLUŞTURMA (INSERT)
@@ -54,6 +120,53 @@ public class ReservationService {
         // 2. Koltuk var mı?
         Seat seat = seatRepository.findById(seatId).orElseThrow(() -> new ArgumentNotValidException("Seat not found"));
 
+        bookSeat(user, seat, facility, facilityBlock, desk, date, startTime, endTime);
+    }
+
+    private void bookSeat(User user, Seat seat, Facility facility, FacilityBlock facilityBlock, Desk desk,
+                          LocalDate date, LocalTime startTime, LocalTime endTime) {
+        Long seatId = seat.getId();
+
+        // Bellek ici bitmap dolu diyorsa kilit ve transaction acmadan reddet. Bitmap 15 sn'ye kadar eski olabilir
+        // (baska istemcinin iptali gorunmez): ret oncesi veritabani sayimi ile dogrulanir, eski girdi atilir
+        if (seatOccupancyIndex.isSeatOccupied(facility.getId(), seatId, date, startTime, endTime)) {
+            if (seatConflicts.countReservations(seatId, date, startTime, endTime, null) > 0) {
+                throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            }
+            seatOccupancyIndex.onReservationRemoved(facility.getId(), date);
+        }
+
+        // 3-6. Kontroller + insert tek transaction'da, koltuk ve kullanici kilitli iken
+        Long reservationId;
+        if (hasBookingFunction()) {
+            // PostgreSQL: kilit, tum kurallar ve insert tek round trip (fn_book_seat)
+            reservationId = executeBooking(seatId, user.getId(),
+                    () -> bookInDatabase(user.getId(), seatId, date, startTime, endTime, null));
+        } else {
+            reservationId = insertWithChecks(user, seatId, facility, facilityBlock, desk, date, startTime, endTime);
+        }
+        auditLogWriter.record(AuditEvent.inserted(reservationId, user.getId(), date, startTime, endTime));
+        seatOccupancyIndex.onReservationCreated(facility.getId(), seatId, date, startTime, endTime);
+        reservationExpirySweeper.schedule(date, startTime, endTime);
+        userStatsCache.invalidate(user.getId());
+        adminDashboardService.invalidate();
+
+        System.out.println("ActiveReservation created for User: " + user.getEmail() + " Seat: " + seat.getSeatNumber());
+    }
+
+    // H2 (dev): kontroller Java'dan ayri sorgularla, ayni transaction ve satir kilitleri altinda
+    private Long insertWithChecks(User user, Long seatId, Facility facility, FacilityBlock facilityBlock, Desk desk,
+                                  LocalDate date, LocalTime startTime, LocalTime endTime) {
+        boolean seatGuardedByDatabase = seatConflicts.isGuardedByDatabase();
+        return executeBooking(seatId, user.getId(), () -> {
+            reservationRepository.lockSeatForBooking(seatId);
+            reservationRepository.lockUserForBooking(user.getId());
+            return insertReservation(user, seatId, facility, facilityBlock, desk, date, startTime, endTime, seatGuardedByDatabase);
+        });
+    }
+
+    private Long insertReservation(User user, Long seatId, Facility facility, FacilityBlock facilityBlock, Desk desk,
+                                   LocalDate date, LocalTime startTime, LocalTime endTime, boolean seatGuardedByDatabase) {
         // 3. Aktif rezervasyon sayısı kontrolü (max 3)
         int activeCount = reservationRepository.countActiveReservationsByUserId(user.getId());
         if (activeCount >= 3) {
@@ -68,15 +181,309 @@ public class ReservationService {
         }
 
         // 5. Koltuk Çakışması Kontrolü (bu koltuk başkası tarafından alınmış mı?)
-        int conflicts = reservationRepository.countConflictingReservations(seatId, date, startTime, endTime);
-        if (conflicts > 0) {
-            throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+        // PostgreSQL'de EXCLUDE constraint insert sirasinda kontrol eder, on sayim sorgusu gerekmez
+        if (!seatGuardedByDatabase) {
+            int conflicts = seatConflicts.countReservations(seatId, date, startTime, endTime, null);
+            if (conflicts > 0) {
+                throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            }
+        }
+
+        // 5b. Baska bir kullanici bu koltugu Adim 4'te tutuyor mu?
+        if (seatHoldRepository.countConflictingHolds(seatId, date, startTime, endTime, user.getId(), LocalDateTime.now()) > 0) {
+            throw new RuntimeException("Bu koltuk şu anda başka bir kullanıcı tarafından seçilmiş. Lütfen başka bir koltuk seçin.");
         }
 
         // 6. Kaydet (Native Insert - Trigger da kontrol edecek)
-        reservationRepository.createReservation(user.getId(), seatId, facility.getId(), facilityBlock.getId(), desk.getId(), date, startTime, endTime);
+        try {
+            reservationRepository.createReservation(user.getId(), seatId, facility.getId(), facilityBlock.getId(), desk.getId(), date, startTime, endTime);
+        } catch (DataIntegrityViolationException e) {
+            if (isSeatPeriodViolation(e)) {
+                throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            }
+            throw e;
+        }
 
-        System.out.println("ActiveReservation created for User: " + user.getEmail() + " Seat: " + seat.getSeatNumber());
+        // 7. Kullanicinin koltuk tutmasi rezervasyona donustu
+        seatHoldRepository.deleteWizardHoldsByUserId(user.getId());
+        return reservationRepository.findActiveReservationId(user.getId(), seatId, date, startTime);
+    }
+
+    /**
+     * fn_book_seat tanimli mi? (PostgreSQL). H2'de false doner ve Java tarafli kontrol yolu kullanilir.
+     */
+    private boolean hasBookingFunction() {
+        if (bookingFunction == null) {
+            bookingFunction = existsInCatalog("SELECT COUNT(*) FROM pg_proc WHERE proname = ?", BOOKING_FUNCTION);
+        }
+        return bookingFunction;
+    }
+
+    // pg_catalog sorgusu H2'de hata verir; bu durumda nesne yok kabul edilir
+    private boolean existsInCatalog(String sql, String name) {
+        try {
+            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name);
+            return count != null && count > 0;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * fn_book_seat'i cagirir ve durum kodunu mevcut hata mesajlarina cevirir.
+     * reservationId NULL ise yeni kayit, degilse tasima. Basarida rezervasyon ID'si, tasinacak kayit yoksa null.
+     */
+    private Long bookInDatabase(Long userId, Long seatId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                   Long reservationId) {
+        String status;
+        try {
+            status = reservationRepository.bookSeat(userId, seatId, date, startTime, endTime, reservationId);
+        } catch (DataIntegrityViolationException e) {
+            if (!isSeatPeriodViolation(e)) {
+                throw e;
+            }
+            status = "SEAT_CONFLICT";
+        }
+
+        // Basari: 'OK:<id>'
+        if (status.startsWith("OK")) {
+            int separator = status.indexOf(':');
+            return separator > 0 ? Long.valueOf(status.substring(separator + 1)) : reservationId;
+        }
+
+        boolean isUpdate = reservationId != null;
+        switch (status) {
+            case "RESERVATION_NOT_FOUND":
+                return null;
+            case "SEAT_NOT_FOUND":
+                throw new ArgumentNotValidException("Seat not found");
+            case "MAX_RESERVATION_LIMIT":
+                throw new RuntimeException("Maksimum 3 aktif rezervasyonunuz olabilir.");
+            case "TIME_CONFLICT":
+                throw new RuntimeException(isUpdate
+                        ? "Bu zaman diliminde zaten baska bir rezervasyonunuz bulunmaktadir. " +
+                          "Ayni anda birden fazla yerde rezervasyon yapamazsiniz."
+                        : "Bu zaman diliminde zaten bir rezervasyonunuz bulunmaktadır. " +
+                          "Aynı anda birden fazla yerde rezervasyon yapamazsınız.");
+            case "SEAT_CONFLICT":
+                throw new RuntimeException(isUpdate
+                        ? "Secilen koltuk bu zaman diliminde baska biri tarafindan rezerve edilmis."
+                        : "Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            case "SEAT_HELD":
+                throw new RuntimeException("Bu koltuk şu anda başka bir kullanıcı tarafından seçilmiş. Lütfen başka bir koltuk seçin.");
+            default:
+                throw new RuntimeException("Rezervasyon olusturulamadi: " + status);
+        }
+    }
+
+    private static boolean isSeatPeriodViolation(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(SeatConflicts.SEAT_PERIOD_CONSTRAINT);
+    }
+
+    /**
+     * Rezervasyon yazimini koltuk+kullanici seridi kilitliyken tek transaction'da calistirir.
+     * Veritabani kilit zaman asimi / serilestirme hatalarinda artan beklemeyle yeniden dener.
+     */
+    private <T> T executeBooking(Long seatId, Long userId, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bookingLocks.withSeatAndUser(seatId, userId,
+                        () -> bookingTransaction.execute(status -> work.get()));
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                    throw new RuntimeException("Rezervasyon şu anda tamamlanamadı, lütfen tekrar deneyin.");
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        long delay = BOOKING_BACKOFF_MILLIS * (1L << (attempt - 1));
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rezervasyon islemi kesildi.");
+        }
+    }
+
+    // ============================================
+    // 1B. TEKRARLI REZERVASYON
+    // ============================================
+
+    /**
+     * Ayni koltuk ve saat icin haftanin secilen gunlerinde, until tarihine kadar tekrarlayan rezervasyon.
+     * Cakisan gunler atlanir ve sonucta nedenleriyle raporlanir; kalan gunler tek transaction'da toplu eklenir.
+     * Seri, aktif rezervasyon limitinde tek rezervasyon sayilir.
+     */
+    public RecurringReservationResult createRecurringReservation(Long seatId, Set<DayOfWeek> days, LocalDate from,
+                                                                 LocalDate until, LocalTime startTime, LocalTime endTime) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) {
+            throw new RuntimeException("No active user found.");
+        }
+        Seat seat = seatRepository.findById(seatId).orElseThrow(() -> new ArgumentNotValidException("Seat not found"));
+        Desk desk = seat.getDesk();
+        FacilityBlock facilityBlock = desk.getFacilityBlock();
+        Facility facility = facilityBlock.getFacility();
+
+        // 1. Kural kontrolleri
+        if (days == null || days.isEmpty()) {
+            throw new ArgumentNotValidException("En az bir gun secmelisiniz.");
+        }
+        if (until == null || until.isBefore(from)) {
+            throw new ArgumentNotValidException("Bitis tarihi baslangic tarihinden once olamaz.");
+        }
+        if (until.isAfter(from.plusDays(MAX_SERIES_DAYS))) {
+            throw new ArgumentNotValidException("Tekrarli rezervasyon en fazla " + MAX_SERIES_DAYS + " gun ileriye yapilabilir.");
+        }
+        long durationMinutes = java.time.Duration.between(startTime, endTime).toMinutes();
+        if (durationMinutes < 60 || durationMinutes > 180) {
+            throw new RuntimeException("Rezervasyon suresi 1 ile 3 saat arasinda olmalidir.");
+        }
+
+        // 2. Kurali gunlere ac (gecmiste kalan baslangiclar atlanir)
+        Set<DayOfWeek> selectedDays = EnumSet.copyOf(days);
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDate> occurrences = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(until); date = date.plusDays(1)) {
+            if (selectedDays.contains(date.getDayOfWeek()) && date.atTime(startTime).isAfter(now)) {
+                occurrences.add(date);
+            }
+        }
+        if (occurrences.isEmpty()) {
+            throw new ArgumentNotValidException("Secilen aralikta rezerve edilebilecek gun yok.");
+        }
+
+        RecurringReservationResult result = executeBooking(seatId, user.getId(), () -> {
+            reservationRepository.lockSeatForBooking(seatId);
+            reservationRepository.lockUserForBooking(user.getId());
+            return insertSeries(user, seat, facility, facilityBlock, desk, selectedDays, occurrences, startTime, endTime);
+        });
+
+        // Seri birden fazla gune dokunur; gun gun guncellemek yerine tesis girdileri yeniden kurulur
+        seatOccupancyIndex.invalidate(facility.getId());
+        for (LocalDate date : result.getCreatedDates()) {
+            reservationExpirySweeper.schedule(date, startTime, endTime);
+        }
+        userStatsCache.invalidate(user.getId());
+        adminDashboardService.invalidate();
+
+        System.out.println("Recurring reservation created for User: " + user.getEmail() + " Seat: " + seat.getSeatNumber()
+                + " Days: " + result.getCreatedDates().size() + " Skipped: " + result.getConflicts().size());
+        return result;
+    }
+
+    private RecurringReservationResult insertSeries(User user, Seat seat, Facility facility, FacilityBlock facilityBlock,
+                                                    Desk desk, Set<DayOfWeek> days, List<LocalDate> occurrences,
+                                                    LocalTime startTime, LocalTime endTime) {
+        // 3. Aktif rezervasyon limiti (seri tek rezervasyon sayilir)
+        int activeCount = reservationRepository.countActiveReservationsByUserId(user.getId());
+        if (activeCount >= 3) {
+            throw new RuntimeException("Maksimum 3 aktif rezervasyonunuz olabilir. Mevcut: " + activeCount);
+        }
+
+        // 4. Koltuk, kullanici ve tutma cakismalari tum aralik icin tek sorguda
+        LocalDate first = occurrences.get(0);
+        LocalDate last = occurrences.get(occurrences.size() - 1);
+        Map<LocalDate, String> conflictReasons = new HashMap<>();
+        for (Object[] row : reservationRepository.findSeriesConflictRows(seat.getId(), user.getId(), first, last,
+                startTime, endTime, LocalDateTime.now())) {
+            conflictReasons.putIfAbsent(toLocalDate(row[0]), seriesConflictMessage(String.valueOf(row[1])));
+        }
+
+        RecurringReservationResult result = new RecurringReservationResult();
+        List<LocalDate> free = new ArrayList<>();
+        for (LocalDate date : occurrences) {
+            String reason = conflictReasons.get(date);
+            if (reason != null) {
+                result.getConflicts().put(date, reason);
+            } else {
+                free.add(date);
+            }
+        }
+        if (free.isEmpty()) {
+            throw new RuntimeException("Secilen gunlerin hicbirinde bu koltuk uygun degil.");
+        }
+
+        // 5. Seri kaydi + gunluk kayitlar (JDBC batch)
+        ReservationSeries series = reservationSeriesRepository.save(ReservationSeries.builder()
+                .user(user)
+                .seat(seat)
+                .daysOfWeek(days.stream().map(DayOfWeek::name).collect(Collectors.joining(",")))
+                .startDate(free.get(0))
+                .endDate(free.get(free.size() - 1))
+                .startTime(startTime)
+                .endTime(endTime)
+                .createdAt(LocalDateTime.now())
+                .build());
+        reservationSeriesRepository.flush();
+
+        // PostgreSQL: kontroller yukarida yapildi, satir bazli trigger'lar her gun icin tekrar sorgulamasin
+        boolean skipTriggers = hasBookingFunction();
+        if (skipTriggers) {
+            jdbcTemplate.queryForObject("SELECT set_config('studyflow.booking_validated', 'on', true)", String.class);
+        }
+        try {
+            jdbcTemplate.batchUpdate(SERIES_INSERT_SQL, free, free.size(), (ps, date) -> {
+                ps.setLong(1, user.getId());
+                ps.setLong(2, seat.getId());
+                ps.setLong(3, facility.getId());
+                ps.setLong(4, facilityBlock.getId());
+                ps.setLong(5, desk.getId());
+                ps.setDate(6, Date.valueOf(date));
+                ps.setTime(7, Time.valueOf(startTime));
+                ps.setTime(8, Time.valueOf(endTime));
+                ps.setLong(9, series.getId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isSeatPeriodViolation(e)) {
+                throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            }
+            throw e;
+        } finally {
+            if (skipTriggers) {
+                jdbcTemplate.queryForObject("SELECT set_config('studyflow.booking_validated', 'off', true)", String.class);
+            }
+        }
+        seatHoldRepository.deleteWizardHoldsByUserId(user.getId());
+
+        // Audit: seri kayitlari tek sorguyla alinir, commit sonrasi toplu yazilir
+        List<AuditEvent> events = new ArrayList<>(free.size());
+        for (Object[] row : reservationRepository.findReservationsBySeriesId(series.getId())) {
+            events.add(AuditEvent.inserted(((Number) row[0]).longValue(), user.getId(), toLocalDate(row[1]), startTime, endTime));
+        }
+        auditLogWriter.recordAll(events);
+
+        result.setSeriesId(series.getId());
+        result.getCreatedDates().addAll(free);
+        return result;
+    }
+
+    private static String seriesConflictMessage(String reason) {
+        switch (reason) {
+            case "SEAT":
+                return "Koltuk bu saatte dolu";
+            case "USER":
+                return "Bu saatte baska bir rezervasyonunuz var";
+            case "HELD":
+                return "Koltuk baska bir kullanici tarafindan secilmis";
+            default:
+                return reason;
+        }
+    }
+
+    // Native sorgular H2/Postgres'e gore java.sql.Date veya LocalDate donebilir
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
     }
 
     // ============================================
@@ -127,6 +534,42 @@ public class ReservationService {
                     "Son guncelleme icin " + Math.abs(minutesLeft) + " dakika gecti.");
         }
 
+        // 6-8. Kontroller + guncelleme tek transaction'da, koltuk ve kullanici kilitli iken
+        Long seatId = reservation.getSeat().getId();
+        int updated;
+        if (hasBookingFunction()) {
+            // PostgreSQL: kilit, kurallar ve UPDATE tek round trip (fn_book_seat, kendi kaydi haric)
+            updated = executeBooking(seatId, currentUser.getId(),
+                    () -> bookInDatabase(currentUser.getId(), seatId, newDate, newStartTime, newEndTime, reservationId)) != null ? 1 : 0;
+        } else {
+            boolean seatGuardedByDatabase = seatConflicts.isGuardedByDatabase();
+            updated = executeBooking(seatId, currentUser.getId(), () -> {
+                reservationRepository.lockSeatForBooking(seatId);
+                reservationRepository.lockUserForBooking(currentUser.getId());
+                return moveReservation(currentUser, reservationId, seatId, newDate, newStartTime, newEndTime, seatGuardedByDatabase);
+            });
+        }
+
+        if (updated > 0) {
+            Long facilityId = reservation.getFacility().getId();
+            seatOccupancyIndex.onReservationRemoved(facilityId, reservation.getReservationDate());
+            seatOccupancyIndex.onReservationCreated(facilityId, seatId, newDate, newStartTime, newEndTime);
+            reservationExpirySweeper.schedule(newDate, newStartTime, newEndTime);
+            userStatsCache.invalidate(currentUser.getId());
+            adminDashboardService.invalidate();
+            // Eski aralik bosaldi: bekleme listesindeki ilk uygun kullaniciya teklif edilir
+            offerFreedSeat(reservation);
+            return "Rezervasyon basariyla guncellendi. Yeni tarih: " + newDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) +
+                   " Saat: " + newStartTime.format(DateTimeFormatter.ofPattern("HH:mm")) + "-" + 
+                   newEndTime.format(DateTimeFormatter.ofPattern("HH:mm"));
+        } else {
+            throw new RuntimeException("Rezervasyon guncellenemedi.");
+        }
+    }
+
+    private int moveReservation(User currentUser, Long reservationId, Long seatId,
+                                LocalDate newDate, LocalTime newStartTime, LocalTime newEndTime,
+                                boolean seatGuardedByDatabase) {
         // 6. Kullanici zaman cakismasi kontrolu (kendi rezervasyonu haric)
         int userTimeConflicts = reservationRepository.countUserTimeConflictsExcluding(
                 currentUser.getId(), newDate, newStartTime, newEndTime, reservationId);
@@ -135,22 +578,155 @@ public class ReservationService {
                     "Ayni anda birden fazla yerde rezervasyon yapamazsiniz.");
         }
 
-        // 7. Koltuk cakismasi kontrolu (kendi rezervasyonu haric)
-        int conflicts = reservationRepository.countConflictingReservationsExcluding(
-                reservation.getSeat().getId(), newDate, newStartTime, newEndTime, reservationId);
-        if (conflicts > 0) {
-            throw new RuntimeException("Secilen koltuk bu zaman diliminde baska biri tarafindan rezerve edilmis.");
+        // 7. Koltuk cakismasi kontrolu (kendi rezervasyonu haric; PostgreSQL'de EXCLUDE constraint yapar)
+        if (!seatGuardedByDatabase) {
+            int conflicts = seatConflicts.countReservations(seatId, newDate, newStartTime, newEndTime, reservationId);
+            if (conflicts > 0) {
+                throw new RuntimeException("Secilen koltuk bu zaman diliminde baska biri tarafindan rezerve edilmis.");
+            }
         }
 
         // 8. Guncelle
-        int updated = reservationRepository.updateReservationTime(reservationId, newDate, newStartTime, newEndTime);
-        
-        if (updated > 0) {
-            return "Rezervasyon basariyla guncellendi. Yeni tarih: " + newDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) +
-                   " Saat: " + newStartTime.format(DateTimeFormatter.ofPattern("HH:mm")) + "-" + 
-                   newEndTime.format(DateTimeFormatter.ofPattern("HH:mm"));
-        } else {
-            throw new RuntimeException("Rezervasyon guncellenemedi.");
+        try {
+            return reservationRepository.updateReservationTime(reservationId, newDate, newStartTime, newEndTime);
+        } catch (DataIntegrityViolationException e) {
+            if (isSeatPeriodViolation(e)) {
+                throw new RuntimeException("Secilen koltuk bu zaman diliminde baska biri tarafindan rezerve edilmis.");
+            }
+            throw e;
+        }
+    }
+
+    // ============================================
+    // 2B. KOLTUK TUTMA (Adim 4 sihirbazi)
+    // ============================================
+
+    /**
+     * Secilen koltugu onay ekrani acikken SEAT_HOLD_MINUTES boyunca kullaniciya ayirir.
+     * Kullanicinin onceki tutmasi birakilir; tutma suresi doldugunda kendiliginden gecersizdir.
+     * Donen deger tutmanin bitis zamanidir.
+     */
+    public LocalDateTime holdSeat(Long seatId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) {
+            throw new RuntimeException("No active user found.");
+        }
+
+        return executeBooking(seatId, user.getId(), () -> {
+            reservationRepository.lockSeatForBooking(seatId);
+
+            if (seatConflicts.countReservations(seatId, date, startTime, endTime, null) > 0) {
+                throw new RuntimeException("Bu koltuk seçilen zaman dilimi için zaten rezerve edilmiş.");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (seatHoldRepository.countConflictingHolds(seatId, date, startTime, endTime, user.getId(), now) > 0) {
+                throw new RuntimeException("Bu koltuk şu anda başka bir kullanıcı tarafından seçilmiş. Lütfen başka bir koltuk seçin.");
+            }
+
+            LocalDateTime expiresAt = now.plusMinutes(SEAT_HOLD_MINUTES);
+            seatHoldRepository.deleteWizardHoldsByUserId(user.getId());
+            seatHoldRepository.insertHold(seatId, user.getId(), date, startTime, endTime, expiresAt);
+            return expiresAt;
+        });
+    }
+
+    /**
+     * Kullanici onay ekranini kapattiginda veya sihirbazdan ciktiginda tutmasini birakir.
+     */
+    public void releaseSeatHold() {
+        User user = userSessionContext.getCurrentUser();
+        if (user != null) {
+            seatHoldRepository.deleteWizardHoldsByUserId(user.getId());
+        }
+    }
+
+    /**
+     * Suresi dolan tutmalari siler. Sorgular zaten expires_at > now filtreler;
+     * bu temizlik yalnizca tabloyu kucuk tutar ve expires_at indeksi uzerinden calisir.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void sweepExpiredSeatHolds() {
+        if (!startupReadiness.isReady()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Suresi dolan bekleme listesi teklifleri siradaki kullaniciya aktarilir (yeni tutmalar ileri tarihlidir)
+        waitlistService.expireOffers(now);
+        seatHoldRepository.deleteExpiredHolds(now);
+    }
+
+    // ============================================
+    // 2C. BEKLEME LISTESI
+    // ============================================
+
+    /**
+     * Dolu bir tesis/blok/masa/koltuk icin bekleme listesine katilir.
+     * blockId, deskId ve seatId null birakilabilir (o seviyede herhangi biri).
+     */
+    public String joinWaitlist(Long facilityId, Long blockId, Long deskId, Long seatId,
+                               LocalDate date, LocalTime startTime, LocalTime endTime) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) {
+            throw new RuntimeException("No active user found.");
+        }
+        if (!waitlistService.join(user.getId(), facilityId, blockId, deskId, seatId, date, startTime, endTime)) {
+            return "Bu zaman dilimi icin zaten bekleme listesindesiniz.";
+        }
+        return "Bekleme listesine eklendiniz. Yer acildiginda koltuk sizin icin ayrilacak " +
+                "ve ana sayfada onayiniza sunulacak.";
+    }
+
+    /**
+     * Kullaniciya yapilmis ve suresi dolmamis bekleme listesi teklifleri.
+     */
+    public List<WaitlistEntry> getCurrentUserWaitlistOffers() {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return new ArrayList<>();
+        return waitlistService.getActiveOffers(user.getId());
+    }
+
+    /**
+     * Teklif edilen koltugu rezervasyona cevirir (kullanicinin kendi tutmasi oldugu icin cakisma olmaz).
+     */
+    public void acceptWaitlistOffer(Long entryId) {
+        WaitlistEntry entry = findOwnOffer(entryId);
+        Seat seat = entry.getOfferedSeat();
+        Desk desk = seat.getDesk();
+        FacilityBlock block = desk.getFacilityBlock();
+
+        bookSeat(entry.getUser(), seat, block.getFacility(), block, desk,
+                entry.getReservationDate(), entry.getStartTime(), entry.getEndTime());
+        waitlistService.markFulfilled(entry);
+    }
+
+    public void declineWaitlistOffer(Long entryId) {
+        waitlistService.decline(findOwnOffer(entryId));
+    }
+
+    private WaitlistEntry findOwnOffer(Long entryId) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) {
+            throw new RuntimeException("No active user found.");
+        }
+        return waitlistService.getActiveOffers(user.getId()).stream()
+                .filter(e -> e.getId().equals(entryId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Teklif bulunamadi veya suresi doldu."));
+    }
+
+    // Iptal/tasima zaten commit edildi: teklif hatasi kullaniciya islem hatasi olarak donmez
+    private void offerFreedSeat(Reservation reservation) {
+        try {
+            waitlistService.onCapacityFreed(
+                    reservation.getFacility().getId(),
+                    reservation.getFacilityBlock().getId(),
+                    reservation.getDesk().getId(),
+                    reservation.getSeat().getId(),
+                    reservation.getReservationDate(),
+                    reservation.getStartTime(),
+                    reservation.getEndTime());
+        } catch (RuntimeException e) {
+            System.out.println("[WARN] Bekleme listesi teklifi yapilamadi (rezervasyon " + reservation.getId() + "): " + e.getMessage());
         }
     }
 
@@ -189,9 +765,23 @@ public class ReservationService {
 
         // 5. İptal et (Trigger tetiklenecek)
         try {
-            int cancelled = reservationRepository.cancelReservation(reservationId, reason != null ? reason : "Kullanıcı isteği");
+            String cancellationReason = reason != null ? reason : "Kullanıcı isteği";
+            // Iptal ve calisma ozeti ayni transaction'da
+            Integer cancelledRows = bookingTransaction.execute(status -> {
+                int rows = reservationRepository.cancelReservation(reservationId, cancellationReason);
+                if (rows > 0) {
+                    studyRollupService.recordSession(reservation.getUser().getId(), reservation.getReservationDate(),
+                            reservation.getStartTime(), reservation.getEndTime());
+                }
+                return rows;
+            });
+            int cancelled = cancelledRows != null ? cancelledRows : 0;
             
             if (cancelled > 0) {
+                auditLogWriter.record(AuditEvent.cancelled(reservationId, reservation.getUser().getId(), cancellationReason));
+                seatOccupancyIndex.onReservationRemoved(reservation.getFacility().getId(), reservation.getReservationDate());
+                adminDashboardService.invalidate();
+                offerFreedSeat(reservation);
                 return "✅ Rezervasyon başarıyla iptal edildi.\n\n" +
                        "📋 Tesis: " + reservation.getFacility().getName() + "\n" +
                        "📅 Tarih: " + reservation.getReservationDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) + "\n" +
@@ -247,55 +837,29 @@ public class ReservationService {
 
     /**
      * BLOKLARIN Doluluk Durumunu Hesaplar (Adım 2 Ekranı İçin)
-     * Her blok için: Toplam Koltuk ve Dolu Koltuk sayısını döner.
+     * Her blok için: Toplam Koltuk ve Dolu Koltuk sayısını tek GROUP BY sorgusu ile döner.
      */
     public List<AvailabilityDTO> getBlockAvailability(Long facilityId, LocalDate date, LocalTime start, LocalTime end) {
-        List<AvailabilityDTO> result = new ArrayList<>();
-
-        // 1. O tesisteki tüm blokları çek
-        List<FacilityBlock> blocks = blockRepository.findAllByFacilityId(facilityId);
-
-        for (FacilityBlock block : blocks) {
-            int total = 0;
-            int occupied = 0;
-
-            // Bloğa ait tüm masaları gez
-            List<Desk> desks = deskRepository.findAllByBlockId(block.getId());
-            for (Desk desk : desks) {
-                // Masaya ait tüm koltukları gez
-                List<Seat> seats = seatRepository.findAllByDeskId(desk.getId());
-                total += seats.size();
-
-                // Her koltuk için çakışma var mı bak
-                for (Seat seat : seats) {
-                    if (reservationRepository.countConflictingReservations(seat.getId(), date, start, end) > 0) {
-                        occupied++;
-                    }
-                }
-            }
-            result.add(new AvailabilityDTO(block.getId(), total, occupied));
-        }
-        return result;
+        return toAvailabilityList(reservationRepository.aggregateBlockAvailability(
+                facilityId, date, start, end, currentUserIdOrNone(), LocalDateTime.now()));
     }
 
     /**
      * MASALARIN Doluluk Durumunu Hesaplar (Adım 3 Ekranı İçin)
      */
     public List<AvailabilityDTO> getDeskAvailability(Long blockId, LocalDate date, LocalTime start, LocalTime end) {
-        List<AvailabilityDTO> result = new ArrayList<>();
-
-        List<Desk> desks = deskRepository.findAllByBlockId(blockId);
-        for (Desk desk : desks) {
-            List<Seat> seats = seatRepository.findAllByDeskId(desk.getId());
-            int total = seats.size();
-            int occupied = 0;
+        return toAvailabilityList(reservationRepository.aggregateDeskAvailability(
+                blockId, date, start, end, currentUserIdOrNone(), LocalDateTime.now()));
+    }
 
-            for (Seat seat : seats) {
-                if (reservationRepository.countConflictingReservations(seat.getId(), date, start, end) > 0) {
-                    occupied++;
-                }
-            }
-            result.add(new AvailabilityDTO(desk.getId(), total, occupied));
+    // (id, total_seats, occupied_seats) satirlarini DTO'ya cevirir
+    private List<AvailabilityDTO> toAvailabilityList(List<Object[]> rows) {
+        List<AvailabilityDTO> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            result.add(new AvailabilityDTO(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue()));
         }
         return result;
     }
@@ -305,7 +869,28 @@ public class ReservationService {
      * Frontend bu listedeki ID'leri gri (disable) yapar, gerisini yeşil yapar.
      */
     public List<Long> getOccupiedSeatIds(Long deskId, LocalDate date, LocalTime start, LocalTime end) {
-        return reservationRepository.findOccupiedSeatIdsByDesk(deskId, date, start, end);
+        List<Long> occupied = new ArrayList<>(findReservedSeatIds(deskId, date, start, end));
+        // Baska kullanicilarin Adim 4'te tuttugu koltuklar da dolu gosterilir
+        for (Long heldSeatId : seatHoldRepository.findHeldSeatIdsByDesk(
+                deskId, date, start, end, currentUserIdOrNone(), LocalDateTime.now())) {
+            if (!occupied.contains(heldSeatId)) {
+                occupied.add(heldSeatId);
+            }
+        }
+        return occupied;
+    }
+
+    private List<Long> findReservedSeatIds(Long deskId, LocalDate date, LocalTime start, LocalTime end) {
+        Desk desk = deskRepository.findById(deskId).orElse(null);
+        if (desk == null || desk.getFacilityBlock() == null || desk.getFacilityBlock().getFacility() == null) {
+            return seatConflicts.findOccupiedSeatIdsByDesk(deskId, date, start, end);
+        }
+        return seatOccupancyIndex.getOccupiedSeatIds(desk.getFacilityBlock().getFacility().getId(), deskId, date, start, end);
+    }
+
+    private Long currentUserIdOrNone() {
+        User user = userSessionContext.getCurrentUser();
+        return user != null ? user.getId() : NO_USER_ID;
     }
 
     /**
@@ -314,7 +899,7 @@ public class ReservationService {
     public List<Reservation> getCurrentUserActiveReservations() {
         User user = userSessionContext.getCurrentUser();
         if (user == null) return new ArrayList<>();
-        return reservationRepository.findActiveReservationsByUserId(user.getId(), LocalDate.now(), LocalTime.now());
+        return reservationRepository.findActiveReservationsByUserId(user.getId());
     }
 
     /**
@@ -325,7 +910,38 @@ public class ReservationService {
         if (user == null) return new ArrayList<>();
 
         // Repository'de özel metod olmadığı için Java tarafında filtreliyoruz
-        return reservationRepository.findPastReservationsByUserId(user.getId(), LocalDate.now(), LocalTime.now());
+        return reservationRepository.findPastReservationsByUserId(user.getId());
+    }
+
+    /**
+     * Gecmis rezervasyonlarin bir sayfasi (yeniden eskiye). Ilk sayfa icin ReservationCursor.firstDescending(),
+     * sonraki sayfalar icin ReservationCursor.after(son kayit) verilir.
+     */
+    public List<Reservation> getCurrentUserPastReservationsPage(ReservationCursor before, int limit) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return new ArrayList<>();
+        return reservationRepository.findPastReservationsPage(user.getId(),
+                before.getReservationDate(), before.getStartTime(), before.getId(), limit);
+    }
+
+    /**
+     * Iptal edilen rezervasyonlarin bir sayfasi (yeniden eskiye).
+     */
+    public List<Reservation> getCurrentUserCancelledReservationsPage(ReservationCursor before, int limit) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return new ArrayList<>();
+        return reservationRepository.findCancelledReservationsPage(user.getId(),
+                before.getReservationDate(), before.getStartTime(), before.getId(), limit);
+    }
+
+    /**
+     * Tum rezervasyonlarin bir sayfasi (eskiden yeniye). Ilk sayfa icin ReservationCursor.firstAscending().
+     */
+    public List<Reservation> getCurrentUserReservationsPage(ReservationCursor after, int limit) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return new ArrayList<>();
+        return reservationRepository.findAllByUserIdPage(user.getId(),
+                after.getReservationDate(), after.getStartTime(), after.getId(), limit);
     }
 
     public String findBestTimeSuggestion(Facility facility, LocalDate date) {
@@ -692,10 +1308,39 @@ public class ReservationService {
     }
 
     /**
-     * Süresi dolmuş rezervasyonları tamamlandı olarak işaretler
-     * Scheduler veya uygulama başlangıcında çağrılabilir
+     * Kullanıcının audit loglarının bir sayfası (yeniden eskiye).
+     * Ilk sayfa icin beforeTimestamp/beforeId null verilir; sonraki sayfalar onceki sayfanin son kaydindan devam eder.
+     */
+    public List<Map<String, Object>> getUserAuditLogsPage(LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return new ArrayList<>();
+
+        List<Object[]> result = reservationRepository.getUserAuditLogsPage(user.getId(),
+                beforeTimestamp != null ? beforeTimestamp : LocalDateTime.of(9999, 12, 31, 23, 59),
+                beforeId != null ? beforeId : Long.MAX_VALUE,
+                limit);
+        List<Map<String, Object>> response = new ArrayList<>();
+
+        for (Object[] row : result) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", row[0]);
+            item.put("reservationId", row[1]);
+            item.put("actionType", row[2]);
+            item.put("actionTimestamp", row[3]);
+            item.put("userId", row[4]);
+            item.put("oldStatus", row[5]);
+            item.put("newStatus", row[6]);
+            item.put("details", row[7]);
+            response.add(item);
+        }
+        return response;
+    }
+
+    /**
+     * Süresi dolmuş rezervasyonları tamamlandı olarak işaretler.
+     * Normalde ReservationExpirySweeper 30 saniyede bir calisir; bu metod taramayi hemen tetikler.
      */
     public int markExpiredReservationsAsCompleted() {
-        return reservationRepository.markExpiredReservationsAsCompleted(LocalDate.now(), LocalTime.now());
+        return reservationExpirySweeper.sweep();
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.repository.reservation.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Koltuk cakisma sorgularinin veritabanina gore secimi.
+ * PostgreSQL'de ex_reservation_seat_period varsa sorgular period && tsrange ile kisitin GiST indeksini kullanir;
+ * H2 (dev) veya kisit eklenemediyse reservation_date + start/end_time karsilastirmasina duser.
+ */
+@Component
+public class SeatConflicts {
+
+    static final String SEAT_PERIOD_CONSTRAINT = "ex_reservation_seat_period";
+
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean seatPeriodConstraint;
+
+    /**
+     * PostgreSQL'de koltuk cakismasi EXCLUDE constraint ile garanti ediliyor mu?
+     * H2 (dev) veya kisit eklenemediyse false doner ve klasik sayim sorgusu kullanilir.
+     */
+    public boolean isGuardedByDatabase() {
+        if (seatPeriodConstraint == null) {
+            seatPeriodConstraint = hasConstraint();
+        }
+        return seatPeriodConstraint;
+    }
+
+    // pg_catalog sorgusu H2'de hata verir; bu durumda kisit yok kabul edilir
+    private boolean hasConstraint() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, SEAT_PERIOD_CONSTRAINT);
+            return count != null && count > 0;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Koltukta aralikla cakisan ACTIVE rezervasyon sayisi. excludeReservationId (tasima) null olabilir.
+     */
+    public int countReservations(Long seatId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                 Long excludeReservationId) {
+        if (isGuardedByDatabase()) {
+            LocalDateTime startAt = date.atTime(startTime);
+            LocalDateTime endAt = periodEnd(date, startTime, endTime);
+            return excludeReservationId == null
+                    ? reservationRepository.countConflictingReservationsByPeriod(seatId, startAt, endAt)
+                    : reservationRepository.countConflictingReservationsExcludingByPeriod(seatId, startAt, endAt, excludeReservationId);
+        }
+        return excludeReservationId == null
+                ? reservationRepository.countConflictingReservations(seatId, date, startTime, endTime)
+                : reservationRepository.countConflictingReservationsExcluding(seatId, date, startTime, endTime, excludeReservationId);
+    }
+
+    /**
+     * Masada aralikla cakisan ACTIVE rezervasyonu olan koltuklar.
+     */
+    public List<Long> findOccupiedSeatIdsByDesk(Long deskId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (isGuardedByDatabase()) {
+            return reservationRepository.findOccupiedSeatIdsByDeskPeriod(deskId, date.atTime(startTime),
+                    periodEnd(date, startTime, endTime));
+        }
+        return reservationRepository.findOccupiedSeatIdsByDesk(deskId, date, startTime, endTime);
+    }
+
+    // period kolonu ile ayni kural: 00:00 (veya baslangictan once) biten aralik ertesi gune tasar
+    private static LocalDateTime periodEnd(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return endTime.isAfter(startTime) ? date.atTime(endTime) : date.plusDays(1).atTime(endTime);
+    }
+}
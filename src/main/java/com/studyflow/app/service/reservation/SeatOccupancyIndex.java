@@ -0,0 +1,256 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.repository.reservation.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tesis + tarih bazinda ACTIVE rezervasyonlarin bellek ici doluluk bitmap'i.
+ * Her koltuk icin gunluk tek bir long tutulur (48 adet 30 dakikalik dilim, bkz. TimeSlots);
+ * "koltuk bos mu", "masada hangi koltuklar dolu" ve "kac koltuk bos" sorulari
+ * SQL overlap sorgusu yerine bitwise AND ile cevaplanir.
+ * Blok/masa toplamlari icin ReservationRepository'deki GROUP BY sorgulari kullanilir.
+ */
+@Component
+public class SeatOccupancyIndex {
+
+    // Baska bir istemcinin (kiosk) yaptigi degisiklikler icin ust sinir: bu sureden eski girdiler yeniden kurulur
+    private static final long MAX_ENTRY_AGE_MILLIS = 15_000;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private final Map<Key, FacilityDay> entries = new ConcurrentHashMap<>();
+
+    // ============================================
+    // 1. SORGULAR
+    // ============================================
+
+    /**
+     * Masadaki dolu koltuklarin ID listesi (Adim 4 koltuk haritasi).
+     */
+    public List<Long> getOccupiedSeatIds(Long facilityId, Long deskId, LocalDate date, LocalTime start, LocalTime end) {
+        return entryFor(facilityId, date).occupiedSeats(deskId, TimeSlots.toMinute(start), TimeSlots.toEndMinute(end));
+    }
+
+    /**
+     * Tek bir koltugun verilen aralikta dolu olup olmadigi.
+     */
+    public boolean isSeatOccupied(Long facilityId, Long seatId, LocalDate date, LocalTime start, LocalTime end) {
+        return entryFor(facilityId, date).isOccupied(seatId, TimeSlots.toMinute(start), TimeSlots.toEndMinute(end));
+    }
+
+    /**
+     * Tesiste verilen aralikta tamamen bos olan koltuk sayisi.
+     */
+    public int countFreeSeats(Long facilityId, LocalDate date, LocalTime start, LocalTime end) {
+        return entryFor(facilityId, date).countFree(TimeSlots.toMinute(start), TimeSlots.toEndMinute(end));
+    }
+
+    /**
+     * Koltugun o gunku dolu dilim maskesi. Bos dilim sayisi icin TimeSlots.freeSlotCount kullanilabilir.
+     */
+    public long getSeatSlotMask(Long facilityId, Long seatId, LocalDate date) {
+        return entryFor(facilityId, date).maskOf(seatId);
+    }
+
+    // ============================================
+    // 2. SENKRONIZASYON (ReservationService cagirir)
+    // ============================================
+
+    public void onReservationCreated(Long facilityId, Long seatId, LocalDate date, LocalTime start, LocalTime end) {
+        FacilityDay day = entries.get(new Key(facilityId, date));
+        if (day != null) {
+            day.add(seatId, TimeSlots.toMinute(start), TimeSlots.toEndMinute(end));
+        }
+    }
+
+    /**
+     * Iptal veya tasima: ayni dilimi paylasan baska bir kayit olabilecegi icin bitler silinmez,
+     * o tesis-gun girdisi bir sonraki okumada tablodan yeniden kurulur.
+     */
+    public void onReservationRemoved(Long facilityId, LocalDate date) {
+        entries.remove(new Key(facilityId, date));
+    }
+
+    /**
+     * Suresi dolan rezervasyonlar COMPLETED oldugunda bugun ve oncesine ait girdiler atilir.
+     */
+    public void onReservationsExpired(LocalDate currentDate) {
+        entries.keySet().removeIf(k -> !k.date().isAfter(currentDate));
+    }
+
+    public void invalidate(Long facilityId) {
+        entries.keySet().removeIf(k -> k.facilityId().equals(facilityId));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    // ============================================
+    // 3. BITMAP KURULUMU
+    // ============================================
+
+    private FacilityDay entryFor(Long facilityId, LocalDate date) {
+        Key key = new Key(facilityId, date);
+        FacilityDay day = entries.get(key);
+        if (day == null || day.isStale()) {
+            day = load(facilityId, date);
+            entries.put(key, day);
+        }
+        return day;
+    }
+
+    // Koltuklar + o gunun ACTIVE rezervasyonlari tek sorguda (seats LEFT JOIN reservations)
+    private FacilityDay load(Long facilityId, LocalDate date) {
+        List<Object[]> rows = reservationRepository.findSeatOccupancyRows(facilityId, date);
+
+        Map<Long, Long> deskBySeat = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            deskBySeat.putIfAbsent(((Number) row[1]).longValue(), ((Number) row[0]).longValue());
+        }
+
+        FacilityDay day = new FacilityDay(deskBySeat);
+        for (Object[] row : rows) {
+            if (row[2] != null && row[3] != null) {
+                day.add(((Number) row[1]).longValue(), toMinute(row[2]), toEndMinute(row[3]));
+            }
+        }
+        return day;
+    }
+
+    // Native sorgular H2/Postgres'e gore java.sql.Time veya LocalTime donebilir
+    private static LocalTime toLocalTime(Object value) {
+        if (value instanceof LocalTime time) {
+            return time;
+        }
+        if (value instanceof java.sql.Time time) {
+            return time.toLocalTime();
+        }
+        return LocalTime.parse(value.toString());
+    }
+
+    private static int toMinute(Object value) {
+        return TimeSlots.toMinute(toLocalTime(value));
+    }
+
+    private static int toEndMinute(Object value) {
+        return TimeSlots.toEndMinute(toLocalTime(value));
+    }
+
+    private record Key(Long facilityId, LocalDate date) {
+    }
+
+    /**
+     * Tek bir tesis-gun: sirali koltuk ID dizisi ve ayni indeksteki dilim maskeleri.
+     * 30 dakikaya oturmayan (eski/seed) araliklar maskeyi yanlis dolu gostermesin diye ayrica tutulur.
+     */
+    private static final class FacilityDay {
+        private final long loadedAt = System.currentTimeMillis();
+        private final long[] seatIds;
+        private final long[] slotMasks;
+        private final Map<Long, int[]> seatIndexesByDesk = new HashMap<>();
+        private final Map<Long, List<int[]>> unalignedBySeat = new HashMap<>();
+
+        FacilityDay(Map<Long, Long> deskBySeat) {
+            seatIds = deskBySeat.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            slotMasks = new long[seatIds.length];
+
+            Map<Long, List<Integer>> grouped = new LinkedHashMap<>();
+            deskBySeat.forEach((seatId, deskId) ->
+                    grouped.computeIfAbsent(deskId, d -> new ArrayList<>()).add(indexOf(seatId)));
+            grouped.forEach((deskId, indexes) ->
+                    seatIndexesByDesk.put(deskId, indexes.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        boolean isStale() {
+            return System.currentTimeMillis() - loadedAt > MAX_ENTRY_AGE_MILLIS;
+        }
+
+        private int indexOf(long seatId) {
+            return Arrays.binarySearch(seatIds, seatId);
+        }
+
+        synchronized void add(long seatId, int start, int end) {
+            int idx = indexOf(seatId);
+            if (idx < 0) {
+                return;
+            }
+            if (TimeSlots.isAligned(start, end)) {
+                slotMasks[idx] |= TimeSlots.maskOf(start, end);
+            } else {
+                unalignedBySeat.computeIfAbsent(seatId, s -> new ArrayList<>()).add(new int[]{start, end});
+            }
+        }
+
+        synchronized long maskOf(long seatId) {
+            int idx = indexOf(seatId);
+            if (idx < 0) {
+                return 0L;
+            }
+            long mask = slotMasks[idx];
+            for (int[] iv : unalignedBySeat.getOrDefault(seatId, List.of())) {
+                mask |= TimeSlots.maskOf(iv[0], iv[1]);
+            }
+            return mask;
+        }
+
+        synchronized boolean isOccupied(long seatId, int start, int end) {
+            int idx = indexOf(seatId);
+            return idx >= 0 && isOccupiedAt(idx, TimeSlots.maskOf(start, end), start, end);
+        }
+
+        // Hizalanmis kayitlar icin maske kesin sonuc verir; hizalanmamislar icin aralik karsilastirmasi yapilir
+        private boolean isOccupiedAt(int idx, long window, int start, int end) {
+            if ((slotMasks[idx] & window) != 0) {
+                return true;
+            }
+            List<int[]> unaligned = unalignedBySeat.get(seatIds[idx]);
+            if (unaligned != null) {
+                for (int[] iv : unaligned) {
+                    if (iv[0] < end && iv[1] > start) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized List<Long> occupiedSeats(Long deskId, int start, int end) {
+            List<Long> result = new ArrayList<>();
+            int[] indexes = seatIndexesByDesk.get(deskId);
+            if (indexes == null) {
+                return result;
+            }
+            long window = TimeSlots.maskOf(start, end);
+            for (int idx : indexes) {
+                if (isOccupiedAt(idx, window, start, end)) {
+                    result.add(seatIds[idx]);
+                }
+            }
+            return result;
+        }
+
+        synchronized int countFree(int start, int end) {
+            long window = TimeSlots.maskOf(start, end);
+            int free = 0;
+            for (int idx = 0; idx < seatIds.length; idx++) {
+                if (!isOccupiedAt(idx, window, start, end)) {
+                    free++;
+                }
+            }
+            return free;
+        }
+    }
+}
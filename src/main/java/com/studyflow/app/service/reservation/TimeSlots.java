@@ -0,0 +1,54 @@
+package com.studyflow.app.service.reservation;
+
+import java.time.LocalTime;
+
+/**
+ * Gunun 30 dakikalik dilimleri icin bit maskesi yardimcilari.
+ * Bir gun 48 dilimdir; i. bit [i*30, (i+1)*30) dakika araligini temsil eder.
+ */
+public final class TimeSlots {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 48;
+    public static final long FULL_DAY = (1L << SLOTS_PER_DAY) - 1;
+
+    private TimeSlots() {
+    }
+
+    public static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // 00:00 bitis saati gun sonu (24:00) kabul edilir
+    public static int toEndMinute(LocalTime time) {
+        int minute = toMinute(time);
+        return minute == 0 ? 24 * 60 : minute;
+    }
+
+    /**
+     * [start, end) araligina degen tum dilimlerin maskesi (disa dogru yuvarlanir).
+     */
+    public static long maskOf(int startMinute, int endMinute) {
+        int first = Math.max(0, startMinute / SLOT_MINUTES);
+        int last = Math.min(SLOTS_PER_DAY, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        if (last <= first) {
+            return 0L;
+        }
+        return ((1L << last) - 1) & ~((1L << first) - 1);
+    }
+
+    public static long maskOf(LocalTime start, LocalTime end) {
+        return maskOf(toMinute(start), toEndMinute(end));
+    }
+
+    /**
+     * Aralik tam olarak dilim sinirlarina oturuyor mu? Oturmayan araliklar maskede kesin temsil edilemez.
+     */
+    public static boolean isAligned(int startMinute, int endMinute) {
+        return startMinute % SLOT_MINUTES == 0 && endMinute % SLOT_MINUTES == 0;
+    }
+
+    public static int freeSlotCount(long occupiedMask) {
+        return Long.bitCount(~occupiedMask & FULL_DAY);
+    }
+}
@@ -0,0 +1,176 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.repository.reservation.WaitlistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bekleme listesinin bellek ici eslestirme indeksi.
+ * (tesis, gun) -> 48 adet 30 dakikalik dilim kovasi; her kova bekleyenleri baslangic dilimine gore
+ * kayit sirasiyla (FIFO) tutar. Bosalan bir aralik icin sadece o araliga denk gelen kovalar taranir,
+ * bu yuzden populer bir dilimde binlerce bekleyen olsa bile eslestirme tablo taramasi gerektirmez.
+ */
+@Component
+public class WaitlistEngine {
+
+    // Diger istemcilerin ekledigi kayitlar icin ust sinir: bu sureden eski kuyruklar yeniden yuklenir
+    private static final long MAX_ENTRY_AGE_MILLIS = 15_000;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    private final Map<Key, FacilityDayQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Bekleyen tek bir kayit. blockId/deskId/seatId null ise o seviyede "herhangi biri" kabul edilir.
+     */
+    public record Waiter(long entryId, long userId, Long blockId, Long deskId, Long seatId,
+                         int startMinute, int endMinute) {
+
+        boolean accepts(Long freedBlockId, Long freedDeskId, Long freedSeatId, int freedStart, int freedEnd) {
+            return startMinute >= freedStart && endMinute <= freedEnd
+                    && (blockId == null || blockId.equals(freedBlockId))
+                    && (deskId == null || deskId.equals(freedDeskId))
+                    && (seatId == null || seatId.equals(freedSeatId));
+        }
+    }
+
+    // ============================================
+    // 1. ESLESTIRME
+    // ============================================
+
+    /**
+     * Bosalan koltuga uyan en eski bekleyeni kuyruktan cikarir; yoksa null.
+     */
+    public Waiter pollMatch(Long facilityId, Long blockId, Long deskId, Long seatId,
+                            LocalDate date, LocalTime start, LocalTime end) {
+        return queueFor(facilityId, date).pollMatch(blockId, deskId, seatId,
+                TimeSlots.toMinute(start), TimeSlots.toEndMinute(end));
+    }
+
+    // ============================================
+    // 2. SENKRONIZASYON
+    // ============================================
+
+    /**
+     * Yeni kayit veya durum degisikligi sonrasi o tesis-gun kuyrugu bir sonraki eslestirmede yeniden yuklenir.
+     */
+    public void invalidate(Long facilityId, LocalDate date) {
+        queues.remove(new Key(facilityId, date));
+    }
+
+    public void invalidateAll() {
+        queues.clear();
+    }
+
+    // ============================================
+    // 3. KUYRUK KURULUMU
+    // ============================================
+
+    private FacilityDayQueue queueFor(Long facilityId, LocalDate date) {
+        Key key = new Key(facilityId, date);
+        FacilityDayQueue queue = queues.get(key);
+        if (queue == null || queue.isStale()) {
+            queue = load(facilityId, date);
+            queues.put(key, queue);
+        }
+        return queue;
+    }
+
+    private FacilityDayQueue load(Long facilityId, LocalDate date) {
+        FacilityDayQueue queue = new FacilityDayQueue();
+        for (Object[] row : waitlistRepository.findWaitingRows(facilityId, date)) {
+            queue.add(new Waiter(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    toLong(row[2]),
+                    toLong(row[3]),
+                    toLong(row[4]),
+                    TimeSlots.toMinute(toLocalTime(row[5])),
+                    TimeSlots.toEndMinute(toLocalTime(row[6]))));
+        }
+        return queue;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    // Native sorgular H2/Postgres'e gore java.sql.Time veya LocalTime donebilir
+    private static LocalTime toLocalTime(Object value) {
+        if (value instanceof LocalTime time) {
+            return time;
+        }
+        if (value instanceof java.sql.Time time) {
+            return time.toLocalTime();
+        }
+        return LocalTime.parse(value.toString());
+    }
+
+    private record Key(Long facilityId, LocalDate date) {
+    }
+
+    /**
+     * Tek bir tesis-gun: baslangic dilimine gore kovalar, her kova entryId sirasinda (FIFO).
+     */
+    private static final class FacilityDayQueue {
+        private final long loadedAt = System.currentTimeMillis();
+        // Dilim basina kova; kova ilk kayitta olusur (bos dilimler null)
+        private final List<List<Waiter>> bySlot = new ArrayList<>(Collections.nCopies(TimeSlots.SLOTS_PER_DAY, null));
+
+        boolean isStale() {
+            return System.currentTimeMillis() - loadedAt > MAX_ENTRY_AGE_MILLIS;
+        }
+
+        synchronized void add(Waiter waiter) {
+            int slot = Math.min(TimeSlots.SLOTS_PER_DAY - 1, waiter.startMinute() / TimeSlots.SLOT_MINUTES);
+            List<Waiter> bucket = bySlot.get(slot);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                bySlot.set(slot, bucket);
+            }
+            bucket.add(waiter);
+        }
+
+        synchronized Waiter pollMatch(Long blockId, Long deskId, Long seatId, int freedStart, int freedEnd) {
+            int firstSlot = freedStart / TimeSlots.SLOT_MINUTES;
+            int lastSlot = Math.min(TimeSlots.SLOTS_PER_DAY, (freedEnd + TimeSlots.SLOT_MINUTES - 1) / TimeSlots.SLOT_MINUTES);
+
+            // Her kovada ilk uyan kayit o kovanin en eskisidir; kovalar arasinda en kucuk entryId secilir
+            Waiter best = null;
+            int bestSlot = -1;
+            int bestIndex = -1;
+            for (int slot = firstSlot; slot < lastSlot; slot++) {
+                List<Waiter> bucket = bySlot.get(slot);
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.size(); i++) {
+                    Waiter waiter = bucket.get(i);
+                    if (best != null && waiter.entryId() > best.entryId()) {
+                        break;
+                    }
+                    if (waiter.accepts(blockId, deskId, seatId, freedStart, freedEnd)) {
+                        best = waiter;
+                        bestSlot = slot;
+                        bestIndex = i;
+                        break;
+                    }
+                }
+            }
+
+            if (best != null) {
+                bySlot.get(bestSlot).remove(bestIndex);
+            }
+            return best;
+        }
+    }
+}
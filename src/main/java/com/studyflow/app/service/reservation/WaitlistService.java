@@ -0,0 +1,203 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.model.reservation.WaitlistEntry;
+import com.studyflow.app.repository.reservation.ReservationRepository;
+import com.studyflow.app.repository.reservation.SeatHoldRepository;
+import com.studyflow.app.repository.reservation.WaitlistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Bekleme listesi: kayit, kapasite bosalinca FIFO teklif ve teklif suresi yonetimi.
+ * Teklif, bekleyen kullanici adina bir koltuk tutmasi (seat_holds) olarak yapilir;
+ * kullanici ana sayfada teklifi kabul edene veya sure dolana kadar koltuk baskasina gosterilmez.
+ */
+@Service
+public class WaitlistService {
+
+    // Teklif edilen koltugun bekleyen kullanici icin tutulma suresi
+    private static final long OFFER_MINUTES = 15;
+
+    @Autowired private WaitlistRepository waitlistRepository;
+    @Autowired private SeatHoldRepository seatHoldRepository;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private SeatConflicts seatConflicts;
+    @Autowired private WaitlistEngine waitlistEngine;
+
+    private TransactionTemplate offerTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.offerTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============================================
+    // 1. KAYIT
+    // ============================================
+
+    /**
+     * Kullaniciyi bekleme listesine ekler. Ayni aralik icin acik kaydi varsa false doner.
+     */
+    public boolean join(Long userId, Long facilityId, Long blockId, Long deskId, Long seatId,
+                        LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (waitlistRepository.countOpenEntries(userId, facilityId, date, startTime, endTime) > 0) {
+            return false;
+        }
+        waitlistRepository.insertEntry(userId, facilityId, blockId, deskId, seatId,
+                date, startTime, endTime, LocalDateTime.now());
+        waitlistEngine.invalidate(facilityId, date);
+        return true;
+    }
+
+    // ============================================
+    // 2. TEKLIF
+    // ============================================
+
+    /**
+     * Iptal, tasima veya suresi dolan teklif sonrasi bosalan koltugu ilk uygun bekleyene teklif eder.
+     */
+    public void onCapacityFreed(Long facilityId, Long blockId, Long deskId, Long seatId,
+                                LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (date.isBefore(LocalDate.now())) {
+            return;
+        }
+        WaitlistEngine.Waiter waiter;
+        boolean skipped = false;
+        try {
+            while ((waiter = waitlistEngine.pollMatch(facilityId, blockId, deskId, seatId, date, startTime, endTime)) != null) {
+                if (offer(waiter, seatId, date)) {
+                    return;
+                }
+                // Kayit baska bir istemcide teklif aldi/iptal edildi veya koltuk bu aralikta yeniden doldu; siradakine gec
+                skipped = true;
+            }
+        } finally {
+            // Kuyruktan cikarilip teklif alamayan kayitlar hala WAITING ise bir sonraki eslestirmede geri yuklenir
+            if (skipped) {
+                waitlistEngine.invalidate(facilityId, date);
+            }
+        }
+    }
+
+    /**
+     * Koltuk kilitliyken aralik hala bossa bekleyen adina tutma acar ve kaydi OFFERED yapar.
+     * Arada baska bir rezervasyon veya tutma olusmussa ya da kayit artik WAITING degilse false doner.
+     */
+    private boolean offer(WaitlistEngine.Waiter waiter, Long seatId, LocalDate date) {
+        LocalTime startTime = toTime(waiter.startMinute());
+        LocalTime endTime = toTime(waiter.endMinute());
+        Boolean offered = offerTransaction.execute(status -> {
+            reservationRepository.lockSeatForBooking(seatId);
+
+            LocalDateTime now = LocalDateTime.now();
+            if (seatConflicts.countReservations(seatId, date, startTime, endTime, null) > 0
+                    || seatHoldRepository.countConflictingHolds(seatId, date, startTime, endTime, waiter.userId(), now) > 0) {
+                return false;
+            }
+
+            LocalDateTime expiresAt = now.plusMinutes(OFFER_MINUTES);
+            seatHoldRepository.insertHold(seatId, waiter.userId(), date, startTime, endTime, expiresAt);
+            Long holdId = seatHoldRepository.findHoldId(seatId, waiter.userId(), date, startTime);
+            if (waitlistRepository.markOffered(waiter.entryId(), seatId, holdId, expiresAt) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(offered);
+    }
+
+    // 1440 (gun sonu) dakikasi 00:00 olarak saklanir
+    private static LocalTime toTime(int minute) {
+        return LocalTime.MIDNIGHT.plusMinutes(minute);
+    }
+
+    /**
+     * Suresi dolan teklifleri EXPIRED yapar ve koltugu siradaki bekleyene aktarir.
+     */
+    public void expireOffers(LocalDateTime now) {
+        for (Object[] row : waitlistRepository.findExpiredOfferRows(now)) {
+            Long entryId = ((Number) row[0]).longValue();
+            if (waitlistRepository.updateStatus(entryId, "OFFERED", "EXPIRED") == 0) {
+                continue;
+            }
+            onCapacityFreed(
+                    ((Number) row[4]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    toLocalDate(row[5]),
+                    toLocalTime(row[6]),
+                    toLocalTime(row[7]));
+        }
+    }
+
+    // ============================================
+    // 3. KULLANICI TEKLIFLERI
+    // ============================================
+
+    public List<WaitlistEntry> getActiveOffers(Long userId) {
+        return waitlistRepository.findActiveOffersByUserId(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Teklif rezervasyona donustu: kayit FULFILLED olur ve teklif tutmasi birakilir.
+     */
+    public void markFulfilled(WaitlistEntry entry) {
+        if (waitlistRepository.updateStatus(entry.getId(), "OFFERED", "FULFILLED") > 0) {
+            releaseOfferHold(entry);
+        }
+    }
+
+    /**
+     * Kullanici teklifi reddetti: tutma birakilir ve koltuk siradaki bekleyene teklif edilir.
+     */
+    public void decline(WaitlistEntry entry) {
+        if (waitlistRepository.updateStatus(entry.getId(), "OFFERED", "CANCELLED") == 0) {
+            return;
+        }
+        releaseOfferHold(entry);
+        var seat = entry.getOfferedSeat();
+        onCapacityFreed(entry.getFacility().getId(),
+                seat.getDesk().getFacilityBlock().getId(),
+                seat.getDesk().getId(),
+                seat.getId(),
+                entry.getReservationDate(),
+                entry.getStartTime(),
+                entry.getEndTime());
+    }
+
+    // Sadece bu teklif icin acilan tutma silinir; kullanicinin sihirbaz tutmasi ve diger teklifleri kalir
+    private void releaseOfferHold(WaitlistEntry entry) {
+        if (entry.getOfferHoldId() != null) {
+            seatHoldRepository.deleteHoldById(entry.getOfferHoldId());
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        if (value instanceof LocalTime time) {
+            return time;
+        }
+        if (value instanceof java.sql.Time time) {
+            return time.toLocalTime();
+        }
+        return LocalTime.parse(value.toString());
+    }
+}
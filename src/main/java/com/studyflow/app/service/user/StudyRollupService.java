@@ -0,0 +1,267 @@
+package com.studyflow.app.service.user;
+
+import com.studyflow.app.util.StartupTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Kullanici calisma suresi ozetleri (user_study_rollup_daily / weekly / monthly).
+ * Rezervasyon COMPLETED veya CANCELLED oldugunda ilgili gun/hafta/ay satirlari artirilir;
+ * profil ekrani ham rezervasyon listesi yerine bu satirlari okur.
+ * Bastan kurma tek transaction'dadir ve artimli guncellemelerle ayni anda calismaz: artimli yazanlar
+ * okuma kilidini transaction'lari bitene kadar tutar, bastan kurma yazma kilidi ile bekler.
+ *
+ * Order(3): sema (1) ve ornek veri (2) sonrasinda, bastan kurma henuz yapilmamissa (maintenance_markers'ta
+ * REBUILD_MARKER yok) bir kez bastan kurulur. Tablonun bos olmasina bakilmaz: zamanlanmis gorevlerin yazdigi
+ * artimli satirlar gecmisin eksik kalmasina yol acmasin.
+ */
+@Service
+@Order(3)
+public class StudyRollupService implements CommandLineRunner {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserStatsCache userStatsCache;
+
+    private TransactionTemplate rebuildTransaction;
+
+    // Artimli guncellemeler (okuma) ile bastan kurma (yazma) arasindaki kilit
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final Object rebuildLockResource = new Object();
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private static final String REBUILD_MARKER = "study_rollup_rebuild";
+
+    private static final String UPDATE_DAILY =
+            "UPDATE user_study_rollup_daily SET total_minutes = total_minutes + ?, session_count = session_count + ? " +
+            "WHERE user_id = ? AND study_date = ?";
+    private static final String INSERT_DAILY =
+            "INSERT INTO user_study_rollup_daily (user_id, study_date, total_minutes, session_count) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_WEEKLY =
+            "UPDATE user_study_rollup_weekly SET total_minutes = total_minutes + ?, session_count = session_count + ? " +
+            "WHERE user_id = ? AND week_start = ?";
+    private static final String INSERT_WEEKLY =
+            "INSERT INTO user_study_rollup_weekly (user_id, week_start, total_minutes, session_count) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_MONTHLY =
+            "UPDATE user_study_rollup_monthly SET total_minutes = total_minutes + ?, session_count = session_count + ?, " +
+            "min_minutes = LEAST(min_minutes, ?), max_minutes = GREATEST(max_minutes, ?), " +
+            "morning_count = morning_count + ?, afternoon_count = afternoon_count + ?, evening_count = evening_count + ? " +
+            "WHERE user_id = ? AND month_start = ?";
+    private static final String INSERT_MONTHLY =
+            "INSERT INTO user_study_rollup_monthly (user_id, month_start, total_minutes, session_count, min_minutes, max_minutes, " +
+            "morning_count, afternoon_count, evening_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Override
+    public void run(String... args) {
+        StartupTimings.time("Calisma ozetleri", this::rebuildIfNeeded);
+    }
+
+    private void rebuildIfNeeded() {
+        try {
+            Integer markers = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM maintenance_markers WHERE name = ?", Integer.class, REBUILD_MARKER);
+            if (markers != null && markers == 0) {
+                int sessions = rebuild();
+                System.out.println("[INFO] Calisma ozetleri " + sessions + " rezervasyondan olusturuldu.");
+            }
+        } catch (Exception e) {
+            System.out.println("[WARN] Calisma ozetleri olusturulamadi: " + e.getMessage());
+        }
+    }
+
+    // ============================================
+    // 1. ARTIMLI GUNCELLEME
+    // ============================================
+
+    /**
+     * Kapanan (COMPLETED/CANCELLED) tek bir rezervasyonu ozetlere ekler.
+     * Cagiran transaction'in parcasi olarak calisir; kullanicinin onbellekteki istatistikleri commit sonrasi silinir.
+     */
+    public void recordSession(Long userId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        holdRebuildLockUntilCompletion();
+        int minutes = sessionMinutes(startTime, endTime);
+        int[] buckets = timeOfDayBuckets(startTime);
+        Date day = Date.valueOf(date);
+        Date week = Date.valueOf(weekStart(date));
+        Date month = Date.valueOf(monthStart(date));
+
+        upsert(UPDATE_DAILY, new Object[]{minutes, 1, userId, day},
+                INSERT_DAILY, new Object[]{userId, day, minutes, 1});
+        upsert(UPDATE_WEEKLY, new Object[]{minutes, 1, userId, week},
+                INSERT_WEEKLY, new Object[]{userId, week, minutes, 1});
+        upsert(UPDATE_MONTHLY, new Object[]{minutes, 1, minutes, minutes, buckets[0], buckets[1], buckets[2], userId, month},
+                INSERT_MONTHLY, new Object[]{userId, month, minutes, 1, minutes, minutes, buckets[0], buckets[1], buckets[2]});
+        userStatsCache.invalidate(userId);
+    }
+
+    // Okuma kilidi cagiran transaction bitene kadar tutulur: commit edilmemis artis, bastan kurmanin
+    // okudugu goruntude yokken onun DELETE'i ile silinmesin. Transaction basina bir kez alinir.
+    private void holdRebuildLockUntilCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(rebuildLockResource)) {
+            return;
+        }
+        // lock() kuyrukta bekleyen bastan kurmanin arkasina gecer; o da bu transaction'dan once acilmis ve
+        // bizim satir kilitlerimizi bekleyen bir okuyucuyu bekliyorsa kilitlenme olur. tryLock() bekleyen
+        // yaziciyi atlar; sadece bastan kurma gercekten calisirken (yazma kilidi tutuluyken) beklenir.
+        while (!rebuildLock.readLock().tryLock()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        TransactionSynchronizationManager.bindResource(rebuildLockResource, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(rebuildLockResource);
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    // Once UPDATE; satir yoksa INSERT. Ayni anda baska biri ekledi ise UPDATE tekrarlanir (H2/PostgreSQL ortak)
+    private void upsert(String updateSql, Object[] updateArgs, String insertSql, Object[] insertArgs) {
+        if (jdbcTemplate.update(updateSql, updateArgs) > 0) {
+            return;
+        }
+        if (!tryInsert(insertSql, insertArgs)) {
+            jdbcTemplate.update(updateSql, updateArgs);
+        }
+    }
+
+    // INSERT savepoint icinde: PostgreSQL hatali komuttan sonra transaction'i iptal eder, geri donus savepoint'e olur
+    private boolean tryInsert(String insertSql, Object[] insertArgs) {
+        Boolean inserted = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.getAutoCommit() ? null : con.setSavepoint();
+            try {
+                jdbcTemplate.update(insertSql, insertArgs);
+                if (savepoint != null) {
+                    con.releaseSavepoint(savepoint);
+                }
+                return true;
+            } catch (DuplicateKeyException e) {
+                if (savepoint != null) {
+                    con.rollback(savepoint);
+                }
+                return false;
+            }
+        });
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    // ============================================
+    // 2. BASTAN KURMA
+    // ============================================
+
+    // Kapanmis oturumlar: dakika ve saat dilimi sessionMinutes / timeOfDayBuckets ile ayni kural (saniye atilir).
+    // Hafta baslangici pazartesi (ISODOW); ifadeler H2 ve PostgreSQL'de ortak
+    private static final String CLOSED_SESSIONS =
+            "SELECT user_id, study_date, week_start, month_start, start_hour, " +
+            "CASE WHEN end_minute > start_minute THEN end_minute - start_minute " +
+            "ELSE end_minute + 1440 - start_minute END AS minutes " +
+            "FROM (SELECT user_id, reservation_date AS study_date, " +
+            "reservation_date - CAST(EXTRACT(ISODOW FROM reservation_date) AS INTEGER) + 1 AS week_start, " +
+            "CAST(DATE_TRUNC('MONTH', reservation_date) AS DATE) AS month_start, " +
+            "CAST(EXTRACT(HOUR FROM start_time) AS INTEGER) AS start_hour, " +
+            "CAST(EXTRACT(HOUR FROM start_time) AS INTEGER) * 60 + CAST(EXTRACT(MINUTE FROM start_time) AS INTEGER) AS start_minute, " +
+            "CAST(EXTRACT(HOUR FROM end_time) AS INTEGER) * 60 + CAST(EXTRACT(MINUTE FROM end_time) AS INTEGER) AS end_minute " +
+            "FROM vw_reservations_all WHERE status IN ('COMPLETED', 'CANCELLED') AND user_id IS NOT NULL) r";
+
+    private static final String REBUILD_DAILY =
+            "INSERT INTO user_study_rollup_daily (user_id, study_date, total_minutes, session_count) " +
+            "SELECT user_id, study_date, SUM(minutes), COUNT(*) FROM (" + CLOSED_SESSIONS + ") s " +
+            "GROUP BY user_id, study_date";
+    private static final String REBUILD_WEEKLY =
+            "INSERT INTO user_study_rollup_weekly (user_id, week_start, total_minutes, session_count) " +
+            "SELECT user_id, week_start, SUM(minutes), COUNT(*) FROM (" + CLOSED_SESSIONS + ") s " +
+            "GROUP BY user_id, week_start";
+    private static final String REBUILD_MONTHLY =
+            "INSERT INTO user_study_rollup_monthly (user_id, month_start, total_minutes, session_count, min_minutes, max_minutes, " +
+            "morning_count, afternoon_count, evening_count) " +
+            "SELECT user_id, month_start, SUM(minutes), COUNT(*), MIN(minutes), MAX(minutes), " +
+            "SUM(CASE WHEN start_hour >= 6 AND start_hour < 12 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN start_hour >= 12 AND start_hour < 18 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN start_hour >= 6 AND start_hour < 18 THEN 0 ELSE 1 END) " +
+            "FROM (" + CLOSED_SESSIONS + ") s GROUP BY user_id, month_start";
+
+    /**
+     * Ozet tablolarini canli tablo + arsivdeki kapanmis rezervasyonlardan yeniden kurar. Donus: islenen rezervasyon sayisi.
+     * Toplama veritabaninda INSERT ... SELECT ... GROUP BY ile yapilir; satirlar uygulamaya tasinmaz,
+     * bellek kullanimi rezervasyon sayisindan bagimsizdir.
+     * Silme, yeniden yukleme ve REBUILD_MARKER kaydi tek transaction'dadir; profil ekrani yarim ozet gormez.
+     */
+    public int rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Integer sessions = rebuildTransaction.execute(status -> rebuildInTransaction());
+            userStatsCache.invalidateAll();
+            return sessions != null ? sessions : 0;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private int rebuildInTransaction() {
+        jdbcTemplate.update("DELETE FROM user_study_rollup_daily");
+        jdbcTemplate.update("DELETE FROM user_study_rollup_weekly");
+        jdbcTemplate.update("DELETE FROM user_study_rollup_monthly");
+        jdbcTemplate.update(REBUILD_DAILY);
+        jdbcTemplate.update(REBUILD_WEEKLY);
+        jdbcTemplate.update(REBUILD_MONTHLY);
+        jdbcTemplate.update("DELETE FROM maintenance_markers WHERE name = ?", REBUILD_MARKER);
+        jdbcTemplate.update("INSERT INTO maintenance_markers (name, completed_at) VALUES (?, ?)",
+                REBUILD_MARKER, new Timestamp(System.currentTimeMillis()));
+        Integer sessions = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(session_count), 0) FROM user_study_rollup_monthly", Integer.class);
+        return sessions != null ? sessions : 0;
+    }
+
+    // ============================================
+    // 3. YARDIMCILAR
+    // ============================================
+
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    public static LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    // 00:00 (veya baslangictan once) biten oturum ertesi gune tasar
+    private static int sessionMinutes(LocalTime startTime, LocalTime endTime) {
+        int start = startTime.toSecondOfDay() / 60;
+        int end = endTime.toSecondOfDay() / 60;
+        return end > start ? end - start : end + 24 * 60 - start;
+    }
+
+    // Profil ekranindaki "en verimli aralik": sabah 06-12, ogleden sonra 12-18, aksam digerleri
+    private static int[] timeOfDayBuckets(LocalTime startTime) {
+        int hour = startTime.getHour();
+        if (hour >= 6 && hour < 12) return new int[]{1, 0, 0};
+        if (hour >= 12 && hour < 18) return new int[]{0, 1, 0};
+        return new int[]{0, 0, 1};
+    }
+}
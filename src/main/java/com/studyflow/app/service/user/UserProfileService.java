@@ -6,43 +6,53 @@ import com.studyflow.app.model.user.User;
 import com.studyflow.app.model.dto.UserProfileStats;
 import com.studyflow.app.repository.reservation.ReservationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Date;
 import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.time.temporal.WeekFields;
 import java.util.*;
 
+/**
+ * Profil istatistikleri. Ham rezervasyon listesi yerine StudyRollupService'in
+ * gunluk / haftalik / aylik ozet satirlarini okur (kullanici basina birkac satir).
+ * Hesaplanan sonuclar UserStatsCache'te tutulur; ay degistirmek tekrar sorgu atmaz.
+ */
 @Service
 public class UserProfileService {
 
     @Autowired private ReservationRepository reservationRepository;
     @Autowired private UserSessionContext userSessionContext;
-
-    // --- MEVCUT METOTLAR (calculateUserStats vb.) AYNEN KALIYOR ---
-    // (Kod tekrarı olmaması için buraya sadece YENİ eklenen metotları yazıyorum,
-    // lüfen dosyanın içindeki eski metotları silme.)
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserStatsCache userStatsCache;
 
     public UserProfileStats calculateUserStats() {
-        // ... (Eski kodlar aynen kalacak) ...
         User user = userSessionContext.getCurrentUser();
         if (user == null) return null;
-        List<Reservation> history = reservationRepository.findPastReservationsByUserId(user.getId(), LocalDate.now(), LocalTime.now());
+        return userStatsCache.getStats(user.getId(), () -> loadUserStats(user));
+    }
+
+    private UserProfileStats loadUserStats(User user) {
+        // Son 4 haftanin toplamlari (index 0 = bu hafta)
+        long[] weeks = getWeeklyMinutes(user.getId(), 4);
+        SessionSummary summary = getSessionSummary(user.getId());
 
         return UserProfileStats.builder()
-                .totalTimeThisWeek(calculateWeeklyTotal(history, 0))
-                .totalTimeLastWeek(calculateWeeklyTotal(history, 1))
-                .weeklyComparison(calculateComparison(history))
-                .isIncrease(isTrendIncreasing(history))
-                .mostProductiveRange(findProductiveRange(history))
-                .productivityMessage(getProductivityMessage(history))
-                .averageDuration(formatDuration(calculateAverageDuration(history)))
-                .longestSession(formatDuration(calculateMaxDuration(history)))
-                .shortestSession(formatDuration(calculateMinDuration(history)))
-                .last4WeeksTrend(calculate4WeeksTrend(history))
+                .totalTimeThisWeek(formatMinutes(weeks[0]))
+                .totalTimeLastWeek(formatMinutes(weeks[1]))
+                .weeklyComparison(calculateComparison(weeks[0], weeks[1]))
+                .isIncrease(weeks[0] >= weeks[1])
+                .mostProductiveRange(findProductiveRange(summary))
+                .productivityMessage(getProductivityMessage(summary))
+                .averageDuration(formatDuration(summary.sessions == 0
+                        ? Duration.ZERO : Duration.ofMinutes(summary.totalMinutes / summary.sessions)))
+                .longestSession(formatDuration(Duration.ofMinutes(summary.maxMinutes)))
+                .shortestSession(formatDuration(Duration.ofMinutes(summary.minMinutes)))
+                .last4WeeksTrend(calculate4WeeksTrend(weeks))
                 .build();
     }
 
@@ -50,11 +60,17 @@ public class UserProfileService {
     public List<Reservation> getAllHistory() {
         User user = userSessionContext.getCurrentUser();
         if (user == null) return new ArrayList<>();
-        return reservationRepository.findPastReservationsByUserId(user.getId(), LocalDate.now(), LocalTime.now());
+        return reservationRepository.findPastReservationsByUserId(user.getId());
     }
 
-    // --- YENİ: AYLIK TREND HESAPLAMA (Son X Ay) ---
-    public Map<String, Double> calculateMonthlyTrend(List<Reservation> history, int monthsBack) {
+    // --- AYLIK TREND HESAPLAMA (Son X Ay) ---
+    public Map<String, Double> calculateMonthlyTrend(int monthsBack) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return loadMonthlyTrend(null, monthsBack);
+        return userStatsCache.getMonthlyTrend(user.getId(), monthsBack, () -> loadMonthlyTrend(user, monthsBack));
+    }
+
+    private Map<String, Double> loadMonthlyTrend(User user, int monthsBack) {
         Map<String, Double> trend = new LinkedHashMap<>();
         LocalDate now = LocalDate.now();
 
@@ -65,125 +81,114 @@ public class UserProfileService {
             trend.put(monthName, 0.0); // Başlangıç değeri 0
         }
 
-        // Verileri doldur
-        for (Reservation r : history) {
-            LocalDate date = r.getReservationDate();
-            // Tarih, belirlediğimiz aralıkta mı? (Basit kontrol: Ay ismi eşleşiyor mu ve yıl mantıklı mı?)
-            // Daha kesin kontrol için: date.isAfter(now.minusMonths(monthsBack))
-            if (date.isAfter(now.minusMonths(monthsBack).withDayOfMonth(1).minusDays(1))) {
-                String monthName = date.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-
-                // Map'te varsa topla
-                if (trend.containsKey(monthName)) {
-                    double hours = Duration.between(r.getStartTime(), r.getEndTime()).toMinutes() / 60.0;
-                    trend.put(monthName, trend.get(monthName) + hours);
-                }
-            }
-        }
+        if (user == null || monthsBack <= 0) return trend;
+
+        LocalDate from = StudyRollupService.monthStart(now.minusMonths(monthsBack - 1));
+        jdbcTemplate.query("SELECT month_start, total_minutes FROM user_study_rollup_monthly " +
+                "WHERE user_id = ? AND month_start >= ?", rs -> {
+            String monthName = rs.getDate(1).toLocalDate().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            double hours = rs.getLong(2) / 60.0;
+            trend.computeIfPresent(monthName, (k, v) -> v + hours);
+        }, user.getId(), Date.valueOf(from));
 
         // Yuvarlama yap
         trend.replaceAll((k, v) -> Math.round(v * 10.0) / 10.0);
         return trend;
     }
 
-    // --- YENİ: SPESİFİK BİR AYIN HAFTALIK ANALİZİ ---
-    public Map<String, Double> calculateSpecificMonthTrend(List<Reservation> history, Month selectedMonth) {
+    // --- SPESİFİK BİR AYIN HAFTALIK ANALİZİ ---
+    public Map<String, Double> calculateSpecificMonthTrend(Month selectedMonth) {
+        User user = userSessionContext.getCurrentUser();
+        if (user == null) return loadSpecificMonthTrend(null, selectedMonth);
+        return userStatsCache.getSpecificMonthTrend(user.getId(), selectedMonth, () -> loadSpecificMonthTrend(user, selectedMonth));
+    }
+
+    private Map<String, Double> loadSpecificMonthTrend(User user, Month selectedMonth) {
         Map<String, Double> trend = new LinkedHashMap<>();
-        // 4 veya 5 hafta olabilir, standart 5 hafta açalım
+        // 4 veya 5 hafta olabilir, standart 4 hafta açalım
         trend.put("Week 1", 0.0);
         trend.put("Week 2", 0.0);
         trend.put("Week 3", 0.0);
         trend.put("Week 4", 0.0);
 
-        int currentYear = LocalDate.now().getYear();
+        if (user == null) return trend;
 
-        for (Reservation r : history) {
-            LocalDate date = r.getReservationDate();
-            // Yıl ve Ay kontrolü
-            if (date.getYear() == currentYear && date.getMonth() == selectedMonth) {
-                // Ayın kaçıncı haftası?
-                // AlignedWeekOfMonth: 1 ile 5 arası değer döner
-                int weekNum = date.get(WeekFields.of(Locale.ENGLISH).weekOfMonth());
-                String key = "Week " + weekNum;
+        // Ayin gunluk ozet satirlari (en fazla 31 satir)
+        LocalDate first = LocalDate.of(LocalDate.now().getYear(), selectedMonth, 1);
+        jdbcTemplate.query("SELECT study_date, total_minutes FROM user_study_rollup_daily " +
+                "WHERE user_id = ? AND study_date >= ? AND study_date < ?", rs -> {
+            LocalDate date = rs.getDate(1).toLocalDate();
+            // Ayın kaçıncı haftası? (1 ile 5 arası değer döner)
+            int weekNum = date.get(WeekFields.of(Locale.ENGLISH).weekOfMonth());
+            trend.merge("Week " + weekNum, rs.getLong(2) / 60.0, Double::sum); // Varsa ekle, yoksa koy
+        }, user.getId(), Date.valueOf(first), Date.valueOf(first.plusMonths(1)));
 
-                double hours = Duration.between(r.getStartTime(), r.getEndTime()).toMinutes() / 60.0;
-                trend.merge(key, hours, Double::sum); // Varsa ekle, yoksa koy
-            }
-        }
-
-        // Yuvarlama ve Boş Key Temizliği (Opsiyonel)
         trend.replaceAll((k, v) -> Math.round(v * 10.0) / 10.0);
         return trend;
     }
 
-    // --- ESKİ YARDIMCI METOTLAR (Bunlar silinmemeli) ---
-    private long getMinutesForWeek(List<Reservation> list, int weeksBack) {
-        int targetWeek = LocalDate.now().get(WeekFields.ISO.weekOfWeekBasedYear()) - weeksBack;
-        return list.stream()
-                .filter(r -> r.getReservationDate().get(WeekFields.ISO.weekOfWeekBasedYear()) == targetWeek)
-                .mapToLong(r -> Duration.between(r.getStartTime(), r.getEndTime()).toMinutes())
-                .sum();
+    // ============================================
+    // OZET TABLO OKUMA
+    // ============================================
+
+    // Haftalik ozetten son N haftanin dakikalari; hafta baslangici (Pazartesi) ile eslesir, yil gecisinde de dogru
+    private long[] getWeeklyMinutes(Long userId, int weekCount) {
+        LocalDate thisWeek = StudyRollupService.weekStart(LocalDate.now());
+        long[] minutes = new long[weekCount];
+        jdbcTemplate.query("SELECT week_start, total_minutes FROM user_study_rollup_weekly " +
+                "WHERE user_id = ? AND week_start >= ? AND week_start <= ?", rs -> {
+            LocalDate weekStart = rs.getDate(1).toLocalDate();
+            int weeksBack = (int) (Duration.between(weekStart.atStartOfDay(), thisWeek.atStartOfDay()).toDays() / 7);
+            if (weeksBack >= 0 && weeksBack < weekCount) {
+                minutes[weeksBack] += rs.getLong(2);
+            }
+        }, userId, Date.valueOf(thisWeek.minusWeeks(weekCount - 1)), Date.valueOf(thisWeek));
+        return minutes;
+    }
+
+    // Tum aylarin birlesimi: toplam/adet/min/max ve zaman dilimi sayaclari tek satirda
+    private SessionSummary getSessionSummary(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total_minutes), 0), COALESCE(SUM(session_count), 0), " +
+                "COALESCE(MIN(min_minutes), 0), COALESCE(MAX(max_minutes), 0), " +
+                "COALESCE(SUM(morning_count), 0), COALESCE(SUM(afternoon_count), 0), COALESCE(SUM(evening_count), 0) " +
+                "FROM user_study_rollup_monthly WHERE user_id = ?",
+                (rs, rowNum) -> new SessionSummary(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                        rs.getLong(5), rs.getLong(6), rs.getLong(7)),
+                userId);
     }
 
-    private String calculateWeeklyTotal(List<Reservation> list, int weeksBack) {
-        long totalMinutes = getMinutesForWeek(list, weeksBack);
-        return formatMinutes(totalMinutes);
+    private record SessionSummary(long totalMinutes, long sessions, long minMinutes, long maxMinutes,
+                                  long morning, long afternoon, long evening) {
     }
 
-    private String calculateComparison(List<Reservation> list) {
-        long thisWeek = getMinutesForWeek(list, 0);
-        long lastWeek = getMinutesForWeek(list, 1);
+    // --- YARDIMCI METOTLAR ---
+    private String calculateComparison(long thisWeek, long lastWeek) {
         long diff = thisWeek - lastWeek;
 
         String prefix = diff >= 0 ? "+" : "-";
         return prefix + formatMinutes(Math.abs(diff)) + (diff >= 0 ? " increase" : " decrease");
     }
 
-    private boolean isTrendIncreasing(List<Reservation> list) {
-        return getMinutesForWeek(list, 0) >= getMinutesForWeek(list, 1);
-    }
-
-    private String findProductiveRange(List<Reservation> list) {
-        if (list.isEmpty()) return "N/A";
-        int morning = 0, afternoon = 0, evening = 0;
-        for (Reservation r : list) {
-            int hour = r.getStartTime().getHour();
-            if (hour >= 6 && hour < 12) morning++;
-            else if (hour >= 12 && hour < 18) afternoon++;
-            else evening++;
-        }
-        if (morning >= afternoon && morning >= evening) return "06:00 – 12:00";
-        if (afternoon >= morning && afternoon >= evening) return "12:00 – 18:00";
+    private String findProductiveRange(SessionSummary s) {
+        if (s.sessions == 0) return "N/A";
+        if (s.morning >= s.afternoon && s.morning >= s.evening) return "06:00 – 12:00";
+        if (s.afternoon >= s.morning && s.afternoon >= s.evening) return "12:00 – 18:00";
         return "18:00 – 24:00";
     }
 
-    private String getProductivityMessage(List<Reservation> list) {
-        if (list.isEmpty()) return "Start studying to see stats!";
-        String range = findProductiveRange(list);
+    private String getProductivityMessage(SessionSummary s) {
+        if (s.sessions == 0) return "Start studying to see stats!";
+        String range = findProductiveRange(s);
         if (range.startsWith("06")) return "You are an early bird!";
         if (range.startsWith("12")) return "You prefer afternoon sessions.";
         return "You are a night owl!";
     }
 
-    private Duration calculateAverageDuration(List<Reservation> list) {
-        if (list.isEmpty()) return Duration.ZERO;
-        long totalMin = list.stream().mapToLong(r -> Duration.between(r.getStartTime(), r.getEndTime()).toMinutes()).sum();
-        return Duration.ofMinutes(totalMin / list.size());
-    }
-
-    private Duration calculateMaxDuration(List<Reservation> list) {
-        return list.stream().map(r -> Duration.between(r.getStartTime(), r.getEndTime())).max(Duration::compareTo).orElse(Duration.ZERO);
-    }
-
-    private Duration calculateMinDuration(List<Reservation> list) {
-        return list.stream().map(r -> Duration.between(r.getStartTime(), r.getEndTime())).min(Duration::compareTo).orElse(Duration.ZERO);
-    }
-
-    private Map<String, Double> calculate4WeeksTrend(List<Reservation> list) {
+    private Map<String, Double> calculate4WeeksTrend(long[] weeks) {
         Map<String, Double> trend = new LinkedHashMap<>();
         for (int i = 3; i >= 0; i--) {
-            long minutes = getMinutesForWeek(list, i);
-            double hours = Math.round((minutes / 60.0) * 10.0) / 10.0;
+            double hours = Math.round((weeks[i] / 60.0) * 10.0) / 10.0;
             String label = (i == 0) ? "This Week" : (i + " Weeks Ago");
             if (i == 1) label = "Last Week";
             trend.put(label, hours);
@@ -206,4 +211,4 @@ public class UserProfileService {
         if (hours > 0) return hours + "h " + minutes + "m";
         return minutes + "m";
     }
-}
\ No newline at end of file
+}
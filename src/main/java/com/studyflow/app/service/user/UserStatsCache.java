@@ -0,0 +1,184 @@
+package com.studyflow.app.service.user;
+
+import com.studyflow.app.model.dto.UserProfileStats;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Profil ekraninin hesapladigi UserProfileStats ve trend haritalarinin kullanici basina bellek ici onbellegi.
+ * En fazla MAX_USERS kullanici tutulur; dolunca en uzun suredir okunmayan kullanici atilir (LRU).
+ * Girdiler sadece olusturulduklari gun gecerlidir ("bu hafta" gun degisince kayar).
+ *
+ * Gecersizlestirme: rezervasyon olusturma / guncelleme (ReservationService), iptal ve suresi dolma
+ * (StudyRollupService.recordSession) ilgili kullanicinin girdisini siler. Transaction icinden cagrilirsa
+ * silme commit sonrasina ertelenir; boylece commit oncesi eski veriyle tekrar doldurulamaz.
+ */
+@Component
+public class UserStatsCache {
+
+    private static final int MAX_USERS = 256;
+
+    // access-order LinkedHashMap; tum erisimler this uzerinden senkron
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > MAX_USERS) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Her gecersizlestirmede artar; hesaplama surerken gecersizlesen sonuc onbellege yazilmaz
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private long lastLoggedRequests;
+
+    // ============================================
+    // 1. OKUMA
+    // ============================================
+
+    public UserProfileStats getStats(Long userId, Supplier<UserProfileStats> loader) {
+        return lookup(userId, "stats", loader);
+    }
+
+    public Map<String, Double> getMonthlyTrend(Long userId, int monthsBack, Supplier<Map<String, Double>> loader) {
+        return lookup(userId, "months:" + monthsBack, () -> Collections.unmodifiableMap(loader.get()));
+    }
+
+    public Map<String, Double> getSpecificMonthTrend(Long userId, Month month, Supplier<Map<String, Double>> loader) {
+        return lookup(userId, "month:" + month, () -> Collections.unmodifiableMap(loader.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(Long userId, String key, Supplier<T> loader) {
+        LocalDate today = LocalDate.now();
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.day.equals(today)) {
+                Object value = entry.values.get(key);
+                if (value != null) {
+                    hits.incrementAndGet();
+                    return (T) value;
+                }
+            }
+            startGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                Entry entry = entries.get(userId);
+                if (entry == null || !entry.day.equals(today)) {
+                    entry = new Entry(today);
+                    entries.put(userId, entry);
+                }
+                entry.values.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    // ============================================
+    // 2. GECERSIZLESTIRME
+    // ============================================
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                entries.remove(userId);
+            }
+            invalidations.incrementAndGet();
+        });
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                entries.clear();
+            }
+            invalidations.incrementAndGet();
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ============================================
+    // 3. METRIKLER
+    // ============================================
+
+    public record Metrics(long hits, long misses, long evictions, long invalidations, int size) {
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    public Metrics getMetrics() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new Metrics(hits.get(), misses.get(), evictions.get(), invalidations.get(), size);
+    }
+
+    // Boyutlandirma icin: son kayittan beri istek geldiyse ozet satiri
+    @Scheduled(initialDelay = 600_000, fixedDelay = 600_000)
+    public void logMetrics() {
+        Metrics m = getMetrics();
+        long requests = m.hits() + m.misses();
+        if (requests == lastLoggedRequests) {
+            return;
+        }
+        lastLoggedRequests = requests;
+        System.out.printf("[CACHE] user-stats size=%d/%d hits=%d misses=%d hitRatio=%.2f evictions=%d invalidations=%d%n",
+                m.size(), MAX_USERS, m.hits(), m.misses(), m.hitRatio(), m.evictions(), m.invalidations());
+    }
+
+    private static final class Entry {
+        final LocalDate day;
+        final Map<String, Object> values = new HashMap<>();
+
+        Entry(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -33,6 +33,10 @@ public class DatabasePopulator implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        StartupTimings.time("Ornek veri kontrolu", this::populate);
+    }
+
+    private void populate() {
         System.out.println("========================================================");
         System.out.println("       STUDYFLOW VERITABANI DOLDURMA BASLADI");
         System.out.println("========================================================");
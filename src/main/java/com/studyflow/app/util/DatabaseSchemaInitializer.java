@@ -3,100 +3,205 @@ package com.studyflow.app.util;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.stream.Collectors;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Veritabanı şemasını başlangıçta oluşturur.
- * View, Function, Trigger, Index ve Constraint'leri yükler.
+ * Veritabani semasini surumlu migration script'leri ile gunceller.
+ * Script'ler: db/migration/{postgresql|h2}/V<surum>__<aciklama>.sql (veritabani turune gore klasor).
+ *  - Uygulanan surumler ve SHA-256 checksum'lari schema_migrations tablosunda tutulur.
+ *  - Acilista tek sorgu ile bu tablo okunur; uygulanmis script'ler hic calistirilmaz.
+ *  - Uygulanmis bir script degistirilemez: checksum farkliysa uygulama acilmaz. Degisiklik yeni bir
+ *    V<surum> script'i ile yapilir.
+ *  - Yeni surum tek transaction'da uygulanir ve kaydedilir; hata olursa geri alinir, sonraki surumlere
+ *    gecilmez ve uygulama acilmaz (eksik sema ile calismak yerine; sonraki acilista tekrar denenir).
+ *  - Eklenti (pg_trgm, btree_gist) gerektiren kisimlar ayri surumlerde, hata yakalayan DO bloklari icindedir:
+ *    eklenti yoksa sadece o indeks/kisit atlanir, uygulama Java tarafli yedek yola duser.
+ * H2 DDL'i otomatik commit ettigi icin orada transaction sadece kaydi korur; yarim kalan bir surum
+ * tekrar denenebilsin diye nesneler IF NOT EXISTS / OR REPLACE ile olusturulur.
+ * Tablolar Hibernate (ddl-auto=update) ile olusur; bu sinif view, fonksiyon, trigger, index ve kisitlari ekler.
  * DatabasePopulator'dan önce çalışmalı (Order = 1).
  */
 @Component
 @Order(1)
 public class DatabaseSchemaInitializer implements CommandLineRunner {
 
+    private static final String MIGRATION_ROOT = "db/migration/";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String CREATE_METADATA_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "checksum VARCHAR(64) NOT NULL, " +
+            "applied_at TIMESTAMP NOT NULL, " +
+            "execution_ms BIGINT NOT NULL)";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    private TransactionTemplate migrationTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.migrationTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private record Migration(int version, String description, String script, String checksum) {
+    }
+
     @Override
     public void run(String... args) throws Exception {
-        System.out.println("========================================");
-        System.out.println("   VERITABANI SEMASI BASLATILIYOR");
-        System.out.println("========================================");
+        StartupTimings.time("Sema kontrolu", this::migrate);
+    }
+
+    // ============================================
+    // 1. SURUM KONTROLU
+    // ============================================
 
+    private void migrate() {
         try {
-            // schema.sql dosyasini oku
-            ClassPathResource resource = new ClassPathResource("schema.sql");
-            
-            if (!resource.exists()) {
-                System.out.println("[WARN] schema.sql dosyasi bulunamadi. Sema olusturma atlandi.");
+            String vendor = detectVendor();
+            List<Migration> migrations = loadMigrations(vendor);
+            if (migrations.isEmpty()) {
+                System.out.println("[WARN] " + MIGRATION_ROOT + vendor + " altinda migration bulunamadi. Sema kontrolu atlandi.");
                 return;
             }
 
-            String sqlScript;
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-                sqlScript = reader.lines().collect(Collectors.joining("\n"));
-            }
-
-            // SQL scriptini çalıştır
-            // Her bir statement'ı ayrı ayrı çalıştır
-            String[] statements = splitSqlStatements(sqlScript);
-            
-            int successCount = 0;
-            int errorCount = 0;
-            
-            for (String statement : statements) {
-                statement = statement.trim();
-                if (statement.isEmpty() || statement.startsWith("--")) {
+            Map<Integer, String> applied = loadAppliedChecksums();
+            int appliedCount = 0;
+            for (Migration migration : migrations) {
+                String checksum = applied.get(migration.version());
+                if (migration.checksum().equals(checksum)) {
                     continue;
                 }
-                
-                try {
-                    jdbcTemplate.execute(statement);
-                    successCount++;
-                } catch (Exception e) {
-                    // Bazi hatalar beklenen durumlar olabilir (zaten var olan objeler vs.)
-                    if (!e.getMessage().contains("already exists") && 
-                        !e.getMessage().contains("duplicate key") &&
-                        !e.getMessage().contains("does not exist")) {
-                        System.out.println("[WARN] SQL Hata: " + e.getMessage().substring(0, Math.min(100, e.getMessage().length())));
-                        errorCount++;
-                    }
+                if (checksum != null) {
+                    // Uygulanmis surum yeniden calistirilmaz: degisiklik yeni bir V<surum> script'i olmali
+                    throw new IllegalStateException("V" + migration.version() + " uygulandiktan sonra degistirilmis " +
+                            "(checksum farkli). Degisiklikleri yeni bir migration script'ine tasiyin.");
+                }
+                if (!apply(migration)) {
+                    // Sonraki surumler ve uygulama bu surume bagli: yarim sema ile acilmaz
+                    throw new IllegalStateException("Migration V" + migration.version() + " uygulanamadi");
                 }
+                appliedCount++;
+            }
+
+            if (appliedCount == 0) {
+                System.out.println("[INFO] Veritabani semasi guncel (" + vendor + ", V" +
+                        migrations.get(migrations.size() - 1).version() + ").");
             }
-            
-            System.out.println("========================================");
-            System.out.println("   [OK] SEMA BASLATMA TAMAMLANDI");
-            System.out.println("   Basarili: " + successCount + " | Hata: " + errorCount);
-            System.out.println("========================================");
-            
-            // Sema ozetini yazdir
-            printSchemaInfo();
-            
         } catch (Exception e) {
             System.err.println("[ERROR] SEMA BASLATMA HATASI: " + e.getMessage());
-            e.printStackTrace();
+            throw e instanceof IllegalStateException ise ? ise : new IllegalStateException("Sema baslatilamadi", e);
+        }
+    }
+
+    // Klasor adi: PostgreSQL -> postgresql, H2 -> h2
+    private String detectVendor() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("h2") ? "h2" : "postgresql";
+    }
+
+    private List<Migration> loadMigrations(String vendor) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(getClass().getClassLoader());
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : resolver.getResources("classpath*:" + MIGRATION_ROOT + vendor + "/V*__*.sql")) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename() != null ? resource.getFilename() : "");
+            if (!matcher.matches()) {
+                System.out.println("[WARN] Migration adi gecersiz, atlandi: " + resource.getFilename());
+                continue;
+            }
+            // Satir sonlari normalize edilir: checkout ayarlari checksum'i degistirmesin
+            String script = resource.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '), script, sha256(script)));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    // Normal acilista calisan tek sorgu; tablo yoksa (ilk acilis) olusturulur
+    private Map<Integer, String> loadAppliedChecksums() {
+        Map<Integer, String> applied = new HashMap<>();
+        try {
+            jdbcTemplate.query("SELECT version, checksum FROM schema_migrations",
+                    rs -> { applied.put(rs.getInt("version"), rs.getString("checksum")); });
+        } catch (DataAccessException e) {
+            jdbcTemplate.execute(CREATE_METADATA_SQL);
         }
+        return applied;
     }
-    
+
+    // ============================================
+    // 2. UYGULAMA
+    // ============================================
+
+    private boolean apply(Migration migration) {
+        System.out.println("========================================");
+        System.out.println("   MIGRATION V" + migration.version() + " (" + migration.description() + ")");
+        System.out.println("========================================");
+
+        long started = System.currentTimeMillis();
+        List<String> statements = splitSqlStatements(migration.script());
+        try {
+            migrationTransaction.executeWithoutResult(status -> {
+                for (String statement : statements) {
+                    jdbcTemplate.execute(statement);
+                }
+                long elapsed = System.currentTimeMillis() - started;
+                jdbcTemplate.update("INSERT INTO schema_migrations (version, description, checksum, applied_at, execution_ms) " +
+                                "VALUES (?, ?, ?, ?, ?)", migration.version(), migration.description(),
+                        migration.checksum(), new Timestamp(System.currentTimeMillis()), elapsed);
+            });
+            System.out.println("   [OK] " + statements.size() + " komut, " + (System.currentTimeMillis() - started) + " ms");
+            return true;
+        } catch (Exception e) {
+            System.err.println("[ERROR] V" + migration.version() + " uygulanamadi, geri alindi: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String sha256(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(script.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * SQL scriptini statement'lara boler.
      * $$ ile sinirlanmis fonksiyonlari korur.
      */
-    private String[] splitSqlStatements(String script) {
+    private List<String> splitSqlStatements(String script) {
         // Fonksiyon ve trigger bloklari icin ozel islem
         // $$ arasindaki kisimlari koruyarak bol
-        java.util.List<String> statements = new java.util.ArrayList<>();
+        List<String> statements = new ArrayList<>();
         StringBuilder currentStatement = new StringBuilder();
         boolean inDollarQuote = false;
-        
+
         String[] lines = script.split("\n");
         for (String line : lines) {
             // Yorum satirlarini atla (tek satirlik)
@@ -104,15 +209,15 @@ public class DatabaseSchemaInitializer implements CommandLineRunner {
             if (trimmedLine.startsWith("--") && !inDollarQuote) {
                 continue;
             }
-            
+
             currentStatement.append(line).append("\n");
-            
+
             // $$ isaretini say
             int dollarCount = countOccurrences(line, "$$");
             if (dollarCount % 2 == 1) {
                 inDollarQuote = !inDollarQuote;
             }
-            
+
             // Statement'in sonu mu kontrol et
             // Dollar quote disindayken ve satirın sonunda ; varsa
             if (!inDollarQuote && trimmedLine.endsWith(";")) {
@@ -127,16 +232,16 @@ public class DatabaseSchemaInitializer implements CommandLineRunner {
                 currentStatement = new StringBuilder();
             }
         }
-        
+
         // Kalan statement varsa ekle
         String remaining = currentStatement.toString().trim();
         if (!remaining.isEmpty() && !remaining.equals(";")) {
             statements.add(remaining);
         }
-        
-        return statements.toArray(new String[0]);
+
+        return statements;
     }
-    
+
     private int countOccurrences(String str, String sub) {
         int count = 0;
         int idx = 0;
@@ -146,48 +251,4 @@ public class DatabaseSchemaInitializer implements CommandLineRunner {
         }
         return count;
     }
-    
-    /**
-     * Olusturulan sema objelerinin ozetini yazdirir.
-     */
-    private void printSchemaInfo() {
-        try {
-            System.out.println("\n[INFO] OLUSTURULAN VERITABANI OBJELERI:");
-            
-            // View sayisi
-            Integer viewCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM information_schema.views WHERE table_schema = 'public' AND table_name LIKE 'vw_%'",
-                Integer.class);
-            System.out.println("   Views: " + (viewCount != null ? viewCount : 0));
-            
-            // Function sayisi
-            Integer funcCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM information_schema.routines WHERE routine_schema = 'public' AND routine_name LIKE 'fn_%'",
-                Integer.class);
-            System.out.println("   Functions: " + (funcCount != null ? funcCount : 0));
-            
-            // Trigger sayisi
-            Integer triggerCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM information_schema.triggers WHERE trigger_schema = 'public' AND trigger_name LIKE 'trg_%'",
-                Integer.class);
-            System.out.println("   Triggers: " + (triggerCount != null ? triggerCount : 0));
-            
-            // Index sayisi
-            Integer indexCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM pg_indexes WHERE schemaname = 'public' AND indexname LIKE 'idx_%'",
-                Integer.class);
-            System.out.println("   Indexes: " + (indexCount != null ? indexCount : 0));
-            
-            // Sequence sayisi
-            Integer seqCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM information_schema.sequences WHERE sequence_schema = 'public'",
-                Integer.class);
-            System.out.println("   Sequences: " + (seqCount != null ? seqCount : 0));
-            
-            System.out.println("");
-            
-        } catch (Exception e) {
-            System.out.println("   [WARN] Sema bilgisi alinamadi: " + e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,26 @@
+package com.studyflow.app.util;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Acilis isleri (sema migration'i, ornek veri, calisma ozetleri) bitti mi?
+ * Zamanlayici context yenilenince baslar, CommandLineRunner'lar ise ondan sonra calisir; zamanlanmis
+ * gorevler bu bayrak acilana kadar hicbir sey yapmaz (eksik semaya yazmaz, ozet kontrolunden once
+ * ozet satiri olusturmaz). ApplicationReadyEvent tum runner'lar bittikten sonra yayinlanir.
+ */
+@Component
+public class StartupReadiness {
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
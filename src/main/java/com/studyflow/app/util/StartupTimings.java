@@ -0,0 +1,95 @@
+package com.studyflow.app.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Acilis asamalarinin sureleri (splash, Spring context, sema kontrolu, FXML/CSS on yukleme ...).
+ * Asamalar farkli thread'lerde paralel calisir; zamanlar JVM baslangicina gore tutulur.
+ * Spring disinda da kullanildigi icin bean degil, statik yardimci sinif.
+ *
+ * Kullanim: StartupTimings.time("Sema kontrolu", this::migrate);
+ *       veya parcali asamalar icin: Phase phase = StartupTimings.begin("Splash"); ... phase.close();
+ */
+public final class StartupTimings {
+
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final List<Phase> phases = new CopyOnWriteArrayList<>();
+
+    private StartupTimings() {
+    }
+
+    public static Phase begin(String name) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(), sinceJvmStart());
+        phases.add(phase);
+        return phase;
+    }
+
+    /**
+     * Verilen isi tek asama olarak olcer; is hata ile bitse de asama kapanir.
+     */
+    public static void time(String name, Runnable action) {
+        Phase phase = begin(name);
+        try {
+            action.run();
+        } finally {
+            phase.close();
+        }
+    }
+
+    /**
+     * JVM baslangicindan simdiye kadar gecen sureyi tek asama olarak kaydeder (ornegin JavaFX baslatma).
+     */
+    public static void sinceStart(String name) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(), 0);
+        phases.add(phase);
+        phase.close();
+    }
+
+    /**
+     * Asamalari baslangic sirasina gore yazar. Ana pencere gosterildikten sonra bir kez cagrilir.
+     */
+    public static void report() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingLong(p -> p.startMillis));
+
+        System.out.println("========================================");
+        System.out.println("   ACILIS SURELERI (JVM baslangicindan, ms)");
+        System.out.println("========================================");
+        for (Phase phase : sorted) {
+            String end = phase.endMillis < 0 ? "   ?" : String.format("%5d", phase.endMillis);
+            String duration = phase.endMillis < 0 ? "bitmedi" : (phase.endMillis - phase.startMillis) + " ms";
+            System.out.printf("   %-28s %5d -> %s  %-10s [%s]%n",
+                    phase.name, phase.startMillis, end, duration, phase.thread);
+        }
+        System.out.println("   Toplam: " + sinceJvmStart() + " ms");
+        System.out.println("========================================");
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - JVM_START_MILLIS;
+    }
+
+    public static final class Phase implements AutoCloseable {
+        private final String name;
+        private final String thread;
+        private final long startMillis;
+        private volatile long endMillis = -1;
+
+        private Phase(String name, String thread, long startMillis) {
+            this.name = name;
+            this.thread = thread;
+            this.startMillis = startMillis;
+        }
+
+        @Override
+        public void close() {
+            if (endMillis < 0) {
+                endMillis = sinceJvmStart();
+            }
+        }
+    }
+}
@@ -0,0 +1,681 @@
+package com.studyflow.app.util;
+
+import com.studyflow.app.Main;
+import com.studyflow.app.service.user.StudyRollupService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+/**
+ * Yuk testi icin buyuk hacimli sentetik veri ureticisi (arayuz acilmadan, komut satirindan).
+ *
+ * CALISTIRMA:
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=dev \
+ *       -Dspring-boot.run.arguments="--generate-data --studyflow.generator.users=100000 --studyflow.generator.reservations=10000000"
+ *   veya: java -jar studyflow.jar --generate-data --spring.profiles.active=prod --studyflow.generator.threads=8
+ *
+ * AYARLAR (studyflow.generator.*, varsayilanlar parantez icinde):
+ *   users (100000), facilities (200), seats (50000), reservations (10000000),
+ *   days (730 - gecmis gun), future-days (7 - ACTIVE rezervasyon penceresi),
+ *   threads (4; en fazla baglanti havuzu boyutu - 2), batch-size (5000), seed (42),
+ *   rollups (true - bitince calisma ozetlerini veritabaninda GROUP BY ile yeniden kur)
+ *
+ * YAPI:
+ * - Kullanici / tesis / takvim / blok / masa / sandalye JDBC batch ile eklenir; sifreler bir kez
+ *   hesaplanan kucuk bir BCrypt hash havuzundan dagitilir ("password123").
+ * - Rezervasyonlar paralel ureticilerle eklenir. Her uretici sandalyelerin ayri bir dilimine sahiptir
+ *   (sandalye indeksi % threads); sandalye-gun doluluk bit maskesi sayesinde ayni sandalyede cakisan
+ *   rezervasyon olusmaz ve ureticiler arasinda kilit gerekmez.
+ * - Gun, hafta ici / cumartesi (pazar kapali) ve donem (final aylari yogun, yaz tatili sakin) agirlikli;
+ *   baslangic saati sabah ve ogleden sonra tepe yapan saatlik dagilimla secilir.
+ * - Gecmis gunler COMPLETED / CANCELLED, gelecek gunler ACTIVE. ACTIVE satirlar trigger kurallarina uyar:
+ *   kullanici basina en fazla 3 aktif ve her biri farkli gunde (zaman cakismasi yok). Bu yuzden
+ *   trigger'lar ve EXCLUDE kisiti devre disi birakilmaz; kontrolleri sadece ACTIVE satirlar icin calisir.
+ *
+ * PostgreSQL'de en yuksek hiz icin JDBC URL'ine reWriteBatchedInserts=true eklenebilir.
+ * Order(4): sema (1), ornek veri (2) ve ozetler (3) sonrasinda, sadece --generate-data ile calisir.
+ */
+@Component
+@Order(4)
+@ConditionalOnProperty(name = SyntheticDataGenerator.ENABLED_PROPERTY, havingValue = "true")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    public static final String CLI_FLAG = "--generate-data";
+    static final String ENABLED_PROPERTY = "studyflow.generator.enabled";
+
+    private static final String EMAIL_DOMAIN = "@load.studyflow.com";
+    private static final String FACILITY_PREFIX = "Yuk Testi Kutuphanesi ";
+    private static final String PASSWORD = "password123";
+    private static final int PASSWORD_HASH_POOL = 8;
+    private static final int POOL_HEADROOM = 2;
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (email, password, first_name, last_name, user_role) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_RESERVATION =
+            "INSERT INTO reservations (user_id, seat_id, desk_id, facility_block_id, facility_id, " +
+            "reservation_date, start_time, end_time, status, cancellation_reason, cancelled_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Acilis 08:00; hafta ici 22:00, cumartesi 18:00 kapanis (DatabasePopulator takvimi ile ayni)
+    private static final int OPEN_HOUR = 8;
+    private static final int WEEKDAY_CLOSE_HOUR = 22;
+    private static final int SATURDAY_CLOSE_HOUR = 18;
+
+    // 08..21 arasi baslangic saati agirliklari: 10-11 ve 15-16 tepe, aksam azalan
+    private static final double[] START_HOUR_WEIGHTS = {3, 6, 9, 10, 8, 6, 7, 9, 9, 7, 6, 5, 3, 1};
+    // 1, 2 ve 3 saatlik oturum agirliklari
+    private static final double[] DURATION_WEIGHTS = {35, 45, 20};
+    private static final double CANCEL_RATE = 0.12;
+    private static final int MAX_ACTIVE_PER_USER = 3;
+    // Art arda bu kadar yerlestirme denemesi basarisiz olursa uretici durur (kapasite doldu)
+    private static final int MAX_CONSECUTIVE_FAILURES = 10_000;
+
+    private static final String[] FIRST_NAMES = {"Ahmet", "Mehmet", "Ayse", "Fatma", "Ali", "Zeynep", "Mustafa",
+            "Elif", "Can", "Deniz", "Emre", "Selin", "Burak", "Ece", "Kerem", "Irem", "Onur", "Merve"};
+    private static final String[] LAST_NAMES = {"Yilmaz", "Kaya", "Demir", "Celik", "Sahin", "Yildiz", "Aydin",
+            "Ozturk", "Arslan", "Dogan", "Kilic", "Aslan", "Cetin", "Kurt", "Koc", "Ozdemir"};
+    private static final String[] DISTRICTS = {"Kadikoy", "Besiktas", "Fatih", "Sisli", "Uskudar", "Sariyer",
+            "Beyoglu", "Atasehir", "Maltepe", "Bakirkoy", "Umraniye", "Esenyurt"};
+    private static final String[] IMAGE_URLS = {
+            "https://images.unsplash.com/photo-1521587760476-6c12a4b040da?w=800",
+            "https://images.unsplash.com/photo-1507842217343-583bb7270b66?w=800",
+            "https://images.unsplash.com/photo-1481627834876-b7833e8f5570?w=800",
+            "https://images.unsplash.com/photo-1524995997946-a1c2e315a42f?w=800",
+            "https://images.unsplash.com/photo-1456513080510-7bf3a84b82f8?w=800"
+    };
+    private static final String[][] BLOCK_CONFIGS = {{"A Blok", "#4A90E2"}, {"B Blok", "#27AE60"}};
+    private static final String[] DESK_COLORS = {"#FAFAFA", "#F5F5F5", "#EEEEEE", "#E0E0E0"};
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private StudyRollupService studyRollupService;
+
+    @Value("${studyflow.generator.users:100000}") private int userCount;
+    @Value("${studyflow.generator.facilities:200}") private int facilityCount;
+    @Value("${studyflow.generator.seats:50000}") private int seatCount;
+    @Value("${studyflow.generator.reservations:10000000}") private long reservationCount;
+    @Value("${studyflow.generator.days:730}") private int pastDays;
+    @Value("${studyflow.generator.future-days:7}") private int futureDays;
+    @Value("${studyflow.generator.threads:4}") private int threads;
+    @Value("${studyflow.generator.batch-size:5000}") private int batchSize;
+    @Value("${studyflow.generator.seed:42}") private long seed;
+    @Value("${studyflow.generator.rollups:true}") private boolean rebuildRollups;
+
+    // BCrypt bilerek yavas: her satir icin hesaplamak yerine farkli tuzlu kucuk bir havuz
+    private String[] passwordHashes;
+
+    /** Uretilen sandalyeler; ayni indeks ayni sandalyenin masa / blok / tesis kimliklerini tutar. */
+    private record SeatTable(long[] seatIds, long[] deskIds, long[] blockIds, long[] facilityIds) {
+        int size() {
+            return seatIds.length;
+        }
+    }
+
+    /** Rezervasyon ureticilerinin paylastigi, sadece okunan takvim tablolari. */
+    private record Calendar(LocalDate[] dates, int[] closeHours, double[] dayCumulative, int pastDays) {
+        int size() {
+            return dates.length;
+        }
+    }
+
+    /**
+     * Komut satiri girisi (Main, --generate-data ile cagirir): JavaFX baslatilmaz, web sunucusu acilmaz.
+     * Uretim CommandLineRunner olarak calisir; bitince context kapatilir ve cikis kodu dondurulur.
+     */
+    public static void runHeadless(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .properties(ENABLED_PROPERTY + "=true")
+                .run(args);
+        System.exit(SpringApplication.exit(context));
+    }
+
+    @Override
+    public void run(String... args) {
+        System.out.println("========================================================");
+        System.out.println("       STUDYFLOW YUK TESTI VERISI URETIMI BASLADI");
+        System.out.println("========================================================");
+        System.out.println("  Kullanici: " + userCount + " | Tesis: " + facilityCount + " | Sandalye: " + seatCount +
+                " | Rezervasyon: " + reservationCount + " | Gun: " + pastDays + " + " + futureDays +
+                " | Thread: " + threads);
+
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE ?", Integer.class, "%" + EMAIL_DOMAIN);
+        if (existing != null && existing > 0) {
+            System.out.println("[WARN] Yuk testi verisi zaten uretilmis (" + existing + " kullanici). Islem iptal edildi.");
+            return;
+        }
+        if (userCount < 1 || facilityCount < 1 || seatCount < facilityCount * 2 || threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Gecersiz ayar: users >= 1, facilities >= 1, seats >= 2 * facilities, threads >= 1 olmali");
+        }
+
+        long started = System.currentTimeMillis();
+        long[] userIds = generateUsers();
+        long[] facilityIds = generateFacilities();
+        generateCalendars(facilityIds);
+        generateLibrarians(facilityIds);
+        SeatTable seats = generateLayout(facilityIds);
+        long[] counts = generateReservations(userIds, seats);
+
+        if (rebuildRollups) {
+            System.out.println("\n[INFO] Calisma ozetleri yeniden kuruluyor...");
+            long rollupStarted = System.currentTimeMillis();
+            int sessions = studyRollupService.rebuild();
+            System.out.println("   [OK] " + sessions + " rezervasyon ozetlendi (" + (System.currentTimeMillis() - rollupStarted) + " ms)");
+        }
+
+        System.out.println("\n========================================================");
+        System.out.println("       [OK] YUK TESTI VERISI URETILDI");
+        System.out.println("========================================================");
+        System.out.println("  Kullanicilar:    " + userIds.length + " (+" + facilityIds.length + " kutuphaneci)");
+        System.out.println("  Kutuphaneler:    " + facilityIds.length);
+        System.out.println("  Sandalyeler:     " + seats.size());
+        System.out.println("  Rezervasyonlar:  " + (counts[0] + counts[1] + counts[2]) +
+                " (" + counts[0] + " ACTIVE | " + counts[1] + " COMPLETED | " + counts[2] + " CANCELLED)");
+        System.out.println("  Toplam sure:     " + (System.currentTimeMillis() - started) / 1000 + " sn");
+        System.out.println("--------------------------------------------------------");
+        System.out.println("  Giris: kullanici1" + EMAIL_DOMAIN + " / " + PASSWORD);
+        System.out.println("========================================================");
+    }
+
+    // ============================================
+    // 1. KULLANICILAR
+    // ============================================
+
+    private long[] generateUsers() {
+        System.out.println("\n[INFO] USERS tablosu dolduruluyor...");
+        long started = System.currentTimeMillis();
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        passwordHashes = IntStream.range(0, PASSWORD_HASH_POOL).parallel()
+                .mapToObj(i -> encoder.encode(PASSWORD))
+                .toArray(String[]::new);
+
+        List<Integer> indexes = IntStream.rangeClosed(1, userCount).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_USER, indexes, batchSize, (ps, n) -> {
+            ps.setString(1, "kullanici" + n + EMAIL_DOMAIN);
+            ps.setString(2, passwordHashes[n % passwordHashes.length]);
+            ps.setString(3, FIRST_NAMES[n % FIRST_NAMES.length]);
+            ps.setString(4, LAST_NAMES[(n / FIRST_NAMES.length) % LAST_NAMES.length]);
+            ps.setString(5, "USER");
+        });
+
+        long[] userIds = queryIds("SELECT id FROM users WHERE email LIKE ? AND user_role = 'USER' ORDER BY id",
+                "%" + EMAIL_DOMAIN);
+        System.out.println("   [OK] " + userIds.length + " kullanici eklendi (" + (System.currentTimeMillis() - started) + " ms)");
+        return userIds;
+    }
+
+    // ============================================
+    // 2. TESISLER, TAKVIMLER, KUTUPHANECILER
+    // ============================================
+
+    private long[] generateFacilities() {
+        System.out.println("\n[INFO] FACILITIES tablosu dolduruluyor...");
+        List<Integer> indexes = IntStream.rangeClosed(1, facilityCount).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO facilities (name, address, image_url) VALUES (?, ?, ?)",
+                indexes, batchSize, (ps, n) -> {
+                    ps.setString(1, FACILITY_PREFIX + String.format("%03d", n));
+                    ps.setString(2, DISTRICTS[n % DISTRICTS.length] + "/Istanbul");
+                    ps.setString(3, IMAGE_URLS[n % IMAGE_URLS.length]);
+                });
+
+        long[] facilityIds = queryIds("SELECT id FROM facilities WHERE name LIKE ? ORDER BY id", FACILITY_PREFIX + "%");
+        System.out.println("   [OK] " + facilityIds.length + " kutuphane eklendi");
+        return facilityIds;
+    }
+
+    private void generateCalendars(long[] facilityIds) {
+        System.out.println("\n[INFO] FACILITY_CALENDARS / FACILITY_CALENDAR_DAYS dolduruluyor...");
+        jdbcTemplate.batchUpdate("INSERT INTO facility_calendars (facility_id) VALUES (?)",
+                boxed(facilityIds), batchSize, (ps, facilityId) -> ps.setLong(1, facilityId));
+
+        long[] calendarIds = queryIds("SELECT c.id FROM facility_calendars c JOIN facilities f ON f.id = c.facility_id " +
+                "WHERE f.name LIKE ? ORDER BY c.id", FACILITY_PREFIX + "%");
+        List<Object[]> days = new ArrayList<>(calendarIds.length * 7);
+        for (long calendarId : calendarIds) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                boolean isClosed = day == DayOfWeek.SUNDAY;
+                LocalTime openTime = isClosed ? null : LocalTime.of(OPEN_HOUR, 0);
+                LocalTime closeTime = isClosed ? null : LocalTime.of(closeHour(day), 0);
+                days.add(new Object[]{calendarId, day.name(), openTime, closeTime, isClosed});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO facility_calendar_days (calendar_id, day_of_week, open_time, close_time, is_closed) " +
+                "VALUES (?, ?, ?, ?, ?)", days);
+        System.out.println("   [OK] " + calendarIds.length + " takvim, " + days.size() + " gunluk calisma saati eklendi");
+    }
+
+    // Her tesise bir kutuphaneci
+    private void generateLibrarians(long[] facilityIds) {
+        System.out.println("\n[INFO] LIBRARIAN_FACILITIES dolduruluyor...");
+        List<Integer> indexes = IntStream.rangeClosed(1, facilityIds.length).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_USER, indexes, batchSize, (ps, n) -> {
+            ps.setString(1, "kutuphaneci" + n + EMAIL_DOMAIN);
+            ps.setString(2, passwordHashes[n % passwordHashes.length]);
+            ps.setString(3, FIRST_NAMES[n % FIRST_NAMES.length]);
+            ps.setString(4, LAST_NAMES[n % LAST_NAMES.length]);
+            ps.setString(5, "LIBRARIAN");
+        });
+
+        long[] librarianIds = queryIds("SELECT id FROM users WHERE email LIKE ? AND user_role = 'LIBRARIAN' ORDER BY id",
+                "%" + EMAIL_DOMAIN);
+        List<Object[]> assignments = new ArrayList<>(librarianIds.length);
+        for (int i = 0; i < librarianIds.length && i < facilityIds.length; i++) {
+            assignments.add(new Object[]{librarianIds[i], facilityIds[i]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO librarian_facilities (user_id, facility_id) VALUES (?, ?)", assignments);
+        System.out.println("   [OK] " + assignments.size() + " kutuphaneci atamasi yapildi");
+    }
+
+    // ============================================
+    // 3. BLOK / MASA / SANDALYE
+    // ============================================
+
+    /**
+     * Her tesiste 2 blok; sandalyeler tesislere ve bloklara esit dagitilir, masalar 2 veya 4 kisilik.
+     * Masalar blok icinde izgara duzeninde, sayiya gore kuculerek yerlestirilir.
+     */
+    private SeatTable generateLayout(long[] facilityIds) {
+        System.out.println("\n[INFO] FACILITY_BLOCKS / DESKS / SEATS dolduruluyor...");
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<Object[]> blocks = new ArrayList<>(facilityIds.length * BLOCK_CONFIGS.length);
+        for (long facilityId : facilityIds) {
+            for (int i = 0; i < BLOCK_CONFIGS.length; i++) {
+                blocks.add(new Object[]{BLOCK_CONFIGS[i][0], facilityId, 0, 50.0 + i * 450, 80.0, 400.0, 500.0, BLOCK_CONFIGS[i][1]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO facility_blocks (name, facility_id, current_id_index, pos_x, pos_y, width, height, color_hex) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", blocks);
+
+        long minFacility = facilityIds[0];
+        long maxFacility = facilityIds[facilityIds.length - 1];
+        long[] blockIds = queryIds("SELECT id FROM facility_blocks WHERE facility_id BETWEEN ? AND ? ORDER BY id",
+                minFacility, maxFacility);
+
+        List<Object[]> desks = new ArrayList<>();
+        for (int b = 0; b < blockIds.length; b++) {
+            // Kalan sandalyeler son bloklara tasinmaz: her blok kendi payini alir
+            int quota = seatCount / blockIds.length + (b < seatCount % blockIds.length ? 1 : 0);
+            List<Integer> sizes = new ArrayList<>();
+            for (int remaining = quota; remaining > 0; ) {
+                int size = remaining >= 4 && random.nextBoolean() ? 4 : 2;
+                sizes.add(size);
+                remaining -= size;
+            }
+            int cols = (int) Math.ceil(Math.sqrt(sizes.size()));
+            int rows = (int) Math.ceil(sizes.size() / (double) cols);
+            double cellWidth = 360.0 / cols;
+            double cellHeight = 440.0 / rows;
+            for (int i = 0; i < sizes.size(); i++) {
+                double x = 20 + (i % cols) * cellWidth;
+                double y = 40 + (i / cols) * cellHeight;
+                desks.add(new Object[]{sizes.get(i), "D" + blockIds[b] + "-" + (i + 1), 0, blockIds[b],
+                        x, y, cellWidth * 0.8, cellHeight * 0.75, DESK_COLORS[random.nextInt(DESK_COLORS.length)]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO desks (size, id_range, current_id_index, facility_block_id, pos_x, pos_y, width, height, color_hex) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", desks, batchSize, (ps, desk) -> {
+            for (int i = 0; i < desk.length; i++) {
+                ps.setObject(i + 1, desk[i]);
+            }
+        });
+
+        List<long[]> deskRows = jdbcTemplate.query("SELECT d.id, d.size FROM desks d " +
+                        "JOIN facility_blocks b ON b.id = d.facility_block_id WHERE b.facility_id BETWEEN ? AND ? ORDER BY d.id",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, minFacility, maxFacility);
+        List<Object[]> seatRows = new ArrayList<>(seatCount + 4);
+        for (long[] desk : deskRows) {
+            // Populator ile ayni yerlesim: 2'li karsilikli, 4'lu koselerde
+            double[][] positions = desk[1] == 2
+                    ? new double[][]{{0.25, 0.5}, {0.75, 0.5}}
+                    : new double[][]{{0.2, 0.25}, {0.8, 0.25}, {0.2, 0.75}, {0.8, 0.75}};
+            for (int i = 0; i < positions.length; i++) {
+                seatRows.add(new Object[]{i + 1, positions[i][0], positions[i][1], desk[0]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO seats (seat_number, rel_x, rel_y, desk_id) VALUES (?, ?, ?, ?)",
+                seatRows, batchSize, (ps, seat) -> {
+                    ps.setInt(1, (Integer) seat[0]);
+                    ps.setDouble(2, (Double) seat[1]);
+                    ps.setDouble(3, (Double) seat[2]);
+                    ps.setLong(4, (Long) seat[3]);
+                });
+
+        List<long[]> rows = jdbcTemplate.query("SELECT s.id, s.desk_id, d.facility_block_id, b.facility_id FROM seats s " +
+                        "JOIN desks d ON d.id = s.desk_id JOIN facility_blocks b ON b.id = d.facility_block_id " +
+                        "WHERE b.facility_id BETWEEN ? AND ? ORDER BY s.id",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)},
+                minFacility, maxFacility);
+        SeatTable seats = new SeatTable(new long[rows.size()], new long[rows.size()], new long[rows.size()], new long[rows.size()]);
+        for (int i = 0; i < rows.size(); i++) {
+            long[] row = rows.get(i);
+            seats.seatIds()[i] = row[0];
+            seats.deskIds()[i] = row[1];
+            seats.blockIds()[i] = row[2];
+            seats.facilityIds()[i] = row[3];
+        }
+
+        System.out.println("   [OK] " + blockIds.length + " blok, " + deskRows.size() + " masa, " + seats.size() +
+                " sandalye eklendi (" + (System.currentTimeMillis() - started) + " ms)");
+        return seats;
+    }
+
+    // ============================================
+    // 4. REZERVASYONLAR
+    // ============================================
+
+    /**
+     * Rezervasyonlari paralel ureticilerle ekler; her uretici kendi baglantisinda batchSize satirda bir commit eder.
+     * Donus: {ACTIVE, COMPLETED, CANCELLED} sayilari.
+     */
+    private long[] generateReservations(long[] userIds, SeatTable seats) {
+        System.out.println("\n[INFO] RESERVATIONS tablosu dolduruluyor...");
+        Calendar calendar = buildCalendar();
+        // Kullanici basina gelecek gun bit maskesi: bit sayisi aktif rezervasyon sayisi (en fazla 3, her gunde 1)
+        AtomicIntegerArray activeDays = new AtomicIntegerArray(userIds.length);
+        AtomicLong[] counts = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+
+        int producers = Math.min(Math.min(threads, seats.size()), producerLimit());
+        ExecutorService executor = Executors.newFixedThreadPool(producers, Thread.ofPlatform().name("data-generator-", 1).factory());
+        long started = System.currentTimeMillis();
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[producers];
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                long target = reservationCount / producers + (p < reservationCount % producers ? 1 : 0);
+                futures[p] = CompletableFuture.runAsync(() -> jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                    produce(con, producer, producers, target, userIds, seats, calendar, activeDays, counts);
+                    return null;
+                }), executor);
+            }
+
+            CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+            while (true) {
+                try {
+                    all.get(5, TimeUnit.SECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    printProgress(counts, started);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Veri uretimi kesildi", e);
+        } catch (ExecutionException e) {
+            System.err.println("[ERROR] Rezervasyon uretimi durdu (commit edilen batch'ler kalir): " + e.getCause().getMessage());
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = counts[0].get() + counts[1].get() + counts[2].get();
+        printProgress(counts, started);
+        if (total < reservationCount) {
+            System.out.println("[WARN] Sandalye / kullanici kapasitesi doldu, " + (reservationCount - total) + " rezervasyon uretilemedi.");
+        }
+        return new long[]{counts[0].get(), counts[1].get(), counts[2].get()};
+    }
+
+    // Her uretici bir havuz baglantisini uretim boyunca tutar; havuzdan fazlasi baglanti bekleyerek zaman asimina
+    // duser. Zamanlanmis gorevler (sureli rezervasyon taramasi vb.) icin havuzda POOL_HEADROOM baglanti birakilir.
+    private int producerLimit() {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                int limit = Math.max(1, poolSize - POOL_HEADROOM);
+                if (threads > limit) {
+                    System.out.println("[WARN] Baglanti havuzu " + poolSize + " baglanti: uretici sayisi " + limit +
+                            " ile sinirlandi (spring.datasource.hikari.maximum-pool-size artirilabilir).");
+                }
+                return limit;
+            }
+        } catch (SQLException e) {
+            System.out.println("[WARN] Baglanti havuzu boyutu okunamadi: " + e.getMessage());
+        }
+        return threads;
+    }
+
+    private void produce(Connection con, int producer, int producers, long target, long[] userIds, SeatTable seats,
+                         Calendar calendar, AtomicIntegerArray activeDays, AtomicLong[] counts) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 31L * (producer + 1));
+        // Bu ureticinin sandalyeleri: producer, producer + producers, ...
+        int localSeats = (seats.size() - producer + producers - 1) / producers;
+        int days = calendar.size();
+        // Sandalye-gun basina doluluk: bit i = (OPEN_HOUR + i):00 - (OPEN_HOUR + i + 1):00 dolu
+        short[] occupancy = new short[localSeats * days];
+        double[] weekdayHours = cumulative(START_HOUR_WEIGHTS, WEEKDAY_CLOSE_HOUR - OPEN_HOUR);
+        double[] saturdayHours = cumulative(START_HOUR_WEIGHTS, SATURDAY_CLOSE_HOUR - OPEN_HOUR);
+        double[] durations = cumulative(DURATION_WEIGHTS, DURATION_WEIGHTS.length);
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement(INSERT_RESERVATION)) {
+            long produced = 0;
+            int pending = 0;
+            // Ilerleme sadece commit edilen satirlari gosterir
+            long[] pendingCounts = new long[counts.length];
+            int failures = 0;
+            while (produced < target && failures < MAX_CONSECUTIVE_FAILURES) {
+                int day = pick(calendar.dayCumulative(), random.nextDouble());
+                int close = calendar.closeHours()[day];
+                int local = random.nextInt(localSeats);
+                int startHour = OPEN_HOUR + pick(close == SATURDAY_CLOSE_HOUR ? saturdayHours : weekdayHours, random.nextDouble());
+                int hours = Math.min(1 + pick(durations, random.nextDouble()), close - startHour);
+                int mask = ((1 << hours) - 1) << (startHour - OPEN_HOUR);
+
+                int slot = local * days + day;
+                if ((occupancy[slot] & mask) != 0) {
+                    failures++;
+                    continue;
+                }
+
+                String status;
+                int userIndex;
+                if (day >= calendar.pastDays()) {
+                    status = "ACTIVE";
+                    userIndex = claimActiveSlot(activeDays, day - calendar.pastDays(), random);
+                    if (userIndex < 0) {
+                        failures++;
+                        continue;
+                    }
+                } else {
+                    status = random.nextDouble() < CANCEL_RATE ? "CANCELLED" : "COMPLETED";
+                    // Carpik dagilim: az sayida yogun kullanici, cok sayida seyrek kullanici
+                    userIndex = (int) (userIds.length * Math.pow(random.nextDouble(), 1.6));
+                }
+                occupancy[slot] |= (short) mask;
+                failures = 0;
+
+                int seat = producer + local * producers;
+                LocalDate date = calendar.dates()[day];
+                LocalTime startTime = LocalTime.of(startHour, 0);
+                boolean cancelled = "CANCELLED".equals(status);
+                ps.setLong(1, userIds[userIndex]);
+                ps.setLong(2, seats.seatIds()[seat]);
+                ps.setLong(3, seats.deskIds()[seat]);
+                ps.setLong(4, seats.blockIds()[seat]);
+                ps.setLong(5, seats.facilityIds()[seat]);
+                ps.setObject(6, date);
+                ps.setObject(7, startTime);
+                ps.setObject(8, LocalTime.of(startHour + hours, 0));
+                ps.setString(9, status);
+                ps.setString(10, cancelled ? "Kullanıcı isteği" : null);
+                // Iptal, baslangictan 1-48 saat once yapilmis sayilir (1 saat kurali)
+                ps.setObject(11, cancelled ? LocalDateTime.of(date, startTime).minusMinutes(60 + random.nextInt(47 * 60)) : null);
+                ps.addBatch();
+                pendingCounts[statusIndex(status)]++;
+                produced++;
+
+                if (++pending == batchSize) {
+                    commitBatch(con, ps, pendingCounts, counts);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                commitBatch(con, ps, pendingCounts, counts);
+            }
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void commitBatch(Connection con, PreparedStatement ps, long[] pendingCounts, AtomicLong[] counts)
+            throws SQLException {
+        ps.executeBatch();
+        con.commit();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].addAndGet(pendingCounts[i]);
+            pendingCounts[i] = 0;
+        }
+    }
+
+    // Gelecek gun icin aktif rezervasyon hakki olan kullanici bulur (CAS ile, ureticiler arasi kilitsiz)
+    private static int claimActiveSlot(AtomicIntegerArray activeDays, int futureDay, SplittableRandom random) {
+        int dayBit = 1 << futureDay;
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int userIndex = random.nextInt(activeDays.length());
+            int current = activeDays.get(userIndex);
+            if (Integer.bitCount(current) >= MAX_ACTIVE_PER_USER || (current & dayBit) != 0) {
+                continue;
+            }
+            if (activeDays.compareAndSet(userIndex, current, current | dayBit)) {
+                return userIndex;
+            }
+        }
+        return -1;
+    }
+
+    private static void printProgress(AtomicLong[] counts, long started) {
+        long total = counts[0].get() + counts[1].get() + counts[2].get();
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        System.out.println("   [INFO] " + total + " rezervasyon (" + total * 1000 / elapsed + " satir/sn)");
+    }
+
+    private static int statusIndex(String status) {
+        switch (status) {
+            case "ACTIVE":
+                return 0;
+            case "COMPLETED":
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    // ============================================
+    // 5. YARDIMCILAR
+    // ============================================
+
+    /**
+     * Gun tablosu: once gecmis gunler (bugunden days gun oncesinden dune kadar), sonra yarindan itibaren
+     * gelecek gunler. Bugun bilerek atlanir (saat ilerledikce ACTIVE / COMPLETED ayrimi degisir).
+     */
+    private Calendar buildCalendar() {
+        if (futureDays > 30) {
+            throw new IllegalArgumentException("future-days en fazla 30 olabilir");
+        }
+        LocalDate today = LocalDate.now();
+        int size = pastDays + futureDays;
+        LocalDate[] dates = new LocalDate[size];
+        int[] closeHours = new int[size];
+        double[] weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate date = i < pastDays ? today.minusDays(pastDays - i) : today.plusDays(i - pastDays + 1L);
+            dates[i] = date;
+            closeHours[i] = closeHour(date.getDayOfWeek());
+            weights[i] = dayWeight(date);
+        }
+        return new Calendar(dates, closeHours, cumulative(weights, size), pastDays);
+    }
+
+    private static int closeHour(DayOfWeek day) {
+        return day == DayOfWeek.SATURDAY ? SATURDAY_CLOSE_HOUR : WEEKDAY_CLOSE_HOUR;
+    }
+
+    // Pazar kapali, cumartesi yarim gun; final donemleri (Ocak, Mayis, Haziran, Aralik) yogun, yaz tatili sakin
+    private static double dayWeight(LocalDate date) {
+        double weekday = switch (date.getDayOfWeek()) {
+            case SUNDAY -> 0.0;
+            case SATURDAY -> 0.55;
+            default -> 1.0;
+        };
+        double season = switch (date.getMonthValue()) {
+            case 1, 5, 6, 12 -> 1.35;
+            case 7, 8 -> 0.5;
+            default -> 1.0;
+        };
+        return weekday * season;
+    }
+
+    private static double[] cumulative(double[] weights, int length) {
+        double[] cumulative = new double[length];
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < length; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    // r in [0, 1): r'den buyuk ilk kumulatif agirligin indeksi (agirligi 0 olan indeks secilmez)
+    private static int pick(double[] cumulative, double r) {
+        int index = Arrays.binarySearch(cumulative, r);
+        index = index >= 0 ? index + 1 : -index - 1;
+        while (index < cumulative.length - 1 && cumulative[index] <= r) {
+            index++;
+        }
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    private long[] queryIds(String sql, Object... args) {
+        return jdbcTemplate.queryForList(sql, Long.class, args).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static List<Long> boxed(long[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
@@ -0,0 +1,184 @@
+-- StudyFlow Veritabanı - H2 (dev profili)
+-- PostgreSQL V1'in H2'de calisan alt kumesi: DO bloklari, fonksiyonlar, trigger'lar, EXCLUDE kisiti,
+-- pg_trgm / kismi / ifade indeksleri ve partition'lar burada yoktur (uygulama H2'de bunlara ihtiyac duymaz).
+-- Tablolar Hibernate (ddl-auto=update) ile olusur, bu script ondan sonra DatabaseSchemaInitializer ile uygulanir.
+
+-- 2. INDEX OLUŞTURMA (Arama Performansı İçin)
+
+-- Rezervasyon aramaları için composite index
+CREATE INDEX IF NOT EXISTS idx_reservation_search
+    ON reservations (reservation_date, start_time, end_time, seat_id);
+
+-- Kullanıcı rezervasyonları için index
+CREATE INDEX IF NOT EXISTS idx_reservation_user_date
+    ON reservations (user_id, reservation_date);
+
+-- Kullanici gecmisi keyset sayfalamasi: (reservation_date, start_time, id) sirasi indeksten okunur, sort gerekmez
+CREATE INDEX IF NOT EXISTS idx_reservation_user_keyset
+    ON reservations (user_id, reservation_date, start_time, id);
+
+-- Rezervasyon status için index
+CREATE INDEX IF NOT EXISTS idx_reservation_status
+    ON reservations (status, reservation_date);
+
+-- Koltuk + tarih bazli cakisma sorgulari icin index
+CREATE INDEX IF NOT EXISTS idx_reservation_seat_date
+    ON reservations (seat_id, reservation_date, status);
+
+-- 3. SEQUENCE OLUŞTURMA (Otomatik ID Atama)
+-- Reservation log için sequence
+CREATE SEQUENCE IF NOT EXISTS reservation_log_seq START WITH 1 INCREMENT BY 1;
+
+-- Reservation audit log tablosu (H2: nextval() varsayilani yerine AUTO_INCREMENT)
+-- Audit kayitlari AuditLogWriter ile uygulamadan yazilir.
+CREATE TABLE IF NOT EXISTS reservation_audit_log (
+                                                     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                                     reservation_id BIGINT,
+                                                     action_type VARCHAR(20) NOT NULL,
+                                                     action_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                                     user_id BIGINT,
+                                                     old_status VARCHAR(20),
+                                                     new_status VARCHAR(20),
+                                                     details TEXT
+);
+
+-- Rezervasyon arsivi: RETENTION suresinden eski COMPLETED/CANCELLED kayitlar ReservationArchiver ile buraya tasinir.
+-- H2 PARTITION BY desteklemez: duz tablo
+CREATE TABLE IF NOT EXISTS reservations_history (
+                                                    id BIGINT NOT NULL,
+                                                    user_id BIGINT,
+                                                    seat_id BIGINT,
+                                                    facility_block_id BIGINT,
+                                                    facility_id BIGINT,
+                                                    desk_id BIGINT,
+                                                    reservation_date DATE NOT NULL,
+                                                    start_time TIME NOT NULL,
+                                                    end_time TIME NOT NULL,
+                                                    status VARCHAR(20),
+                                                    cancellation_reason VARCHAR(255),
+                                                    cancelled_at TIMESTAMP,
+                                                    series_id BIGINT,
+                                                    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                                    PRIMARY KEY (id, reservation_date)
+);
+
+-- Kullanici gecmisi keyset sayfalamasi icin
+CREATE INDEX IF NOT EXISTS idx_reservation_history_user_keyset
+    ON reservations_history (user_id, reservation_date, start_time, id);
+
+-- Kullanici audit loglari keyset sayfalamasi: (action_timestamp, id) azalan
+CREATE INDEX IF NOT EXISTS idx_audit_user_time
+    ON reservation_audit_log (user_id, action_timestamp, id);
+
+-- Kullanici calisma suresi ozetleri (StudyRollupService artimli gunceller, profil ekrani buradan okur)
+-- Dakika toplamlari ve oturum sayilari; aylik tabloda ayrica en kisa/en uzun oturum ve gun ici dagilim
+CREATE TABLE IF NOT EXISTS user_study_rollup_daily (
+                                                       user_id BIGINT NOT NULL,
+                                                       study_date DATE NOT NULL,
+                                                       total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                       session_count INTEGER NOT NULL DEFAULT 0,
+                                                       PRIMARY KEY (user_id, study_date)
+);
+
+CREATE TABLE IF NOT EXISTS user_study_rollup_weekly (
+                                                        user_id BIGINT NOT NULL,
+                                                        week_start DATE NOT NULL,
+                                                        total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                        session_count INTEGER NOT NULL DEFAULT 0,
+                                                        PRIMARY KEY (user_id, week_start)
+);
+
+CREATE TABLE IF NOT EXISTS user_study_rollup_monthly (
+                                                         user_id BIGINT NOT NULL,
+                                                         month_start DATE NOT NULL,
+                                                         total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                         session_count INTEGER NOT NULL DEFAULT 0,
+                                                         min_minutes INTEGER,
+                                                         max_minutes INTEGER,
+                                                         morning_count INTEGER NOT NULL DEFAULT 0,
+                                                         afternoon_count INTEGER NOT NULL DEFAULT 0,
+                                                         evening_count INTEGER NOT NULL DEFAULT 0,
+                                                         PRIMARY KEY (user_id, month_start)
+);
+
+-- 4. VIEW OLUŞTURMA (Aktif Rezervasyonlar Görünümü)
+
+-- Canli tablo + arsiv: kullanici gecmisi ve profil istatistikleri bu view uzerinden okunur
+CREATE OR REPLACE VIEW vw_reservations_all AS
+SELECT id, user_id, seat_id, facility_block_id, facility_id, desk_id, reservation_date, start_time, end_time,
+       status, cancellation_reason, cancelled_at, series_id
+FROM reservations
+UNION ALL
+SELECT id, user_id, seat_id, facility_block_id, facility_id, desk_id, reservation_date, start_time, end_time,
+       status, cancellation_reason, cancelled_at, series_id
+FROM reservations_history;
+
+-- Aktif Rezervasyonlar View'ı (Arayüzden çağrılacak)
+CREATE OR REPLACE VIEW vw_active_reservations AS
+SELECT
+    r.id AS reservation_id,
+    r.reservation_date,
+    r.start_time,
+    r.end_time,
+    r.status,
+    u.id AS user_id,
+    u.first_name || ' ' || u.last_name AS user_full_name,
+    u.email AS user_email,
+    f.id AS facility_id,
+    f.name AS facility_name,
+    fb.id AS block_id,
+    fb.name AS block_name,
+    d.id AS desk_id,
+    d.id_range AS desk_range,
+    s.id AS seat_id,
+    s.seat_number
+FROM reservations r
+         JOIN users u ON r.user_id = u.id
+         JOIN facilities f ON r.facility_id = f.id
+         JOIN facility_blocks fb ON r.facility_block_id = fb.id
+         JOIN desks d ON r.desk_id = d.id
+         JOIN seats s ON r.seat_id = s.id
+WHERE r.status = 'ACTIVE';
+
+-- Tesis İstatistikleri View'ı (tamamlanan/iptal sayilari arsiv dahil)
+CREATE OR REPLACE VIEW vw_facility_statistics AS
+SELECT
+    f.id AS facility_id,
+    f.name AS facility_name,
+    COUNT(DISTINCT fb.id) AS total_blocks,
+    COUNT(DISTINCT d.id) AS total_desks,
+    COUNT(DISTINCT s.id) AS total_seats,
+    COUNT(DISTINCT CASE WHEN r.status = 'ACTIVE' THEN r.id END) AS active_reservations,
+    COUNT(DISTINCT CASE WHEN r.status = 'COMPLETED' THEN r.id END) AS completed_reservations,
+    COUNT(DISTINCT CASE WHEN r.status = 'CANCELLED' THEN r.id END) AS cancelled_reservations
+FROM facilities f
+         LEFT JOIN facility_blocks fb ON fb.facility_id = f.id
+         LEFT JOIN desks d ON d.facility_block_id = fb.id
+         LEFT JOIN seats s ON s.desk_id = d.id
+         LEFT JOIN vw_reservations_all r ON r.seat_id = s.id
+GROUP BY f.id, f.name;
+
+-- Kullanıcı Profil İstatistikleri View'ı
+CREATE OR REPLACE VIEW vw_user_profile_stats AS
+SELECT
+    u.id AS user_id,
+    u.first_name,
+    u.last_name,
+    u.email,
+    COUNT(DISTINCT r.id) AS total_reservations,
+    COUNT(DISTINCT CASE WHEN r.status = 'COMPLETED' THEN r.id END) AS completed_reservations,
+    COUNT(DISTINCT CASE WHEN r.status = 'CANCELLED' THEN r.id END) AS cancelled_reservations,
+    COALESCE(SUM(CASE WHEN r.status = 'COMPLETED'
+                          THEN EXTRACT(EPOCH FROM (r.end_time - r.start_time))/3600 END), 0) AS total_study_hours,
+    COUNT(DISTINCT r.facility_id) AS visited_facilities
+FROM users u
+         LEFT JOIN vw_reservations_all r ON r.user_id = u.id
+GROUP BY u.id, u.first_name, u.last_name, u.email;
+
+-- Audit yazicisi satirlari toplu ekler; her satirda sequence'e gitmemek icin oturum basina 50 deger ayrilir
+ALTER SEQUENCE reservation_log_seq CACHE 50;
+
+-- 9. MEVCUT VERİLERİ GÜNCELLEME (Trigger uyumluluğu için)
+
+-- Mevcut rezervasyonlara status ekleme
+UPDATE reservations SET status = 'ACTIVE' WHERE status IS NULL;
@@ -46,6 +46,10 @@ CREATE INDEX IF NOT EXISTS idx_reservation_search
 CREATE INDEX IF NOT EXISTS idx_reservation_user_date
     ON reservations (user_id, reservation_date);
 
+-- Kullanici gecmisi keyset sayfalamasi: (reservation_date, start_time, id) sirasi indeksten okunur, sort gerekmez
+CREATE INDEX IF NOT EXISTS idx_reservation_user_keyset
+    ON reservations (user_id, reservation_date, start_time, id);
+
 -- Facility name üzerinde index (tesis arama için)
 CREATE INDEX IF NOT EXISTS idx_facility_name
     ON facilities (LOWER(name));
@@ -54,6 +58,32 @@ CREATE INDEX IF NOT EXISTS idx_facility_name
 CREATE INDEX IF NOT EXISTS idx_reservation_status
     ON reservations (status, reservation_date);
 
+-- Suresi dolan rezervasyon taramasi icin kismi index: sadece ACTIVE satirlar
+-- (ReservationExpirySweeper bitis zamani gecenleri bu index uzerinden kucuk partilerle COMPLETED yapar)
+CREATE INDEX IF NOT EXISTS idx_reservation_active_end
+    ON reservations (reservation_date, end_time) WHERE status = 'ACTIVE';
+
+-- Koltuk + tarih bazli cakisma sorgulari icin index (H2 dev profilinde de olusur)
+CREATE INDEX IF NOT EXISTS idx_reservation_seat_date
+    ON reservations (seat_id, reservation_date, status);
+
+-- Koltuk rezervasyon araligi: reservation_date + start/end_time'dan uretilen [baslangic, bitis) (00:00 bitis = ertesi gun)
+-- EXCLUDE constraint (btree_gist eklentisi gerektirir) V3'te eklenir
+DO $$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_name = 'reservations' AND column_name = 'period') THEN
+            ALTER TABLE reservations ADD COLUMN period TSRANGE
+                GENERATED ALWAYS AS (
+                    tsrange(reservation_date + start_time,
+                            CASE WHEN end_time > start_time THEN reservation_date + end_time
+                                 ELSE (reservation_date + 1) + end_time END,
+                            '[)')
+                ) STORED;
+        END IF;
+    END $$;
+
+
 -- 3. SEQUENCE OLUŞTURMA (Otomatik ID Atama)
 -- Reservation log için sequence
 CREATE SEQUENCE IF NOT EXISTS reservation_log_seq START WITH 1 INCREMENT BY 1;
@@ -70,8 +100,79 @@ CREATE TABLE IF NOT EXISTS reservation_audit_log (
                                                      details TEXT
 );
 
+-- Rezervasyon arsivi: RETENTION suresinden eski COMPLETED/CANCELLED kayitlar ReservationArchiver ile buraya tasinir.
+-- PostgreSQL: reservation_date'e gore range partition (yillik partition'lari ReservationArchiver acar)
+CREATE TABLE IF NOT EXISTS reservations_history (
+                                                    id BIGINT NOT NULL,
+                                                    user_id BIGINT,
+                                                    seat_id BIGINT,
+                                                    facility_block_id BIGINT,
+                                                    facility_id BIGINT,
+                                                    desk_id BIGINT,
+                                                    reservation_date DATE NOT NULL,
+                                                    start_time TIME NOT NULL,
+                                                    end_time TIME NOT NULL,
+                                                    status VARCHAR(20),
+                                                    cancellation_reason VARCHAR(255),
+                                                    cancelled_at TIMESTAMP,
+                                                    series_id BIGINT,
+                                                    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                                    PRIMARY KEY (id, reservation_date)
+) PARTITION BY RANGE (reservation_date);
+
+CREATE TABLE IF NOT EXISTS reservations_history_default PARTITION OF reservations_history DEFAULT;
+
+-- Kullanici gecmisi keyset sayfalamasi icin (partition'li tabloda her partition'a uygulanir)
+CREATE INDEX IF NOT EXISTS idx_reservation_history_user_keyset
+    ON reservations_history (user_id, reservation_date, start_time, id);
+
+-- Kullanici audit loglari keyset sayfalamasi: (action_timestamp, id) azalan
+CREATE INDEX IF NOT EXISTS idx_audit_user_time
+    ON reservation_audit_log (user_id, action_timestamp, id);
+
+-- Kullanici calisma suresi ozetleri (StudyRollupService artimli gunceller, profil ekrani buradan okur)
+-- Dakika toplamlari ve oturum sayilari; aylik tabloda ayrica en kisa/en uzun oturum ve gun ici dagilim
+CREATE TABLE IF NOT EXISTS user_study_rollup_daily (
+                                                       user_id BIGINT NOT NULL,
+                                                       study_date DATE NOT NULL,
+                                                       total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                       session_count INTEGER NOT NULL DEFAULT 0,
+                                                       PRIMARY KEY (user_id, study_date)
+);
+
+CREATE TABLE IF NOT EXISTS user_study_rollup_weekly (
+                                                        user_id BIGINT NOT NULL,
+                                                        week_start DATE NOT NULL,
+                                                        total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                        session_count INTEGER NOT NULL DEFAULT 0,
+                                                        PRIMARY KEY (user_id, week_start)
+);
+
+CREATE TABLE IF NOT EXISTS user_study_rollup_monthly (
+                                                         user_id BIGINT NOT NULL,
+                                                         month_start DATE NOT NULL,
+                                                         total_minutes BIGINT NOT NULL DEFAULT 0,
+                                                         session_count INTEGER NOT NULL DEFAULT 0,
+                                                         min_minutes INTEGER,
+                                                         max_minutes INTEGER,
+                                                         morning_count INTEGER NOT NULL DEFAULT 0,
+                                                         afternoon_count INTEGER NOT NULL DEFAULT 0,
+                                                         evening_count INTEGER NOT NULL DEFAULT 0,
+                                                         PRIMARY KEY (user_id, month_start)
+);
+
 -- 4. VIEW OLUŞTURMA (Aktif Rezervasyonlar Görünümü)
 
+-- Canli tablo + arsiv: kullanici gecmisi ve profil istatistikleri bu view uzerinden okunur
+CREATE OR REPLACE VIEW vw_reservations_all AS
+SELECT id, user_id, seat_id, facility_block_id, facility_id, desk_id, reservation_date, start_time, end_time,
+       status, cancellation_reason, cancelled_at, series_id
+FROM reservations
+UNION ALL
+SELECT id, user_id, seat_id, facility_block_id, facility_id, desk_id, reservation_date, start_time, end_time,
+       status, cancellation_reason, cancelled_at, series_id
+FROM reservations_history;
+
 -- Aktif Rezervasyonlar View'ı (Arayüzden çağrılacak)
 CREATE OR REPLACE VIEW vw_active_reservations AS
 SELECT
@@ -97,11 +198,9 @@ FROM reservations r
          JOIN facility_blocks fb ON r.facility_block_id = fb.id
          JOIN desks d ON r.desk_id = d.id
          JOIN seats s ON r.seat_id = s.id
-WHERE r.status = 'ACTIVE'
-  AND (r.reservation_date > CURRENT_DATE
-    OR (r.reservation_date = CURRENT_DATE AND r.end_time > CURRENT_TIME));
+WHERE r.status = 'ACTIVE';
 
--- Tesis İstatistikleri View'ı
+-- Tesis İstatistikleri View'ı (tamamlanan/iptal sayilari arsiv dahil)
 CREATE OR REPLACE VIEW vw_facility_statistics AS
 SELECT
     f.id AS facility_id,
@@ -109,17 +208,14 @@ SELECT
     COUNT(DISTINCT fb.id) AS total_blocks,
     COUNT(DISTINCT d.id) AS total_desks,
     COUNT(DISTINCT s.id) AS total_seats,
-    COUNT(DISTINCT CASE WHEN r.status = 'ACTIVE'
-        AND (r.reservation_date > CURRENT_DATE
-            OR (r.reservation_date = CURRENT_DATE AND r.end_time > CURRENT_TIME))
-                            THEN r.id END) AS active_reservations,
+    COUNT(DISTINCT CASE WHEN r.status = 'ACTIVE' THEN r.id END) AS active_reservations,
     COUNT(DISTINCT CASE WHEN r.status = 'COMPLETED' THEN r.id END) AS completed_reservations,
     COUNT(DISTINCT CASE WHEN r.status = 'CANCELLED' THEN r.id END) AS cancelled_reservations
 FROM facilities f
          LEFT JOIN facility_blocks fb ON fb.facility_id = f.id
          LEFT JOIN desks d ON d.facility_block_id = fb.id
          LEFT JOIN seats s ON s.desk_id = d.id
-         LEFT JOIN reservations r ON r.seat_id = s.id
+         LEFT JOIN vw_reservations_all r ON r.seat_id = s.id
 GROUP BY f.id, f.name;
 
 -- Kullanıcı Profil İstatistikleri View'ı
@@ -136,7 +232,7 @@ SELECT
                           THEN EXTRACT(EPOCH FROM (r.end_time - r.start_time))/3600 END), 0) AS total_study_hours,
     COUNT(DISTINCT r.facility_id) AS visited_facilities
 FROM users u
-         LEFT JOIN reservations r ON r.user_id = u.id
+         LEFT JOIN vw_reservations_all r ON r.user_id = u.id
 GROUP BY u.id, u.first_name, u.last_name, u.email;
 
 -- 5. SQL FONKSİYONLARI
@@ -316,7 +412,7 @@ BEGIN
             r.end_time AS r_end,
             EXTRACT(EPOCH FROM (r.end_time - r.start_time))/60 AS duration,
             r.status AS r_status
-        FROM reservations r
+        FROM vw_reservations_all r
                  JOIN facilities f ON r.facility_id = f.id
                  JOIN facility_blocks fb ON r.facility_block_id = fb.id
                  JOIN seats s ON r.seat_id = s.id
@@ -361,6 +457,11 @@ BEGIN
         RETURN NEW;
     END IF;
 
+    -- fn_book_seat ayni kontrolu zaten yapti (transaction'a ozel bayrak)
+    IF current_setting('studyflow.booking_validated', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+
     -- Kullanici ayni tarih ve saatte baska bir rezervasyona sahip mi?
     SELECT COUNT(*) INTO v_conflict_count
     FROM reservations
@@ -395,12 +496,16 @@ BEGIN
         RETURN NEW;
     END IF;
 
-    SELECT COUNT(*) INTO v_active_count
+    -- fn_book_seat ayni kontrolu zaten yapti (transaction'a ozel bayrak)
+    IF current_setting('studyflow.booking_validated', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+
+    -- Tekrarli seriler (series_id) tek rezervasyon sayilir
+    SELECT COUNT(DISTINCT COALESCE(series_id, -id)) INTO v_active_count
     FROM reservations
     WHERE user_id = NEW.user_id
-      AND status = 'ACTIVE'
-      AND (reservation_date > CURRENT_DATE
-        OR (reservation_date = CURRENT_DATE AND end_time > CURRENT_TIME));
+      AND status = 'ACTIVE';
 
     IF v_active_count >= v_max_allowed THEN
         RAISE EXCEPTION 'TRIGGER_ERROR:MAX_RESERVATION_LIMIT:Maksimum % aktif rezervasyona sahip olabilirsiniz. Mevcut aktif rezervasyon sayiniz: %. Yeni rezervasyon yapabilmek icin mevcut rezervasyonlarinizdan birini iptal edin.',
@@ -417,25 +522,13 @@ CREATE TRIGGER trg_reservation_limit
     FOR EACH ROW
 EXECUTE FUNCTION trg_check_reservation_limit();
 
--- TRIGGER 1B: INSERT sonrası audit log kaydı
-CREATE OR REPLACE FUNCTION trg_reservation_audit_insert()
-    RETURNS TRIGGER AS $$
-BEGIN
-    -- Audit log kaydı
-    INSERT INTO reservation_audit_log (reservation_id, action_type, user_id, new_status, details)
-    VALUES (NEW.id, 'INSERT', NEW.user_id, 'ACTIVE',
-            'Yeni rezervasyon oluşturuldu. Tarih: ' || NEW.reservation_date ||
-            ', Saat: ' || NEW.start_time || '-' || NEW.end_time);
-
-    RETURN NEW;
-END;
-$$ LANGUAGE plpgsql;
-
+-- TRIGGER 1B: (kaldirildi) INSERT audit kaydi artik uygulamadaki AuditLogWriter tarafindan
+-- commit sonrasi toplu yazilir; rezervasyon transaction'i reservation_audit_log'a yazmaz.
 DROP TRIGGER IF EXISTS trg_reservation_insert ON reservations;
-CREATE TRIGGER trg_reservation_insert
-    AFTER INSERT ON reservations
-    FOR EACH ROW
-EXECUTE FUNCTION trg_reservation_audit_insert();
+DROP FUNCTION IF EXISTS trg_reservation_audit_insert();
+
+-- Audit yazicisi satirlari toplu ekler; her satirda sequence'e gitmemek icin oturum basina 50 deger ayrilir
+ALTER SEQUENCE reservation_log_seq CACHE 50;
 
 -- TRIGGER 2: Rezervasyon İptal Edildiğinde - İptal Kuralı Kontrolü ve Bildirim
 CREATE OR REPLACE FUNCTION trg_check_cancellation_rules()
@@ -457,25 +550,13 @@ BEGIN
                 TO_CHAR(v_cancel_deadline, 'DD.MM.YYYY HH24:MI');
         END IF;
 
-        -- İptal zamanını kaydet
+        -- İptal zamanını kaydet (audit kaydi AuditLogWriter ile commit sonrasi yazilir)
         NEW.cancelled_at := v_now;
 
-        -- Audit log kaydı
-        INSERT INTO reservation_audit_log (reservation_id, action_type, user_id, old_status, new_status, details)
-        VALUES (OLD.id, 'CANCEL', OLD.user_id, 'ACTIVE', 'CANCELLED',
-                'Rezervasyon iptal edildi. İptal nedeni: ' || COALESCE(NEW.cancellation_reason, 'Belirtilmedi'));
-
         -- Başarılı iptal bildirimi (Exception ile değil, NOTICE ile)
         RAISE NOTICE 'TRIGGER_SUCCESS:RESERVATION_CANCELLED:Rezervasyon başarıyla iptal edildi. ID: %', OLD.id;
     END IF;
 
-    -- Tamamlanan rezervasyonlar için log
-    IF OLD.status = 'ACTIVE' AND NEW.status = 'COMPLETED' THEN
-        INSERT INTO reservation_audit_log (reservation_id, action_type, user_id, old_status, new_status, details)
-        VALUES (OLD.id, 'COMPLETE', OLD.user_id, 'ACTIVE', 'COMPLETED',
-                'Rezervasyon tamamlandı.');
-    END IF;
-
     RETURN NEW;
 END;
 $$ LANGUAGE plpgsql;
@@ -487,7 +568,7 @@ CREATE TRIGGER trg_reservation_update
 EXECUTE FUNCTION trg_check_cancellation_rules();
 
 -- 7. AGGREGATE QUERY İÇİN STORED PROCEDURE
--- En popüler tesisleri getir (HAVING ile)
+-- En popüler tesisleri getir (HAVING ile, arsiv dahil)
 CREATE OR REPLACE FUNCTION fn_get_popular_facilities()
     RETURNS TABLE (
                       facility_id BIGINT,
@@ -506,7 +587,7 @@ BEGIN
                  LEFT JOIN facility_blocks fb ON fb.facility_id = f.id
                  LEFT JOIN desks d ON d.facility_block_id = fb.id
                  LEFT JOIN seats s ON s.desk_id = d.id
-                 LEFT JOIN reservations r ON r.seat_id = s.id
+                 LEFT JOIN vw_reservations_all r ON r.seat_id = s.id
         GROUP BY f.id, f.name
         HAVING COUNT(r.id) > (
             SELECT AVG(reservation_count)
@@ -516,7 +597,7 @@ BEGIN
                               LEFT JOIN facility_blocks fb2 ON fb2.facility_id = f2.id
                               LEFT JOIN desks d2 ON d2.facility_block_id = fb2.id
                               LEFT JOIN seats s2 ON s2.desk_id = d2.id
-                              LEFT JOIN reservations r2 ON r2.seat_id = s2.id
+                              LEFT JOIN vw_reservations_all r2 ON r2.seat_id = s2.id
                      GROUP BY f2.id
                  ) AS avg_calc
         )
@@ -554,7 +635,7 @@ BEGIN
             r.reservation_date,
             r.start_time,
             ('Tamamlanan rezervasyon: ' || f.name || ' - ' || fb.name)::VARCHAR
-        FROM reservations r
+        FROM vw_reservations_all r
                  JOIN facilities f ON r.facility_id = f.id
                  JOIN facility_blocks fb ON r.facility_block_id = fb.id
         WHERE r.user_id = p_user_id AND r.status = 'COMPLETED'
@@ -567,7 +648,7 @@ BEGIN
             r.reservation_date,
             r.start_time,
             ('İptal edilen rezervasyon: ' || f.name || ' - ' || COALESCE(r.cancellation_reason, 'Sebep belirtilmedi'))::VARCHAR
-        FROM reservations r
+        FROM vw_reservations_all r
                  JOIN facilities f ON r.facility_id = f.id
         WHERE r.user_id = p_user_id AND r.status = 'CANCELLED'
 
@@ -575,7 +656,7 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
--- EXCEPT: Hiç rezervasyon yapılmamış tesisler
+-- EXCEPT: Hiç rezervasyon yapılmamış tesisler (arsiv dahil)
 CREATE OR REPLACE FUNCTION fn_get_facilities_without_reservations()
     RETURNS TABLE (
                       facility_id BIGINT,
@@ -594,7 +675,7 @@ BEGIN
                  JOIN facility_blocks fb ON fb.facility_id = f.id
                  JOIN desks d ON d.facility_block_id = fb.id
                  JOIN seats s ON s.desk_id = d.id
-                 JOIN reservations r ON r.seat_id = s.id;
+                 JOIN vw_reservations_all r ON r.seat_id = s.id;
 END;
 $$ LANGUAGE plpgsql;
 
@@ -603,12 +684,8 @@ $$ LANGUAGE plpgsql;
 -- Mevcut rezervasyonlara status ekleme
 UPDATE reservations SET status = 'ACTIVE' WHERE status IS NULL;
 
--- Geçmiş rezervasyonları COMPLETED yap
-UPDATE reservations
-SET status = 'COMPLETED'
-WHERE status = 'ACTIVE'
-  AND (reservation_date < CURRENT_DATE
-    OR (reservation_date = CURRENT_DATE AND end_time <= CURRENT_TIME));
+-- Geçmiş rezervasyonlar: ReservationExpirySweeper ilk calismasinda COMPLETED yapar
+-- (audit kaydi ve calisma ozetleri de orada yazildigi icin burada toplu UPDATE yapilmaz)
 
 -- 10. YARDIMCI FONKSİYON: Trigger Mesajı Kontrolü
 
@@ -626,4 +703,115 @@ BEGIN
 
     RETURN COALESCE(v_message, 'İşlem kaydı bulunamadı.');
 END;
-$$ LANGUAGE plpgsql;
\ No newline at end of file
+$$ LANGUAGE plpgsql;
+
+-- 11. REZERVASYON FONKSIYONU: Tek Cagrida Dogrulama + Kayit
+-- Koltuk ve kullanici satirlarini kilitler, her kural icin tek indeksli EXISTS/COUNT yapar,
+-- ardindan INSERT (p_reservation_id NULL) veya tasima UPDATE'i calistirir.
+-- Donus: 'OK:<rezervasyon id>' | 'SEAT_NOT_FOUND' | 'RESERVATION_NOT_FOUND' | 'MAX_RESERVATION_LIMIT'
+--        | 'TIME_CONFLICT' | 'SEAT_CONFLICT' | 'SEAT_HELD'
+CREATE OR REPLACE FUNCTION fn_book_seat(
+    p_user_id BIGINT,
+    p_seat_id BIGINT,
+    p_date DATE,
+    p_start_time TIME,
+    p_end_time TIME,
+    p_reservation_id BIGINT DEFAULT NULL
+) RETURNS VARCHAR AS $$
+DECLARE
+    v_desk_id BIGINT;
+    v_block_id BIGINT;
+    v_facility_id BIGINT;
+    v_active_count INTEGER;
+    v_reservation_id BIGINT;
+BEGIN
+    -- Koltuk hiyerarsisi + koltuk satir kilidi (ayni koltuga yazanlar sirayla ilerler)
+    SELECT d.id, fb.id, fb.facility_id INTO v_desk_id, v_block_id, v_facility_id
+    FROM seats s
+             JOIN desks d ON s.desk_id = d.id
+             JOIN facility_blocks fb ON d.facility_block_id = fb.id
+    WHERE s.id = p_seat_id
+        FOR UPDATE OF s;
+
+    IF NOT FOUND THEN
+        RETURN 'SEAT_NOT_FOUND';
+    END IF;
+
+    PERFORM 1 FROM users WHERE id = p_user_id FOR UPDATE;
+
+    -- Limit kontrolu sadece yeni rezervasyonda (idx_reservation_user_date)
+    IF p_reservation_id IS NULL THEN
+        SELECT COUNT(DISTINCT COALESCE(series_id, -id)) INTO v_active_count
+        FROM reservations
+        WHERE user_id = p_user_id
+          AND status = 'ACTIVE';
+
+        IF v_active_count >= 3 THEN
+            RETURN 'MAX_RESERVATION_LIMIT';
+        END IF;
+    END IF;
+
+    -- Kullanici zaman cakismasi (idx_reservation_user_date)
+    IF EXISTS (SELECT 1 FROM reservations
+               WHERE user_id = p_user_id
+                 AND reservation_date = p_date
+                 AND status = 'ACTIVE'
+                 AND id IS DISTINCT FROM p_reservation_id
+                 AND start_time < p_end_time AND end_time > p_start_time) THEN
+        RETURN 'TIME_CONFLICT';
+    END IF;
+
+    -- Koltuk cakismasi (idx_reservation_seat_date; ex_reservation_seat_period de garanti eder)
+    IF EXISTS (SELECT 1 FROM reservations
+               WHERE seat_id = p_seat_id
+                 AND reservation_date = p_date
+                 AND status = 'ACTIVE'
+                 AND id IS DISTINCT FROM p_reservation_id
+                 AND start_time < p_end_time AND end_time > p_start_time) THEN
+        RETURN 'SEAT_CONFLICT';
+    END IF;
+
+    -- Baska kullanicinin gecerli koltuk tutmasi (idx_seat_hold_seat_date)
+    IF EXISTS (SELECT 1 FROM seat_holds
+               WHERE seat_id = p_seat_id
+                 AND reservation_date = p_date
+                 AND user_id <> p_user_id
+                 AND expires_at > LOCALTIMESTAMP
+                 AND start_time < p_end_time AND end_time > p_start_time) THEN
+        RETURN 'SEAT_HELD';
+    END IF;
+
+    -- Kontroller yapildi: BEFORE INSERT trigger'lari ayni sayimlari tekrarlamasin
+    PERFORM set_config('studyflow.booking_validated', 'on', true);
+
+    IF p_reservation_id IS NULL THEN
+        INSERT INTO reservations (user_id, seat_id, facility_id, facility_block_id, desk_id,
+                                  reservation_date, start_time, end_time, status)
+        VALUES (p_user_id, p_seat_id, v_facility_id, v_block_id, v_desk_id,
+                p_date, p_start_time, p_end_time, 'ACTIVE')
+        RETURNING id INTO v_reservation_id;
+
+        -- Sihirbaz tutmasi rezervasyona donustu (bekleme listesi teklif tutmalari korunur)
+        DELETE FROM seat_holds
+        WHERE user_id = p_user_id
+          AND id NOT IN (SELECT w.offer_hold_id FROM waitlist_entries w
+                         WHERE w.user_id = p_user_id
+                           AND w.status = 'OFFERED'
+                           AND w.offer_hold_id IS NOT NULL);
+    ELSE
+        UPDATE reservations
+        SET reservation_date = p_date,
+            start_time = p_start_time,
+            end_time = p_end_time
+        WHERE id = p_reservation_id AND status = 'ACTIVE';
+
+        IF NOT FOUND THEN
+            PERFORM set_config('studyflow.booking_validated', 'off', true);
+            RETURN 'RESERVATION_NOT_FOUND';
+        END IF;
+    END IF;
+
+    PERFORM set_config('studyflow.booking_validated', 'off', true);
+    RETURN 'OK:' || COALESCE(v_reservation_id, p_reservation_id);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,22 @@
+-- Tesis arama (FacilityService.searchFacilities) indeksleri, sadece PostgreSQL; H2'de LIKE tablo taramasi ile calisir.
+-- 3+ karakterli aramalar LIKE '%...%' (trigram GIN), daha kisa aramalar LIKE '...%' (text_pattern_ops) kullanir
+
+CREATE INDEX IF NOT EXISTS idx_facility_name_prefix
+    ON facilities (LOWER(name) text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS idx_facility_address_prefix
+    ON facilities (LOWER(address) text_pattern_ops);
+
+-- pg_trgm kurulu degilse veya kullanicinin eklenti yetkisi yoksa trigram indeksleri atlanir;
+-- arama ayni LIKE sorgusu ile (tablo taramasi) calismaya devam eder
+DO $$
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+        EXECUTE 'CREATE INDEX IF NOT EXISTS idx_facility_name_trgm
+                     ON facilities USING gin (LOWER(name) gin_trgm_ops)';
+        EXECUTE 'CREATE INDEX IF NOT EXISTS idx_facility_address_trgm
+                     ON facilities USING gin (LOWER(address) gin_trgm_ops)';
+    EXCEPTION
+        WHEN feature_not_supported OR undefined_file OR insufficient_privilege THEN
+            RAISE NOTICE 'pg_trgm kullanilamiyor, trigram indeksleri atlandi: %', SQLERRM;
+    END $$;
@@ -0,0 +1,19 @@
+-- Koltuk cift rezervasyonunu veritabani seviyesinde engelleyen EXCLUDE constraint (period kolonu V1'de)
+-- Kisit GiST indeksini de olusturur; koltuk bazli overlap sorgulari (period && tsrange) bu indeksi kullanir.
+-- Kisit eklenemezse (btree_gist yok, yetki yok, cakisan veri) SeatConflicts ve fn_book_seat
+-- kilitli sayim kontrolune duser.
+DO $$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_reservation_seat_period') THEN
+            CREATE EXTENSION IF NOT EXISTS btree_gist;
+            ALTER TABLE reservations
+                ADD CONSTRAINT ex_reservation_seat_period
+                    EXCLUDE USING gist (seat_id WITH =, period WITH &&) WHERE (status = 'ACTIVE');
+        END IF;
+    EXCEPTION
+        -- Mevcut veride cakisan ACTIVE kayitlar varsa kisit eklenemez
+        WHEN exclusion_violation THEN
+            RAISE NOTICE 'ex_reservation_seat_period eklenemedi: cakisan aktif rezervasyonlar mevcut';
+        WHEN feature_not_supported OR undefined_file OR undefined_object OR insufficient_privilege THEN
+            RAISE NOTICE 'btree_gist kullanilamiyor, ex_reservation_seat_period eklenmedi: %', SQLERRM;
+    END $$;
@@ -0,0 +1,6 @@
+-- Tek seferlik bakim islerinin (ornegin calisma ozetlerinin bastan kurulmasi) tamamlandigi kayit.
+-- Acilis kontrolleri "tablo bos mu" yerine buradaki isaret satirina bakar.
+CREATE TABLE IF NOT EXISTS maintenance_markers (
+                                                   name VARCHAR(100) PRIMARY KEY,
+                                                   completed_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,173 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.model.user.User;
+import com.studyflow.app.repository.facility.SeatRepository;
+import com.studyflow.app.repository.user.UserRepository;
+import com.studyflow.app.service.audit.AuditLogWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rezervasyon yazim yollarinin saniyedeki rezervasyon olcumu (bookings/sn).
+ * Ayni veri setinde once Java tarafli kontrol yolu (insertWithChecks), sonra tek round trip fn_book_seat yolu calisir.
+ * Normal test kosusunda calismaz; PostgreSQL (prod profili) uzerinde elle calistirilir:
+ *
+ *   mvn test -Dtest=BookingThroughputBenchmark -Dbenchmark=true \
+ *       -Dspring.datasource.url=jdbc:postgresql://localhost:5432/studyflow
+ *
+ * fn_book_seat olmayan veritabaninda (H2) sadece Java yolu olculur.
+ * Gercek veritabanina yazar: sadece benchmark kullanicilarinin (BENCHMARK_EMAIL) satirlari silinir,
+ * kullanicilar ve onlara ait rezervasyon / tutma / ozet / denetim kayitlari test sonunda temizlenir.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingThroughputBenchmark {
+
+    private static final int USERS = 400;
+    private static final int THREADS = 16;
+    private static final LocalTime START = LocalTime.of(10, 0);
+    private static final LocalTime END = LocalTime.of(12, 0);
+    private static final String BENCHMARK_EMAIL = "@benchmark.test.studyflow.com";
+    private static final String BENCHMARK_USERS = "SELECT id FROM users WHERE email LIKE '%" + BENCHMARK_EMAIL + "'";
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private SeatRepository seatRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private AuditLogWriter auditLogWriter;
+
+    // Her thread kendi kullanicisi ve koltugu ile istek atar
+    @MockitoBean private UserSessionContext userSessionContext;
+    @MockitoBean private GlobalParamsContext globalParamsContext;
+    private final ThreadLocal<User> currentUser = new ThreadLocal<>();
+    private final ThreadLocal<Seat> currentSeat = new ThreadLocal<>();
+
+    @Test
+    void insertWithChecksVersusBookingFunction() throws Exception {
+        when(userSessionContext.getCurrentUser()).thenAnswer(invocation -> currentUser.get());
+        when(globalParamsContext.getSelectedDesk()).thenAnswer(invocation -> currentSeat.get().getDesk());
+        when(globalParamsContext.getSelectedFacilityBlock())
+                .thenAnswer(invocation -> currentSeat.get().getDesk().getFacilityBlock());
+        when(globalParamsContext.getSelectedFacility())
+                .thenAnswer(invocation -> currentSeat.get().getDesk().getFacilityBlock().getFacility());
+
+        List<User> users = findOrCreateUsers(USERS);
+        List<Seat> seats = seatRepository.findAll();
+        boolean hasFunction = Boolean.TRUE.equals(ReflectionTestUtils.invokeMethod(reservationService, "hasBookingFunction"));
+
+        // Isinma (JIT + baglanti havuzu), sonra olcum; her kosu yeni bir gunde, ayni istek dizisiyle
+        LocalDate baseDate = LocalDate.now().plusDays(60);
+        List<String> lines = new ArrayList<>();
+        int javaWinners = 0;
+        int functionWinners = 0;
+        for (int round = 0; round < 2; round++) {
+            boolean measured = round == 1;
+            ReflectionTestUtils.setField(reservationService, "bookingFunction", false);
+            javaWinners = run("insertWithChecks", users, seats, baseDate.plusDays(round * 2L), measured, lines);
+            if (hasFunction) {
+                ReflectionTestUtils.setField(reservationService, "bookingFunction", true);
+                functionWinners = run("fn_book_seat", users, seats, baseDate.plusDays(round * 2L + 1), measured, lines);
+            }
+        }
+        ReflectionTestUtils.setField(reservationService, "bookingFunction", null);
+        lines.forEach(System.out::println);
+
+        // Iki yol da ayni kurallari uygular: koltuk basina bir kazanan
+        int expectedWinners = Math.min(USERS, seats.size());
+        assertEquals(expectedWinners, javaWinners);
+        if (hasFunction) {
+            assertEquals(expectedWinners, functionWinners);
+        }
+    }
+
+    // USERS istek: kullanici i -> koltuk (i mod koltuk sayisi); koltuk sayisindan fazlasi cakisma ile reddedilir
+    private int run(String path, List<User> users, List<Seat> seats, LocalDate date, boolean measured,
+                    List<String> lines) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            Seat seat = seats.get(i % seats.size());
+            attempts.add(executor.submit(() -> {
+                go.await();
+                currentUser.set(user);
+                currentSeat.set(seat);
+                try {
+                    reservationService.createReservation(seat.getId(), date, START, END);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+
+        long started = System.nanoTime();
+        go.countDown();
+        int winners = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get(120, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+
+        // Kullanicilar 3 aktif rezervasyon sinirina takilmasin diye kosu sonunda temizlenir (sadece benchmark kullanicilari)
+        jdbcTemplate.update("DELETE FROM reservations WHERE reservation_date = ? AND user_id IN (" + BENCHMARK_USERS + ")", date);
+
+        if (measured) {
+            lines.add(String.format("[INFO] %-16s %d istek (%d basarili), %d thread, %d ms, %.0f istek/sn",
+                    path, users.size(), winners, THREADS, elapsedNanos / 1_000_000, users.size() * 1e9 / elapsedNanos));
+        }
+        return winners;
+    }
+
+    // Benchmark kullanicilari ve onlara ait tum kayitlar; kuyruktaki denetim kayitlari once yazdirilir
+    @AfterEach
+    void removeBenchmarkUsers() {
+        auditLogWriter.flush();
+        for (String table : new String[]{"reservation_audit_log", "seat_holds", "waitlist_entries",
+                "user_study_rollup_daily", "user_study_rollup_weekly", "user_study_rollup_monthly",
+                "reservations_history", "reservations", "reservation_series"}) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id IN (" + BENCHMARK_USERS + ")");
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + BENCHMARK_EMAIL);
+    }
+
+    private List<User> findOrCreateUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = "kullanici" + i + BENCHMARK_EMAIL;
+            User user = userRepository.getUserByEmailAddress(email);
+            if (user == null) {
+                userRepository.saveNewUser(email, "x", "Benchmark", "Kullanici" + i, "USER");
+                user = userRepository.getUserByEmailAddress(email);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+}
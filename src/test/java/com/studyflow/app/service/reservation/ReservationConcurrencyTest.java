@@ -0,0 +1,114 @@
+package com.studyflow.app.service.reservation;
+
+import com.studyflow.app.context.GlobalParamsContext;
+import com.studyflow.app.context.UserSessionContext;
+import com.studyflow.app.model.facility.Seat;
+import com.studyflow.app.model.user.User;
+import com.studyflow.app.repository.facility.SeatRepository;
+import com.studyflow.app.repository.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ayni koltuk ve ayni zaman dilimi icin yuzlerce kullanici ayni anda createReservation cagirir.
+ * Tam olarak bir rezervasyon olusmali, digerleri koltuk dolu hatasi almali.
+ * H2 (dev) uzerinde Java tarafli kontrol yolu (kilit + transaction) calisir.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-race;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("dev")
+class ReservationConcurrencyTest {
+
+    private static final int THREADS = 200;
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private GlobalParamsContext globalParamsContext;
+    @Autowired private SeatRepository seatRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // Masaustu uygulamasinda tek oturum vardir; testte her thread kendi kullanicisi ile istek atar
+    @MockitoBean private UserSessionContext userSessionContext;
+    private final ThreadLocal<User> currentUser = new ThreadLocal<>();
+
+    @Test
+    void oneSeatManyThreadsExactlyOneWinner() throws Exception {
+        when(userSessionContext.getCurrentUser()).thenAnswer(invocation -> currentUser.get());
+
+        List<User> users = createUsers(THREADS);
+        Long seatId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM seats", Long.class);
+        Seat seat = seatRepository.findById(seatId).orElseThrow();
+        globalParamsContext.setSelectedDesk(seat.getDesk());
+        globalParamsContext.setSelectedFacilityBlock(seat.getDesk().getFacilityBlock());
+        globalParamsContext.setSelectedFacility(seat.getDesk().getFacilityBlock().getFacility());
+
+        // Ornek veride olmayan bir gun: koltuk bu aralikta bos
+        LocalDate date = LocalDate.now().plusDays(30);
+        LocalTime start = LocalTime.of(10, 0);
+        LocalTime end = LocalTime.of(12, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (User user : users) {
+            attempts.add(executor.submit(() -> {
+                currentUser.set(user);
+                ready.countDown();
+                go.await();
+                try {
+                    reservationService.createReservation(seatId, date, start, end);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+
+        ready.await();
+        long started = System.nanoTime();
+        go.countDown();
+        int winners = 0;
+        for (Future<Boolean> attempt : attempts) {
+            if (attempt.get(60, TimeUnit.SECONDS)) {
+                winners++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+
+        System.out.printf("[INFO] %d istek, %d ms, %.0f istek/sn%n", THREADS, elapsedNanos / 1_000_000,
+                THREADS * 1e9 / elapsedNanos);
+
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations " +
+                "WHERE seat_id = ? AND reservation_date = ? AND status = 'ACTIVE'", Integer.class, seatId, date);
+        assertEquals(1, winners);
+        assertEquals(1, rows);
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = "yaris" + i + "@test.studyflow.com";
+            userRepository.saveNewUser(email, "x", "Yaris", "Kullanici" + i, "USER");
+            users.add(userRepository.getUserByEmailAddress(email));
+        }
+        return users;
+    }
+}